@@ -0,0 +1,70 @@
+/*
+ * BenchmarkSupport.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.benchmarks;
+
+import java.io.File;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * Pomůcky společné pro všechny benchmarky.
+ *
+ * @author Martin Pokorný
+ */
+final class BenchmarkSupport {
+
+    /** Velikosti dat: 1 B .. 48 KiB. */
+    static final String[] PAYLOAD_SIZES = {"1", "256", "6912", "16384", "49152"};
+    
+    /** (silná reference, jinak by JUL logger mohl uvolnit i s nastavením) */
+    private static final Logger APP_LOGGER = Logger.getLogger("cz.mp");
+    
+    /** */
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Vypne logování INFO/DEBUG z měřeného kódu; jinak by se měřil 
+     * hlavně výpis logu.
+     */
+    static void silenceLogging() {
+        APP_LOGGER.setLevel(Level.WARNING);
+    }
+    
+    /**
+     * 
+     * @param size
+     * @return  náhodná (ale pokaždé stejná) data
+     */
+    static byte[] createPayload(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+    
+    /**
+     * Adresář pro výstupní soubory. Pokud možno tmpfs, aby se neměřil disk.
+     * Lze nastavit systémovou vlastností {@code bench.tmpdir}.
+     * 
+     * @return 
+     */
+    static File getTempDir() {
+        String dir = System.getProperty("bench.tmpdir");
+        if (dir != null) {
+            return new File(dir);
+        }
+        File shm = new File("/dev/shm");
+        if (shm.isDirectory() && shm.canWrite()) {
+            return shm;
+        }
+        return new File(System.getProperty("java.io.tmpdir"));
+    }
+    
+}   // BenchmarkSupport.java
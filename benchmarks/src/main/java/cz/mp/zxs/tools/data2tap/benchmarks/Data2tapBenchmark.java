@@ -0,0 +1,75 @@
+/*
+ * Data2tapBenchmark.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.benchmarks;
+
+import cz.mp.zxs.tools.data2tap.Data2tap;
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import cz.mp.zxs.tools.data2tap.TapBlockType;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * {@link Data2tap#execute()} včetně zápisu souboru (do tmpfs, pokud je 
+ * k dispozici; viz {@link BenchmarkSupport#getTempDir()}).
+ *
+ * @author Martin Pokorný
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Data2tapBenchmark {
+
+    /** viz {@link BenchmarkSupport#PAYLOAD_SIZES} */
+    @Param({"1", "256", "6912", "16384", "49152"})
+    public int payloadSize;
+    
+    private Data2tap data2tap;
+    private File outTapFile;
+    
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkSupport.silenceLogging();
+        outTapFile = File.createTempFile("bench_", ".tap", 
+                BenchmarkSupport.getTempDir());
+        
+        data2tap = new Data2tap();
+        data2tap.setTapBlockType(TapBlockType.BINARY_DATA);
+        data2tap.setName("bench");
+        data2tap.setAddress(0x4000);
+        data2tap.setRawData(BenchmarkSupport.createPayload(payloadSize));
+        data2tap.setOutTapFile(outTapFile);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        outTapFile.delete();
+    }
+    
+    @Benchmark
+    public void execute() throws IOException, InvalidDataException {
+        data2tap.execute();
+    }
+    
+}   // Data2tapBenchmark.java
@@ -0,0 +1,73 @@
+/*
+ * DataTextFormatBenchmark.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.benchmarks;
+
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import cz.mp.zxs.tools.data2tap.gui.DataTextFormat;
+import cz.mp.zxs.tools.data2tap.gui.DataTextTokenizer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Převod dat na text a zpět v datové oblasti GUI
+ * (plnění textového pole, viz {@link DataTextFormat}, a jeho úplná
+ * analýza, viz {@link DataTextTokenizer}).
+ *
+ * @author Martin Pokorný
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataTextFormatBenchmark {
+
+    /** viz {@link BenchmarkSupport#PAYLOAD_SIZES} */
+    @Param({"1", "256", "6912", "16384", "49152"})
+    public int payloadSize;
+    
+    @Param({"10", "16"})
+    public int radix;
+    
+    private ByteBuffer payload;
+    private PlainDocument document;
+    
+    @Setup
+    public void setup() throws BadLocationException {
+        BenchmarkSupport.silenceLogging();
+        payload = ByteBuffer.wrap(BenchmarkSupport.createPayload(payloadSize));
+        document = new PlainDocument();
+        document.insertString(0, DataTextFormat.format(payload, radix), null);
+    }
+    
+    @Benchmark
+    public String format() {
+        return DataTextFormat.format(payload, radix);
+    }
+    
+    @Benchmark
+    public byte[] parse() throws InvalidDataException {
+        return new DataTextTokenizer(document, radix).toByteArray();
+    }
+    
+}   // DataTextFormatBenchmark.java
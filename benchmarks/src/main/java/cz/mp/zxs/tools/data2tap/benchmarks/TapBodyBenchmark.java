@@ -0,0 +1,58 @@
+/*
+ * TapBodyBenchmark.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.benchmarks;
+
+import cz.mp.zxs.tools.data2tap.TapBody;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * {@link TapBody#append(byte...)} + {@link TapBody#appendParityToLastByte()}.
+ *
+ * @author Martin Pokorný
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TapBodyBenchmark {
+
+    /** viz {@link BenchmarkSupport#PAYLOAD_SIZES} */
+    @Param({"1", "256", "6912", "16384", "49152"})
+    public int payloadSize;
+    
+    private byte[] payload;
+    
+    @Setup
+    public void setup() {
+        BenchmarkSupport.silenceLogging();
+        payload = BenchmarkSupport.createPayload(payloadSize);
+    }
+    
+    @Benchmark
+    public byte[] appendAndParity() {
+        TapBody tapBody = new TapBody(payload.length);
+        tapBody.append(payload);
+        tapBody.appendParityToLastByte();
+        return tapBody.getBytes();
+    }
+    
+}   // TapBodyBenchmark.java
@@ -0,0 +1,63 @@
+/*
+ * TapHeaderBenchmark.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.benchmarks;
+
+import cz.mp.zxs.tools.data2tap.TapBlockType;
+import cz.mp.zxs.tools.data2tap.TapHeader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * {@link TapHeader#createData()}.
+ *
+ * @author Martin Pokorný
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TapHeaderBenchmark {
+
+    private TapHeader tapHeader;
+    
+    @Setup
+    public void setup() {
+        BenchmarkSupport.silenceLogging();
+        tapHeader = new TapHeader();
+        tapHeader.setType(TapBlockType.BINARY_DATA);
+        tapHeader.setName("screen");
+        tapHeader.setDataLength(6912);
+        tapHeader.setParam1(0x4000);
+    }
+    
+    @Benchmark
+    public byte[] createData() {
+        tapHeader.createData();
+        return tapHeader.getBytes();
+    }
+    
+    @Benchmark
+    public byte[] setNameAndCreateData() {
+        tapHeader.setName("screen");
+        tapHeader.createData();
+        return tapHeader.getBytes();
+    }
+    
+}   // TapHeaderBenchmark.java
@@ -0,0 +1,160 @@
+/*
+ * DeferredFileHandler.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.utils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.ErrorManager;
+import java.util.logging.FileHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+
+
+/**
+ * JUL handler, který log soubor ({@link FileHandler}) otevře až ve chvíli,
+ * kdy je potřeba.
+ * <p>
+ * Do té doby drží posledních {@code size} záznamů v paměti. Soubor se
+ * otevře (a záznamy z paměti se do něj zapíšou), když přijde záznam 
+ * s úrovní alespoň {@code push}, nebo po zavolání {@linkplain #activate()}.
+ * Běh bez chyb tak log soubor vůbec neotevře.
+ * <p>
+ * Nastavení v {@code logging.properties} (výchozí hodnoty):
+ * <pre>
+ * cz.mp.utils.DeferredFileHandler.level = ALL
+ * cz.mp.utils.DeferredFileHandler.size = 1000
+ * cz.mp.utils.DeferredFileHandler.push = WARNING
+ * </pre>
+ * Vlastní soubor se nastavuje jako obvykle, vlastnostmi 
+ * {@code java.util.logging.FileHandler.*}.
+ *
+ * @author Martin Pokorný
+ */
+public class DeferredFileHandler extends Handler {
+
+    /** všechny instance (kvůli {@linkplain #activate()}) */
+    private static final List<DeferredFileHandler> INSTANCES = 
+            new CopyOnWriteArrayList<DeferredFileHandler>();
+
+    private final int size;
+    private final Level pushLevel;
+    private final ArrayDeque<LogRecord> buffer;
+
+    private FileHandler target;
+    /** soubor nelze otevřít; další pokusy se nedělají */
+    private boolean failed = false;
+
+    /**
+     * Nastavení se čte z {@link LogManager}.
+     */
+    public DeferredFileHandler() {
+        LogManager manager = LogManager.getLogManager();
+        String prefix = getClass().getName();
+        setLevel(parseLevel(manager.getProperty(prefix + ".level"), Level.ALL));
+        pushLevel = parseLevel(manager.getProperty(prefix + ".push"), Level.WARNING);
+        size = parseSize(manager.getProperty(prefix + ".size"), 1000);
+        buffer = new ArrayDeque<LogRecord>(Math.min(size, 64));
+        INSTANCES.add(this);
+    }
+
+    private static Level parseLevel(String value, Level defaultLevel) {
+        if (value == null) {
+            return defaultLevel;
+        }
+        try {
+            return Level.parse(value.trim());
+        } catch (IllegalArgumentException ex) {
+            return defaultLevel;
+        }
+    }
+
+    private static int parseSize(String value, int defaultSize) {
+        if (value == null) {
+            return defaultSize;
+        }
+        try {
+            int result = Integer.parseInt(value.trim());
+            return result > 0 ? result : defaultSize;
+        } catch (NumberFormatException ex) {
+            return defaultSize;
+        }
+    }
+
+    /**
+     * Otevře log soubor u všech instancí (např. pro GUI, které běží dlouho).
+     */
+    public static void activate() {
+        for (DeferredFileHandler handler : INSTANCES) {
+            handler.open();
+        }
+    }
+
+    @Override
+    public synchronized void publish(LogRecord record) {
+        if (! isLoggable(record)) {
+            return;
+        }
+        if (target != null) {
+            target.publish(record);
+            return;
+        }
+        if (failed) {
+            return;
+        }
+        if (buffer.size() >= size) {
+            buffer.removeFirst();
+        }
+        buffer.addLast(record);
+        if (record.getLevel().intValue() >= pushLevel.intValue()) {
+            open();
+        }
+    }
+
+    /**
+     * Otevře log soubor a zapíše do něj záznamy z paměti.
+     */
+    private synchronized void open() {
+        if (target != null || failed) {
+            return;
+        }
+        try {
+            target = new FileHandler();
+        } catch (IOException | RuntimeException ex) {
+            failed = true;
+            buffer.clear();
+            reportError("can't open log file", ex, ErrorManager.OPEN_FAILURE);
+            return;
+        }
+        for (LogRecord record : buffer) {
+            target.publish(record);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (target != null) {
+            target.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        INSTANCES.remove(this);
+        buffer.clear();
+        if (target != null) {
+            target.close();
+            target = null;
+        }
+    }
+
+}   // DeferredFileHandler.java
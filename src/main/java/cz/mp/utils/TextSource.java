@@ -21,16 +21,30 @@ import java.util.ResourceBundle;
  */
 public class TextSource {
 
-    /** Zdroj lokalizovaných textů pro výchozí jazyk. */
-    public static final ResourceBundle MAIN = 
-            PropertyResourceBundle.getBundle(
-                "texts.Main",
-                Locale.getDefault() );
+    /** 
+     * Zdroj lokalizovaných textů pro výchozí jazyk. 
+     * Načte se až při prvním použití (např. CLI bez výpisu textů ho 
+     * vůbec nenačte).
+     */
+    private static class MainBundleHolder {
+        static final ResourceBundle MAIN = 
+                PropertyResourceBundle.getBundle(
+                    "texts.Main",
+                    Locale.getDefault() );
+    }
     
     /** */
     private TextSource() {
     }
 
+    /**
+     * 
+     * @return  zdroj lokalizovaných textů pro výchozí jazyk
+     */
+    public static ResourceBundle getMainBundle() {
+        return MainBundleHolder.MAIN;
+    }
+
     /** 
      * Získání formátovaného lokalizovaného textu. 
      * 
@@ -41,7 +55,7 @@ public class TextSource {
      * @throws IllegalArgumentException  pokud je {@code key} prázdný.
      */     
     public static String getLocText(String key, Object... args) {
-        return getLocText(MAIN, key, args);
+        return getLocText(getMainBundle(), key, args);
     }
 
     /** 
@@ -59,13 +73,17 @@ public class TextSource {
         if (key == null || key.trim().length() == 0) {
             throw new IllegalArgumentException("resource key is blank");
         }
+        String text;
         try {
-            bundle.getString(key);
+            text = bundle.getString(key);
         } catch (MissingResourceException ex) {
             return key;
         }
-        
-        return MessageFormat.format(bundle.getString(key), args);
+        // (text bez parametrů a bez apostrofů MessageFormat nezmění)
+        if (args.length == 0 && text.indexOf('{') < 0 && text.indexOf('\'') < 0) {
+            return text;
+        }
+        return MessageFormat.format(text, args);
     }
     
 }   // TextSource.java
@@ -0,0 +1,340 @@
+/*
+ * AsyncTapWrite.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import cz.mp.zxs.tools.data2tap.metrics.EncoderMetrics;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Jeden asynchronní zápis připravených bufferů do 
+ * {@link AsynchronousFileChannel}. Buffery se zapisují postupně; další
+ * zápis se spustí až z dokončení předchozího, takže během zápisu 
+ * nečeká žádné vlákno.
+ * <p>
+ * Zapisuje se do dočasného souboru ve stejném adresáři, který po 
+ * dokončení nahradí výstupní soubor; po zrušení nebo chybě se dočasný
+ * soubor smaže a případný původní výstupní soubor zůstane beze změny.
+ * <p>
+ * Po dokončení (i neúspěšném) se kanál zavře a výsledek se předá do 
+ * {@linkplain #getFuture() Future} a případně do handleru volajícího.
+ *
+ * @author Martin Pokorný
+ * @param <A>  typ přílohy pro handler
+ * @see TapEncoder#encodeAsync(TapJob, java.util.concurrent.ExecutorService)
+ */
+final class AsyncTapWrite<A> implements CompletionHandler<Integer, Void> {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncTapWrite.class);
+
+    private final ResultFuture future = new ResultFuture();
+
+    private final A attachment;
+    private final CompletionHandler<TapWriteResult, ? super A> handler;
+
+    private AsynchronousFileChannel channel;
+    private ByteBuffer[] buffers;
+    /** {@code null} = zatím nevytvořen */
+    private File tempFile;
+    private File outTapFile;
+    private int blocks;
+    private long dataBytes;
+
+    private int index = 0;
+    private long position = 0;
+    private long start;
+
+    /**
+     *
+     * @param attachment
+     * @param handler  {@code null} = jen {@linkplain #getFuture()}
+     */
+    AsyncTapWrite(A attachment, 
+            CompletionHandler<TapWriteResult, ? super A> handler) {
+        this.attachment = attachment;
+        this.handler = handler;
+    }
+
+    /**
+     *
+     * @return
+     */
+    ResultFuture getFuture() {
+        return future;
+    }
+
+    /**
+     * Vytvoří dočasný soubor ve stejném adresáři jako výstupní soubor
+     * (smaže se při chybě, viz {@linkplain #failed(Throwable)}).
+     *
+     * @param outTapFile
+     * @return  dočasný soubor pro {@linkplain #start}
+     * @throws IOException
+     */
+    File createTempFile(File outTapFile) throws IOException {
+        File dir = outTapFile.getAbsoluteFile().getParentFile();
+        // (předpona musí mít aspoň 3 znaky)
+        tempFile = File.createTempFile("." + outTapFile.getName() + "-", 
+                ".tmp", dir);
+        return tempFile;
+    }
+
+    /**
+     * Spustí zápis.
+     *
+     * @param channel  kanál dočasného souboru (zavře se po dokončení)
+     * @param buffers  data pro zápis od začátku souboru, v pořadí
+     * @param outTapFile  výstupní soubor, nahradí se po dokončení
+     * @param blocks
+     * @param dataBytes
+     * @see #createTempFile(File)
+     */
+    void start(AsynchronousFileChannel channel, ByteBuffer[] buffers,
+            File outTapFile, int blocks, long dataBytes) {
+        this.channel = channel;
+        this.buffers = buffers;
+        this.outTapFile = outTapFile;
+        this.blocks = blocks;
+        this.dataBytes = dataBytes;
+        this.start = System.nanoTime();
+        writeNext();
+    }
+
+    /**
+     * 
+     */
+    private void writeNext() {
+        while (index < buffers.length && ! buffers[index].hasRemaining()) {
+            index++;
+        }
+        if (future.isCancelled()) {
+            failed(new CancellationException(), null);
+            return;
+        }
+        if (index == buffers.length) {
+            // (od teď už zrušení nezabrání nahrazení výstupního souboru)
+            if (! future.commit()) {
+                failed(new CancellationException(), null);
+                return;
+            }
+            try {
+                channel.close();
+                Files.move(tempFile.toPath(), outTapFile.toPath(), 
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException ex) {
+                failed(ex);
+                return;
+            }
+            EncoderMetrics.get().recordWrite(position, 
+                    System.nanoTime() - start);
+            log.info("outTapFile = " + outTapFile + " ... done");
+            completed(new TapWriteResult(outTapFile, blocks, dataBytes, 
+                    position));
+            return;
+        }
+        try {
+            channel.write(buffers[index], position, null, this);
+        } catch (RuntimeException ex) {
+            failed(ex, null);
+        }
+    }
+
+    @Override
+    public void completed(Integer written, Void nothing) {
+        position += written;
+        writeNext();
+    }
+
+    @Override
+    public void failed(Throwable ex, Void nothing) {
+        try {
+            channel.close();
+        } catch (IOException closeEx) {
+            log.debug(closeEx.getMessage());
+        }
+        failed(ex);
+    }
+
+    /**
+     *
+     * @param result
+     */
+    private void completed(TapWriteResult result) {
+        future.complete(result);
+        if (handler != null) {
+            handler.completed(result, attachment);
+        }
+    }
+
+    /**
+     *
+     * @param ex
+     */
+    void failed(Throwable ex) {
+        if (! (ex instanceof CancellationException)) {
+            log.warn(outTapFile + ": " + ex.getMessage());
+        }
+        if (tempFile != null) {
+            try {
+                Files.deleteIfExists(tempFile.toPath());
+            } catch (IOException deleteEx) {
+                log.warn(tempFile + ": " + deleteEx.getMessage());
+            }
+        }
+        future.fail(ex);
+        if (handler != null) {
+            handler.failed(ex, attachment);
+        }
+    }
+
+    // -----
+    /**
+     * {@link Future} nastavovaný zvenku: výsledek nebo chybu nastaví
+     * {@linkplain AsyncTapWrite}, čekající vlákna uvolní {@link CountDownLatch}.
+     * Platí jen první nastavení (výsledek, chyba nebo zrušení).
+     * Zrušení ({@code cancel}) zastaví zápis před dalším bufferem; po 
+     * potvrzení výsledku ({@linkplain #commit()}) už zrušit nelze.
+     * <p>
+     * Projekt cílí na Java 7, kde ještě není
+     * {@code java.util.concurrent.CompletableFuture}; {@code FutureTask}
+     * by zase vyžadoval úlohu, která se nikdy nespustí.
+     */
+    static final class ResultFuture implements Future<TapWriteResult> {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private TapWriteResult result;
+        private Throwable failure;
+        private boolean cancelled = false;
+        private boolean committed = false;
+
+        /**
+         *
+         * @param result
+         * @return  {@code false} pokud už byl výsledek nastaven
+         */
+        boolean complete(TapWriteResult result) {
+            return settle(result, null, false);
+        }
+
+        /**
+         *
+         * @param ex
+         * @return  {@code false} pokud už byl výsledek nastaven
+         */
+        boolean fail(Throwable ex) {
+            return settle(null, ex, false);
+        }
+
+        /**
+         * Potvrdí, že se výsledek nastaví (výstupní soubor se nahradí);
+         * od této chvíle {@code cancel} vrací {@code false}.
+         *
+         * @return  {@code false} pokud už byl výsledek nastaven (zrušen)
+         */
+        synchronized boolean commit() {
+            if (done.getCount() == 0) {
+                return false;
+            }
+            committed = true;
+            return true;
+        }
+
+        /**
+         *
+         * @param result
+         * @param failure
+         * @param cancelled
+         * @return
+         */
+        private synchronized boolean settle(TapWriteResult result,
+                Throwable failure, boolean cancelled) {
+            if (done.getCount() == 0) {
+                return false;
+            }
+            this.result = result;
+            this.failure = failure;
+            this.cancelled = cancelled;
+            done.countDown();
+            return true;
+        }
+
+        /**
+         * Zruší čekání na výsledek; zápis skončí před dalším bufferem.
+         *
+         * @param mayInterruptIfRunning  (nepoužívá se, zápis neběží
+         *      v žádném vlákně)
+         * @return
+         */
+        @Override
+        public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+            if (committed) {
+                return false;
+            }
+            return settle(null, null, true);
+        }
+
+        @Override
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        @Override
+        public TapWriteResult get() 
+                throws InterruptedException, ExecutionException {
+            done.await();
+            return report();
+        }
+
+        @Override
+        public TapWriteResult get(long timeout, TimeUnit unit) 
+                throws InterruptedException, ExecutionException,
+                TimeoutException {
+            if (! done.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return report();
+        }
+
+        /**
+         *
+         * @return
+         * @throws ExecutionException
+         */
+        private synchronized TapWriteResult report() 
+                throws ExecutionException {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+            return result;
+        }
+    }   // ResultFuture
+
+}   // AsyncTapWrite.java
@@ -7,9 +7,16 @@
 
 package cz.mp.zxs.tools.data2tap;
 
+import cz.mp.zxs.tools.data2tap.cache.TapCache;
+import cz.mp.zxs.tools.data2tap.report.BlockRecord;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,11 +34,19 @@ import org.slf4j.LoggerFactory;
  * <li><i>Rutiny ROM ZX Spectrum [CZ] -- Jan Šritter, Marcel Dauth</i> (tabulka 6 na str. 21)</li>
  * </ul>
  *
+ * <p>
+ * Nastavení se zadává settery, instance proto není vláknově bezpečná;
+ * slouží pro jednoduché použití z jednoho vlákna. Převod sám provádí
+ * {@linkplain TapEncoder}, který lze sdílet mezi vlákny.
+ *
  * @author Martin Pokorný
  * @see ZxModel
  * @see TapBlockType
  * @see TapHeader
- * @see TapBody
+ * @see TapWriter
+ * @see TapBlockSpec
+ * @see TapEncoder
+ * @see TapJob
  */
 public class Data2tap {
 
@@ -50,13 +65,17 @@ public class Data2tap {
      * @see TapHeader */    
     private int address = -1;
     /** Binární data pro zápis do těla TAP souboru. */
-    private byte[] rawData;
-    
-    private TapHeader tapHeader;
-    private TapBody tapBody;
+    private ByteBuffer rawData;
     
     /** Cílový TAP soubor. */
     private File outTapFile;
+    
+    /** Volitelný cache výsledných TAP souborů. */
+    private TapCache cache;
+    
+    private boolean reportEnabled = false;
+    /** Záznamy pro report, jen pokud {@code reportEnabled}. */
+    private List<BlockRecord> blockRecords = Collections.emptyList();
         
     /** */
     public Data2tap() {
@@ -87,6 +106,18 @@ public class Data2tap {
         if (rawData == null || rawData.length == 0) {
             throw new IllegalArgumentException("rawData is blank");
         }
+        this.rawData = ByteBuffer.wrap(rawData);
+    }
+
+    /**
+     * 
+     * @param rawData  data od pozice do limitu; buffer se nekopíruje
+     * @see InputData#load(java.io.File) 
+     */
+    public void setRawData(ByteBuffer rawData) {
+        if (rawData == null || ! rawData.hasRemaining()) {
+            throw new IllegalArgumentException("rawData is blank");
+        }
         this.rawData = rawData;
     }
     
@@ -104,6 +135,36 @@ public class Data2tap {
         this.outTapFile = outTapFile;
     }
 
+    /**
+     * 
+     * @param cache  {@code null} = bez cache
+     * @see #execute(java.util.List) 
+     */
+    public void setCache(TapCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Zapnutí sběru údajů pro report (velikosti, parity, doby fází, 
+     * odhad doby nahrávání z pásky).
+     * 
+     * @param reportEnabled
+     * @see #getBlockRecords() 
+     */
+    public void setReportEnabled(boolean reportEnabled) {
+        this.reportEnabled = reportEnabled;
+    }
+
+    /**
+     * 
+     * @return  záznamy o blocích z posledního převodu (ve stejném pořadí);
+     *      prázdný seznam, pokud není zapnut report
+     * @see #setReportEnabled(boolean) 
+     */
+    public List<BlockRecord> getBlockRecords() {
+        return blockRecords;
+    }
+
     /**
      * Sestaví a uloží TAP zoubor ze zadaných dat.
      * <p>
@@ -117,100 +178,108 @@ public class Data2tap {
      * Jméno bloku je defaultně prázdné.
      * <p>
      * 
-     * @throws IllegalStateException
      * @throws IllegalArgumentException
      * @throws InvalidDataException
      * @throws IOException
+     * @see #execute(java.util.List) 
      */
     public void execute() throws IOException, InvalidDataException {
         log.info("");
+        if (rawData == null || ! rawData.hasRemaining()) {
+            throw new InvalidDataException("no data");
+        }
 
-        buildTapHeaderAndBody();
-       
-        saveTapDataToOutFile();
-        
-        log.debug("-----------------------");
+        execute(Collections.singletonList(
+                new TapBlockSpec(tapBlockType, name, address, rawData)));
     }
 
     /**
+     * Sestaví a uloží do jednoho TAP souboru všechny zadané bloky, 
+     * v zadaném pořadí. Soubor se otevře a zapíše jen jednou.
+     * <p>
+     * Před zavoláním této metody je potřeba zavolat 
+     * {@linkplain #setOutTapFile(java.io.File)}; model se bere z 
+     * {@linkplain #setModel(cz.mp.zxs.tools.data2tap.ZxModel)}.
+     * Hodnoty typu, jména, adresy a dat nastavené settery se nepoužijí.
+     * <p>
+     * Pokud je nastaven cache ({@linkplain #setCache(TapCache)}) a obsahuje
+     * výsledek pro stejné vstupy, soubor se jen zkopíruje z cache.
      * 
+     * @param blocks  bloky pro zápis (alespoň jeden)
+     * @throws IllegalArgumentException
      * @throws InvalidDataException
-     * @see #execute() 
+     * @throws IOException
+     * @see TapEncoder#encode(TapJob) 
      */
-    private void buildTapHeaderAndBody() throws InvalidDataException {
-        if (rawData == null || rawData.length == 0) {
-            throw new InvalidDataException("no data");
-        }
-        log.info("model = " + model.getName());
-        if (! this.model.isValidAddress(address)) {
-            throw new InvalidDataException("Address " + address + 
-                    " is invalid for " + model.getName());
-        }
-        // data se do RAM od zadané adresy nevejdou
-        if (address + rawData.length > model.getRamAddresMax() + 1) {
-            log.debug("address = " + address);
-            log.debug("rawData.length = " + rawData.length);
-            log.debug("model.getRamAddresMax() = " + model.getRamAddresMax());
-            throw new InvalidDataException(
-                    "Data doesn't fit in RAM  (address + length of data > max address)");
-        }
-        
-        log.info("tapBlockType = " + tapBlockType);
-        log.info("name = \"" + name + "\"");
-        log.info("address = " + address);
-        log.info("dataLength = " + rawData.length);
-        
-        try {
-            tapHeader = new TapHeader();
-            log.info("assemble tap header");
-            tapHeader.setZxModel(model);
-            tapHeader.setType(tapBlockType);
-            tapHeader.setName(name);
-            tapHeader.setDataLength(rawData.length);
-            tapHeader.setParam1(address);
-            tapHeader.createData();
-            log.info("assemble tap header ... OK");
-
-            log.info("assemble tap body");
-            tapBody = new TapBody(rawData.length);
-            tapBody.append(rawData);
-            tapBody.appendParityToLastByte();
-            log.info("assemble tap body ... OK");     
-            
-        } catch (IllegalArgumentException ex) {
-            log.warn(ex.getMessage());
-            throw new InvalidDataException("invalid data", ex);
-        }
+    public void execute(List<TapBlockSpec> blocks) 
+            throws IOException, InvalidDataException {
+        blockRecords = createEncoder().encode(
+                new TapJob(model, blocks, outTapFile));
     }
 
     /**
-     * Volat po {@linkplain #buildTapHeaderAndBody() }.
+     * Asynchronní varianta {@linkplain #execute()}: vrátí se hned, 
+     * soubor se zapíše přes {@link java.nio.channels.AsynchronousFileChannel}.
+     * Cache ani report asynchronní zápis nepodporuje, nesmí být nastaveny
+     * ({@linkplain #setCache(TapCache)}, 
+     * {@linkplain #setReportEnabled(boolean)}); chyby (i neplatná data) 
+     * se předávají přes vrácený {@code Future}.
      * 
-     * @throws IllegalStateException 
-     * @throws IOException 
-     * @see #execute() 
-     */    
-    private void saveTapDataToOutFile() throws IOException {
-        log.info("outTapFile = " + outTapFile);
-        if (outTapFile == null) {
-            throw new IllegalStateException("outTapFile = null");
-        }
-                
-        try (
-            FileOutputStream fos = new FileOutputStream(outTapFile);
-            ) {
-            
-            log.info("write tap header");
-            fos.write(tapHeader.getBytes());
-            log.info("write tap body");
-            fos.write(tapBody.getBytes());
-
-            fos.flush();
-            log.info("done!");
-        } catch (IOException ioex) {
-            log.warn(ioex.getMessage(), ioex);
-            throw ioex;
-        }                       
+     * @param executor  vlákna pro dokončení zápisu; {@code null} = výchozí
+     * @return
+     * @throws IllegalArgumentException
+     * @throws IllegalStateException  pokud je nastaven cache nebo zapnut
+     *      report
+     * @see TapEncoder#encodeAsync(TapJob, java.util.concurrent.ExecutorService) 
+     */
+    public Future<TapWriteResult> executeAsync(ExecutorService executor) {
+        // (prázdná data odmítne až kodér, chybou ve Future)
+        ByteBuffer data = rawData != null ? rawData : ByteBuffer.allocate(0);
+        return executeAsync(Collections.singletonList(
+                new TapBlockSpec(tapBlockType, name, address, data)), executor);
+    }
+
+    /**
+     * Asynchronní varianta {@linkplain #execute(java.util.List)}.
+     * 
+     * @param blocks  bloky pro zápis (alespoň jeden)
+     * @param executor  vlákna pro dokončení zápisu; {@code null} = výchozí
+     * @return
+     * @throws IllegalArgumentException
+     * @throws IllegalStateException  pokud je nastaven cache nebo zapnut
+     *      report
+     * @see #executeAsync(java.util.concurrent.ExecutorService) 
+     */
+    public Future<TapWriteResult> executeAsync(List<TapBlockSpec> blocks,
+            ExecutorService executor) {
+        return createEncoder().encodeAsync(
+                new TapJob(model, blocks, outTapFile), executor);
+    }
+
+    /**
+     * Sestaví zadané bloky a zapíše je do kanálu (od jeho aktuální pozice).
+     * Kanál se nezavírá; výstupní soubor 
+     * ({@linkplain #setOutTapFile(java.io.File)}) se nepoužije.
+     * 
+     * @param blocks  bloky pro zápis (alespoň jeden)
+     * @param channel
+     * @throws IllegalArgumentException
+     * @throws InvalidDataException
+     * @throws IOException
+     * @see TapEncoder#writeTo(TapJob, java.nio.channels.WritableByteChannel) 
+     */
+    public void writeTo(List<TapBlockSpec> blocks, WritableByteChannel channel)
+            throws IOException, InvalidDataException {
+        blockRecords = createEncoder().writeTo(
+                new TapJob(model, blocks, null), channel);
+    }
+
+    /**
+     * 
+     * @return  kodér s aktuálním nastavením cache a reportu
+     */
+    private TapEncoder createEncoder() {
+        return new TapEncoder(cache, reportEnabled);
     }
             
-}   // Data2tap.java
\ No newline at end of file
+}   // Data2tap.java
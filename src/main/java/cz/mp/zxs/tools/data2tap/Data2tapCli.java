@@ -8,13 +8,33 @@
 package cz.mp.zxs.tools.data2tap;
 
 import static cz.mp.zxs.tools.data2tap.Version.VERSION;
-import cz.mp.zxs.tools.data2tap.gui.MainFrame;
+import cz.mp.zxs.tools.data2tap.batch.BatchConverter;
+import cz.mp.zxs.tools.data2tap.batch.BatchJob;
+import cz.mp.zxs.tools.data2tap.batch.BatchManifest;
+import cz.mp.zxs.tools.data2tap.batch.BatchResult;
+import cz.mp.zxs.tools.data2tap.batch.BatchWatcher;
+import cz.mp.zxs.tools.data2tap.cache.TapCache;
+import cz.mp.zxs.tools.data2tap.gui.GuiLauncher;
+import cz.mp.zxs.tools.data2tap.metrics.EncoderMetrics;
+import cz.mp.zxs.tools.data2tap.metrics.PhaseEvents;
+import cz.mp.zxs.tools.data2tap.metrics.PhaseEvents.Phase;
+import cz.mp.zxs.tools.data2tap.report.BlockRecord;
+import cz.mp.zxs.tools.data2tap.report.ReportWriter;
+import cz.mp.zxs.tools.data2tap.server.TapServer;
+import cz.mp.utils.DeferredFileHandler;
 import cz.mp.utils.FileUtils;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -44,19 +64,49 @@ import static cz.mp.utils.TextSource.*;
  *      -i input_binary_file 
  *          - povinný
  *      -o out_tap_file
+ * dávkový převod (má přednost před volbami pro převod jednoho souboru)
+ *      --batch manifest_file
+ *      --watch manifest_file
+ *          - jako --batch, potom sleduje změny vstupních souborů
+ * cache výsledků (pro -i, --batch, --watch)
+ *      --cache cache_dir
+ * max. počet současně převáděných úloh (pro --batch, --watch)
+ *      --max-io count
+ *          - nezávisle na počtu procesorů; uplatní se hlavně s virtuálními
+ *            vlákny (Java 21+)
+ * report s údaji o každém bloku (pro -i, --batch)
+ *      --report json
+ *      --report-file report_file
+ *          - bez něj se report vypíše na standardní výstup (místo souhrnu)
+ * spojení TAP souborů (má přednost před volbami pro převod jednoho souboru)
+ *      --merge tap_file...
+ *          - s -o; volitelně s -i, -a, -s vloží nový blok
+ *      --merge-pos position
+ *          - pozice nového bloku mezi soubory (0 = na začátek); jen s -i
+ * HTTP služba (má přednost před ostatními volbami kromě --help, --version, --gui)
+ *      --serve port
  * </pre></tt>
  * @author Martin Pokorný
  */
 public class Data2tapCli {
     private static final Logger log = LoggerFactory.getLogger(Data2tapCli.class);
 
+    /** (popisy voleb obsahují jen klíče textů, viz {@linkplain #printHelp()}) */
     private Options options = new Options();
-    private HelpFormatter helpFormatter = new HelpFormatter();
 
     // hodnoty z parametrů programu
     private boolean optHelp = false;
     private boolean optVersion = false;
     private boolean optGui = false;
+    private String optServePort = null;
+    private String optBatchManifestFileName = null;
+    private String optWatchManifestFileName = null;
+    private String optCacheDirName = null;
+    private String optMaxIo = null;
+    private String optReportFormat = null;
+    private String optReportFileName = null;
+    private String[] optMergeTapFileNames = null;
+    private String optMergePos = null;
     private String optInputDataFileName = null;
     private String optOutTapFileName = null; 
     private String optAdress = null;
@@ -85,12 +135,22 @@ public class Data2tapCli {
         pout(getLocText("cli.help.usage") + ":");
         pout("  java -jar zxs_data2tap.jar [options...]");
         pout(getLocText("cli.help.options") + ":");
+        // lokalizace popisů až zde; běžný převod texty nápovědy nepotřebuje
+        for (Option option : options.getOptions()) {
+            option.setDescription(getLocText(option.getDescription()));
+        }
+        HelpFormatter helpFormatter = new HelpFormatter();
         StringWriter sw = new StringWriter();
         helpFormatter.printOptions(new PrintWriter(sw), 79, options, 2, 2);
         poutNoEol(sw.toString());
         pout(getLocText("cli.help.examples") + ":");
         pout("  java -jar zxs_data2tap.jar --gui");
         pout("  java -jar zxs_data2tap.jar -i img.scr -a 0x4000 -s screen -o img.tap");
+        pout("  java -jar zxs_data2tap.jar --batch assets.txt");
+        pout("  java -jar zxs_data2tap.jar --watch assets.txt");
+        pout("  java -jar zxs_data2tap.jar --serve 8080");
+        pout("  java -jar zxs_data2tap.jar --merge loader.tap img.tap -o game.tap");
+        pout("  java -jar zxs_data2tap.jar --merge loader.tap -i img.scr -a 0x4000 -o game.tap");
     }
     
     /**
@@ -136,14 +196,15 @@ public class Data2tapCli {
     }
     
     /**
-     * 
+     * Popisy voleb jsou klíče lokalizovaných textů; přeloží se až 
+     * při výpisu nápovědy.
      */
     private void createOptions() {
         Option help = Option.builder("h")
                 .longOpt("help")
                 .hasArg(false)
                 .required(false)
-                .desc(getLocText("cli.help.opt.help"))
+                .desc("cli.help.opt.help")
                 .build();
         options.addOption(help);
         
@@ -151,7 +212,7 @@ public class Data2tapCli {
                 .longOpt("version")
                 .hasArg(false)
                 .required(false)
-                .desc(getLocText("cli.help.opt.version"))
+                .desc("cli.help.opt.version")
                 .build();
         options.addOption(version);
 
@@ -159,21 +220,21 @@ public class Data2tapCli {
                 .longOpt("gui")
                 .hasArg(false)
                 .required(false)
-                .desc(getLocText("cli.help.opt.gui"))
+                .desc("cli.help.opt.gui")
                 .build();
         options.addOption(gui);
 
         Option inFileName = Option.builder("i")
                 .hasArg(true)
                 .required(false)
-                .desc(getLocText("cli.help.opt.i"))
+                .desc("cli.help.opt.i")
                 .build();
         options.addOption(inFileName);
 
         Option outFileName = Option.builder("o")
                 .hasArg(true)
                 .required(false)
-                .desc(getLocText("cli.help.opt.o"))
+                .desc("cli.help.opt.o")
                 .build();
         options.addOption(outFileName);
 
@@ -181,7 +242,7 @@ public class Data2tapCli {
                 .longOpt("address")
                 .hasArg(true)
                 .required(false)
-                .desc(getLocText("cli.help.opt.address"))
+                .desc("cli.help.opt.address")
                 .build();
         options.addOption(adress);
         
@@ -189,9 +250,90 @@ public class Data2tapCli {
                 .longOpt("name")
                 .hasArg(true)
                 .required(false)
-                .desc(getLocText("cli.help.opt.name"))
+                .desc("cli.help.opt.name")
                 .build();
         options.addOption(title);
+
+        Option batch = Option.builder()
+                .longOpt("batch")
+                .hasArg(true)
+                .argName("manifest")
+                .required(false)
+                .desc("cli.help.opt.batch")
+                .build();
+        options.addOption(batch);
+
+        Option watch = Option.builder()
+                .longOpt("watch")
+                .hasArg(true)
+                .argName("manifest")
+                .required(false)
+                .desc("cli.help.opt.watch")
+                .build();
+        options.addOption(watch);
+
+        Option cache = Option.builder()
+                .longOpt("cache")
+                .hasArg(true)
+                .argName("dir")
+                .required(false)
+                .desc("cli.help.opt.cache")
+                .build();
+        options.addOption(cache);
+
+        Option maxIo = Option.builder()
+                .longOpt("max-io")
+                .hasArg(true)
+                .argName("count")
+                .required(false)
+                .desc("cli.help.opt.max_io")
+                .build();
+        options.addOption(maxIo);
+
+        Option report = Option.builder()
+                .longOpt("report")
+                .hasArg(true)
+                .argName("format")
+                .required(false)
+                .desc("cli.help.opt.report")
+                .build();
+        options.addOption(report);
+
+        Option reportFile = Option.builder()
+                .longOpt("report-file")
+                .hasArg(true)
+                .argName("file")
+                .required(false)
+                .desc("cli.help.opt.report_file")
+                .build();
+        options.addOption(reportFile);
+
+        Option merge = Option.builder()
+                .longOpt("merge")
+                .hasArgs()
+                .argName("tap_files")
+                .required(false)
+                .desc("cli.help.opt.merge")
+                .build();
+        options.addOption(merge);
+
+        Option mergePos = Option.builder()
+                .longOpt("merge-pos")
+                .hasArg(true)
+                .argName("position")
+                .required(false)
+                .desc("cli.help.opt.merge_pos")
+                .build();
+        options.addOption(mergePos);
+
+        Option serve = Option.builder()
+                .longOpt("serve")
+                .hasArg(true)
+                .argName("port")
+                .required(false)
+                .desc("cli.help.opt.serve")
+                .build();
+        options.addOption(serve);
     }
     
     /**
@@ -238,12 +380,178 @@ public class Data2tapCli {
                 optName = commandLine.getOptionValue("s");
                 log.info("-s = \"" + optName + "\"");
             }             
+            if (commandLine.hasOption("serve")) {
+                optServePort = commandLine.getOptionValue("serve");
+                log.info("--serve = " + optServePort);
+            }
+            if (commandLine.hasOption("batch")) {
+                optBatchManifestFileName = commandLine.getOptionValue("batch");
+                log.info("--batch = " + optBatchManifestFileName);
+            }
+            if (commandLine.hasOption("watch")) {
+                optWatchManifestFileName = commandLine.getOptionValue("watch");
+                log.info("--watch = " + optWatchManifestFileName);
+            }
+            if (commandLine.hasOption("cache")) {
+                optCacheDirName = commandLine.getOptionValue("cache");
+                log.info("--cache = " + optCacheDirName);
+            }
+            if (commandLine.hasOption("max-io")) {
+                optMaxIo = commandLine.getOptionValue("max-io");
+                log.info("--max-io = " + optMaxIo);
+            }
+            if (commandLine.hasOption("report")) {
+                optReportFormat = commandLine.getOptionValue("report");
+                log.info("--report = " + optReportFormat);
+            }
+            if (commandLine.hasOption("report-file")) {
+                optReportFileName = commandLine.getOptionValue("report-file");
+                log.info("--report-file = " + optReportFileName);
+            }
+            if (commandLine.hasOption("merge")) {
+                optMergeTapFileNames = commandLine.getOptionValues("merge");
+                log.info("--merge = " + Arrays.toString(optMergeTapFileNames));
+            }
+            if (commandLine.hasOption("merge-pos")) {
+                optMergePos = commandLine.getOptionValue("merge-pos");
+                log.info("--merge-pos = " + optMergePos);
+            }
         }
         catch (ParseException pex) {
             exitWithError(pex, RESULT_ERR_OPTS);
         }
     }
 
+    /**
+     * Obslouží parametr {@code --cache}.
+     * 
+     * @return  cache, nebo {@code null}, pokud není zadán
+     */
+    private TapCache createCache() {
+        if (optCacheDirName == null) {
+            return null;
+        }
+        try {
+            return new TapCache(new File(optCacheDirName));
+        } catch (IOException ex) {
+            exitWithError(getLocText("cli.err.cache_dir", optCacheDirName) 
+                    + " : " + ex.getMessage(), RESULT_ERR_OPTS);
+            return null;
+        }
+    }
+
+    /**
+     * Obslouží parametr {@code --max-io}.
+     * 
+     * @return  max. počet současně převáděných úloh
+     * @see BatchConverter#setMaxConcurrentIo(int)
+     */
+    private int getMaxConcurrentIo() {
+        if (optMaxIo == null) {
+            return JobExecutors.DEFAULT_MAX_CONCURRENT_IO;
+        }
+        int maxIo = -1;
+        try {
+            maxIo = Integer.parseInt(optMaxIo.trim());
+        } catch (NumberFormatException ex) {
+            // (viz níže)
+        }
+        if (maxIo < 1) {
+            exitWithError(getLocText("cli.err.max_io"), RESULT_ERR_OPTS);
+        }
+        return maxIo;
+    }
+
+    /**
+     * Obslouží parametry {@code --report}, {@code --report-file}.
+     * 
+     * @return  report, nebo {@code null}, pokud není zadán
+     * @see #closeReport(cz.mp.zxs.tools.data2tap.report.ReportWriter) 
+     */
+    private ReportWriter createReportWriter() {
+        if (optReportFormat == null) {
+            return null;
+        }
+        if (! optReportFormat.equalsIgnoreCase(ReportWriter.FORMAT_JSON)) {
+            exitWithError(getLocText("cli.err.report_format", optReportFormat), 
+                    RESULT_ERR_OPTS);
+        }
+        if (isReportOnStdout()) {
+            return new ReportWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        }
+        try {
+            return new ReportWriter(new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(optReportFileName), StandardCharsets.UTF_8)));
+        } catch (IOException ex) {
+            exitWithError(getLocText("cli.err.report_file", optReportFileName) 
+                    + " : " + ex.getMessage(), RESULT_ERR_OPTS);
+            return null;
+        }
+    }
+
+    /**
+     * 
+     * @return  {@code true}, pokud se report vypisuje na standardní výstup
+     *      (ostatní výpisy se pak vynechají)
+     */
+    private boolean isReportOnStdout() {
+        return optReportFormat != null && optReportFileName == null;
+    }
+
+    /**
+     * 
+     * @param reportWriter  (standardní výstup se nezavírá)
+     */
+    private void closeReport(ReportWriter reportWriter) {
+        if (reportWriter == null) {
+            return;
+        }
+        try {
+            if (isReportOnStdout()) {
+                reportWriter.flush();
+            }
+            else {
+                reportWriter.close();
+            }
+        } catch (IOException ex) {
+            exitWithError(getLocText("cli.err.report_file", optReportFileName) 
+                    + " : " + ex.getMessage(), RESULT_ERR_GENERAL);
+        }
+    }
+
+    /**
+     * 
+     * @param reportWriter
+     * @param record 
+     */
+    private void writeReport(ReportWriter reportWriter, BlockRecord record) {
+        try {
+            reportWriter.write(record);
+        } catch (IOException ex) {
+            exitWithError(getLocText("cli.err.report_file", optReportFileName) 
+                    + " : " + ex.getMessage(), RESULT_ERR_GENERAL);
+        }
+    }
+
+    /**
+     * 
+     * @param lineNumber  {@code -1} mimo dávku
+     * @param inputFile
+     * @param outputFile
+     * @param ex
+     * @return  záznam neúspěšného převodu
+     */
+    private static BlockRecord createErrorRecord(int lineNumber, 
+            File inputFile, File outputFile, Exception ex) {
+        BlockRecord record = new BlockRecord();
+        record.setLineNumber(lineNumber);
+        record.setInputFile(inputFile);
+        record.setOutputFile(outputFile);
+        record.setError(ex.getMessage() != null 
+                ? ex.getMessage() : ex.getClass().getName());
+        return record;
+    }
+
     /**
      * Obslouží parametry {@code --help}, {@code --version}.
      */
@@ -262,19 +570,14 @@ public class Data2tapCli {
     private void executeGuiOpt() {
         log.info("");
         
-        javax.swing.SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                log.info("create and show GUI");
-                MainFrame.getInstance().setVisible(true);
-            }
-        });        
+        DeferredFileHandler.activate();     // (GUI běží dlouho, loguje se vždy)
+        GuiLauncher.start();
     }
     
     /**
      * Obslouží parametry pro ovládání programu z CLI.
      * <p>
-     * viz též {@linkplain MainFrame#createTapFileWithDialogs()}.
+     * viz též {@linkplain cz.mp.zxs.tools.data2tap.gui.MainFrame#createTapFileWithDialogs()}.
      */
     private void executeCliOpts() {
         log.info("");
@@ -309,17 +612,23 @@ public class Data2tapCli {
             exitWithError(getLocText("cli.err.i_file_not_found", optInputDataFileName), RESULT_ERR_OPTS);
         }
         
-        byte[] inputFileContent = new byte[]{};
+        ByteBuffer inputFileContent = ByteBuffer.allocate(0);
+        long readNanos = 0;
         try {
-            inputFileContent = Files.readAllBytes(inFile.toPath());
-            log.debug("inputFileContent.length = " + inputFileContent.length);
+            Object readEvent = PhaseEvents.begin();
+            long readStart = System.nanoTime();
+            inputFileContent = InputData.load(inFile);
+            readNanos = System.nanoTime() - readStart;
+            PhaseEvents.end(readEvent, Phase.READ, inputFileContent.remaining(),
+                    zxModel.getName(), new File(optOutTapFileName));
+            log.debug("inputFileContent.length = " + inputFileContent.remaining());
         } catch (IOException ex) {
             log.error(ex.getMessage(), ex);
             exitWithError(optInputDataFileName + " : " + ex.getMessage(), 
                     RESULT_ERR_OPTS);
         }
 
-        if (inputFileContent.length == 0) {
+        if (! inputFileContent.hasRemaining()) {
             exitWithError(getLocText("cli.err.i_file_empty", optInputDataFileName), RESULT_ERR_OPTS);
         }
         
@@ -331,36 +640,55 @@ public class Data2tapCli {
                 && outTapFile.exists() && outTapFile.isFile()) {
             exitWithError(getLocText("cli.err.o_overwriting_non_tap"), RESULT_ERR_OPTS);                
         }
+        // (vstup může být namapován do paměti, nesmí se přepsat)
+        try {
+            if (inFile.getCanonicalFile().equals(outTapFile.getCanonicalFile())) {
+                exitWithError(getLocText("cli.err.i_o_same_file"), RESULT_ERR_OPTS);
+            }
+        } catch (IOException ex) {
+            exitWithError(ex, RESULT_ERR_OPTS);
+        }
          
         // -------------
         // 2. --- vytvoření a zápis TAP souboru
 
-        Data2tap data2tap = new Data2tap();
-        log.debug("set data to Data2tap");
-        data2tap.setModel(zxModel);
-        data2tap.setTapBlockType(TapBlockType.BINARY_DATA);
-        data2tap.setName(optName);
-        data2tap.setAddress(address);
-        data2tap.setRawData(inputFileContent);
-        data2tap.setOutTapFile(outTapFile);
+        ReportWriter reportWriter = createReportWriter();
+        TapEncoder encoder = new TapEncoder(createCache(), reportWriter != null);
 
         try {
-            log.debug("data2tap.execute!");
-            data2tap.execute();
+            log.debug("encode!");
+            List<BlockRecord> records = encoder.encode(new TapJob(zxModel,
+                    new TapBlockSpec(TapBlockType.BINARY_DATA, optName, 
+                            address, inputFileContent),
+                    outTapFile));
             
+            if (reportWriter != null) {
+                BlockRecord record = records.get(0);
+                record.setInputFile(inFile);
+                record.setReadNanos(readNanos);
+                writeReport(reportWriter, record);
+                closeReport(reportWriter);
+            }
             if (outTapFile.exists() && outTapFile.isFile()) {
                 log.info(outTapFile.getName() + " successfully created");
-                log.info("Data size = " + inputFileContent.length + " B");
+                log.info("Data size = " + inputFileContent.remaining() + " B");
                 log.info("File size = " + outTapFile.length() + " B");                
-                pout(getLocText("cli.ok.outfile_created", outTapFile.getName()));
-                pout("Data size = " + inputFileContent.length + " B");
-                pout("File size = " + outTapFile.length() + " B");
+                if (! isReportOnStdout()) {
+                    pout(getLocText("cli.ok.outfile_created", outTapFile.getName()));
+                    pout("Data size = " + inputFileContent.remaining() + " B");
+                    pout("File size = " + outTapFile.length() + " B");
+                }
             }
             else {      // (nemělo by nastat)
                 log.warn(outTapFile.getName() + " doesn't exist");
                 pout("Unexpected failure. See log file for more details.");
             }
         } catch (InvalidDataException | IOException ex) {
+            if (reportWriter != null) {
+                writeReport(reportWriter, 
+                        createErrorRecord(-1, inFile, outTapFile, ex));
+                closeReport(reportWriter);
+            }
             exitWithError(ex, RESULT_ERR_DATA2TAP);
         } catch (Exception ex) {
             exitWithError(ex, RESULT_ERR_GENERAL);
@@ -368,6 +696,273 @@ public class Data2tapCli {
         
         log.debug("end");
     }
+
+    /**
+     * Obslouží parametr {@code --batch}.
+     * <p>
+     * Chyby jednotlivých úloh program neukončí; vypíšou se souhrnně na konci.
+     *
+     * @return  {@linkplain #RESULT_OK}, pokud všechny úlohy proběhly
+     *      v pořádku, jinak {@linkplain #RESULT_ERR_DATA2TAP}
+     * @see BatchManifest
+     * @see BatchConverter
+     */
+    private int executeBatchOpt() {
+        log.info("");
+        EncoderMetrics.register();     // (velká dávka může běžet dlouho)
+
+        File manifestFile = new File(optBatchManifestFileName);
+        if (!manifestFile.exists() || manifestFile.isDirectory()) {
+            exitWithError(getLocText("cli.err.batch_manifest_not_found", 
+                    optBatchManifestFileName), RESULT_ERR_OPTS);
+        }
+
+        List<BatchJob> jobs = null;
+        try {
+            jobs = BatchManifest.parse(manifestFile);
+        } catch (InvalidDataException | IOException ex) {
+            exitWithError(optBatchManifestFileName + " : " + ex.getMessage(), 
+                    RESULT_ERR_OPTS);
+        }
+
+        final ReportWriter reportWriter = createReportWriter();
+        long startTime = System.nanoTime();
+        BatchConverter batchConverter = new BatchConverter();
+        batchConverter.setCache(createCache());
+        batchConverter.setMaxConcurrentIo(getMaxConcurrentIo());
+        batchConverter.setReportEnabled(reportWriter != null);
+        // (každý výsledek se hned vypíše / zapíše do reportu a zahodí)
+        final int[] failed = new int[1];
+        batchConverter.execute(jobs, new BatchConverter.ResultHandler() {
+            @Override
+            public void completed(BatchResult result) {
+                BatchJob job = result.getJob();
+                if (! result.isOk()) {
+                    failed[0]++;
+                    if (! isReportOnStdout()) {
+                        pout(getLocText("cli.batch.job_failed", 
+                                job.getLineNumber(), 
+                                job.getInputFile().getPath(), 
+                                result.getError().getMessage()));
+                    }
+                }
+                if (reportWriter != null) {
+                    writeReport(reportWriter, result.isOk() 
+                            ? result.getRecord()
+                            : createErrorRecord(job.getLineNumber(), 
+                                    job.getInputFile(), job.getOutTapFile(), 
+                                    result.getError()));
+                }
+            }
+        });
+        long durationMs = (System.nanoTime() - startTime) / 1000000;
+        closeReport(reportWriter);
+        log.info("jobs = " + jobs.size() + ", failed = " + failed[0] 
+                + ", time = " + durationMs + " ms");
+        if (! isReportOnStdout()) {
+            pout(getLocText("cli.batch.summary", 
+                    jobs.size(), jobs.size() - failed[0], failed[0], durationMs));
+        }
+        
+        return failed[0] == 0 ? RESULT_OK : RESULT_ERR_DATA2TAP;
+    }
+    
+    /**
+     * Obslouží parametr {@code --watch}.
+     * <p>
+     * Převede všechny úlohy jako {@code --batch} a potom sleduje vstupní 
+     * soubory a dávkový soubor až do ukončení programu (např. Ctrl+C).
+     *
+     * @see BatchWatcher
+     */
+    private void executeWatchOpt() {
+        log.info("");
+        DeferredFileHandler.activate();     // (běží dlouho, loguje se vždy)
+        EncoderMetrics.register();
+
+        File manifestFile = new File(optWatchManifestFileName);
+        if (!manifestFile.exists() || manifestFile.isDirectory()) {
+            exitWithError(getLocText("cli.err.batch_manifest_not_found", 
+                    optWatchManifestFileName), RESULT_ERR_OPTS);
+        }
+
+        BatchWatcher.Listener listener = new BatchWatcher.Listener() {
+            @Override
+            public void converted(List<BatchResult> results) {
+                for (BatchResult result : results) {
+                    if (result.isOk()) {
+                        pout(getLocText("cli.watch.updated", 
+                                result.getJob().getOutTapFile().getPath()));
+                    }
+                    else {
+                        pout(getLocText("cli.batch.job_failed", 
+                                result.getJob().getLineNumber(), 
+                                result.getJob().getInputFile().getPath(), 
+                                result.getError().getMessage()));
+                    }
+                }
+            }
+
+            @Override
+            public void manifestFailed(Exception ex) {
+                pout(getLocText("error") + ": " + optWatchManifestFileName 
+                        + " : " + ex.getMessage());
+            }
+        };
+
+        try (BatchWatcher batchWatcher = new BatchWatcher(manifestFile, 
+                BatchWatcher.DEFAULT_DEBOUNCE_MILLIS, listener)) {
+            batchWatcher.setCache(createCache());
+            batchWatcher.setMaxConcurrentIo(getMaxConcurrentIo());
+            pout(getLocText("cli.watch.watching", optWatchManifestFileName));
+            batchWatcher.run();
+        } catch (InvalidDataException | IOException ex) {
+            exitWithError(optWatchManifestFileName + " : " + ex.getMessage(), 
+                    RESULT_ERR_OPTS);
+        }
+    }
+
+    /**
+     * Obslouží parametr {@code --serve}.
+     * <p>
+     * Služba běží na pozadí až do ukončení programu (např. Ctrl+C).
+     *
+     * @see TapServer
+     */
+    private void executeServeOpt() {
+        log.info("");
+
+        int port = -1;
+        try {
+            port = Integer.parseInt(optServePort.trim());
+        } catch (NumberFormatException ex) {
+            // (viz níže)
+        }
+        if (port < 1 || port > 0xFFFF) {
+            exitWithError(getLocText("cli.err.serve_port"), RESULT_ERR_OPTS);
+        }
+
+        EncoderMetrics.register();
+        final TapServer tapServer = new TapServer(port);
+        try {
+            tapServer.start();
+        } catch (IOException ex) {
+            exitWithError(ex, RESULT_ERR_GENERAL);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                tapServer.stop(1);
+            }
+        }));
+        pout(getLocText("cli.serve.listening", 
+                "http://127.0.0.1:" + tapServer.getPort() + TapServer.CONTEXT_PATH));
+    }
+
+    /**
+     * Obslouží parametry {@code --merge}, {@code --merge-pos}.
+     * <p>
+     * Pokud je zadán i vstupní soubor ({@code -i}), vytvoří se z něj nový
+     * blok a vloží se na pozici {@code --merge-pos} (defaultně na konec).
+     *
+     * @see TapMerger
+     */
+    private void executeMergeOpts() {
+        log.info("");
+
+        if (optOutTapFileName == null) {
+            exitWithError(getLocText("cli.err.missing_o"), RESULT_ERR_OPTS);          
+        }
+        if (optMergePos != null && optInputDataFileName == null) {
+            exitWithError(getLocText("cli.err.merge_pos_without_i"), RESULT_ERR_OPTS);
+        }
+        File outTapFile = new File(optOutTapFileName);
+        if (! FileUtils.getFileExtension(optOutTapFileName).equalsIgnoreCase("tap")
+                && outTapFile.exists() && outTapFile.isFile()) {
+            exitWithError(getLocText("cli.err.o_overwriting_non_tap"), RESULT_ERR_OPTS);                
+        }
+        
+        List<File> tapFiles = new ArrayList<File>();
+        for (String tapFileName : optMergeTapFileNames) {
+            File tapFile = new File(tapFileName);
+            if (!tapFile.exists() || tapFile.isDirectory()) {
+                exitWithError(getLocText("cli.err.i_file_not_found", tapFileName), RESULT_ERR_OPTS);
+            }
+            tapFiles.add(tapFile);
+        }
+        
+        // - nový blok z -i, -a, -s
+        TapBlockSpec newBlock = null;
+        int mergePos = tapFiles.size();
+        if (optInputDataFileName != null) {
+            if (optName.length() > TapHeader.NAME_LEN) {
+                exitWithError(getLocText("cli.err.name_too_long"), RESULT_ERR_OPTS);                      
+            }
+            if (optAdress == null) {
+                exitWithError(getLocText("cli.err.missing_a"), RESULT_ERR_OPTS);
+            }
+            int address = -1;
+            try {
+                address = MemoryAddress.addressToInt(optAdress);
+            } catch (NumberFormatException ex) {
+                exitWithError(getLocText("cli.err.address_not_a_number"), RESULT_ERR_OPTS);
+            }
+            File inFile = new File(optInputDataFileName);
+            if (!inFile.exists() || inFile.isDirectory()) {
+                exitWithError(getLocText("cli.err.i_file_not_found", optInputDataFileName), RESULT_ERR_OPTS);
+            }
+            try {
+                ByteBuffer inputFileContent = InputData.load(inFile);
+                if (! inputFileContent.hasRemaining()) {
+                    exitWithError(getLocText("cli.err.i_file_empty", optInputDataFileName), RESULT_ERR_OPTS);
+                }
+                newBlock = new TapBlockSpec(TapBlockType.BINARY_DATA, 
+                        optName, address, inputFileContent);
+                if (inFile.getCanonicalFile().equals(outTapFile.getCanonicalFile())) {
+                    exitWithError(getLocText("cli.err.i_o_same_file"), RESULT_ERR_OPTS);
+                }
+            } catch (IOException ex) {
+                log.error(ex.getMessage(), ex);
+                exitWithError(optInputDataFileName + " : " + ex.getMessage(), 
+                        RESULT_ERR_OPTS);
+            }
+            
+            if (optMergePos != null) {
+                try {
+                    mergePos = Integer.parseInt(optMergePos.trim());
+                } catch (NumberFormatException ex) {
+                    mergePos = -1;
+                }
+                if (mergePos < 0 || mergePos > tapFiles.size()) {
+                    exitWithError(getLocText("cli.err.merge_pos", 
+                            tapFiles.size()), RESULT_ERR_OPTS);
+                }
+            }
+        }
+        
+        TapMerger tapMerger = new TapMerger();
+        tapMerger.setModel(zxModel);
+        for (int i = 0; i <= tapFiles.size(); i++) {
+            if (newBlock != null && i == mergePos) {
+                tapMerger.addBlock(newBlock);
+            }
+            if (i < tapFiles.size()) {
+                tapMerger.addTapFile(tapFiles.get(i));
+            }
+        }
+        
+        try {
+            long size = tapMerger.merge(outTapFile);
+            log.info(outTapFile.getName() + " successfully created");
+            log.info("File size = " + size + " B");                
+            pout(getLocText("cli.ok.outfile_created", outTapFile.getName()));
+            pout("File size = " + size + " B");
+        } catch (InvalidDataException | IOException ex) {
+            exitWithError(ex, RESULT_ERR_DATA2TAP);
+        } catch (Exception ex) {
+            exitWithError(ex, RESULT_ERR_GENERAL);
+        }
+    }
     
     /**
      * 
@@ -383,6 +978,20 @@ public class Data2tapCli {
         else if (optGui) {   // --gui má přednost před volbami pro CLI rozhraní
             executeGuiOpt();
         }
+        else if (optServePort != null) {
+            executeServeOpt();      // (program běží dál, viz TapServer)
+        }
+        else if (optWatchManifestFileName != null) {
+            executeWatchOpt();
+            System.exit(RESULT_OK);
+        }
+        else if (optBatchManifestFileName != null) {
+            System.exit(executeBatchOpt());
+        }
+        else if (optMergeTapFileNames != null) {
+            executeMergeOpts();
+            System.exit(RESULT_OK);
+        }
         else {
             executeCliOpts();
             System.exit(RESULT_OK);
@@ -0,0 +1,126 @@
+/*
+ * InputData.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Načítání vstupních binárních dat ze souboru pro
+ * {@linkplain Data2tap#setRawData(java.nio.ByteBuffer)}.
+ * <p>
+ * Větší soubory se nekopírují do pole na haldě, ale namapují se do paměti
+ * jen pro čtení ({@link java.nio.MappedByteBuffer}); data pak čte enkodér
+ * přímo z cache souborů OS. U malých souborů je mapování dražší než
+ * obyčejné načtení, proto se čtou klasicky.
+ *
+ * @author Martin Pokorný
+ * @see Data2tap
+ */
+public final class InputData {
+
+    private static final Logger log = LoggerFactory.getLogger(InputData.class);
+
+    /** Soubory (oblasti) od této velikosti se mapují do paměti. */
+    public static final int MAP_THRESHOLD = 16384;
+
+    /** Maximální velikost načítaných dat. (Více se do TAP bloku nevejde.) */
+    public static final int MAX_SIZE = 0xFFFF - 2;
+
+    /** */
+    private InputData() {
+    }
+
+    /**
+     * Načte celý soubor.
+     *
+     * @param file
+     * @return  buffer s daty (mapovaný je jen pro čtení); 
+     *      pozice 0, limit = velikost souboru
+     * @throws IOException  i pokud je soubor větší než {@linkplain #MAX_SIZE}
+     * @throws IllegalArgumentException
+     * @see #load(java.io.File, long, int)
+     */
+    public static ByteBuffer load(File file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file = null");
+        }
+        try (
+            FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            ) {
+            long size = fc.size();
+            if (size > MAX_SIZE) {
+                throw new IOException("File " + file.getName()
+                        + " is too big (" + size + " B > " + MAX_SIZE + " B)");
+            }
+            return load(fc, 0, (int) size);
+        }
+    }
+
+    /**
+     * Načte oblast souboru.
+     *
+     * @param file
+     * @param offset  začátek oblasti v souboru
+     * @param length  délka oblasti; max {@linkplain #MAX_SIZE}
+     * @return  buffer s daty (mapovaný je jen pro čtení); 
+     *      pozice 0, limit = {@code length}
+     * @throws IOException  i pokud oblast přesahuje konec souboru
+     * @throws IllegalArgumentException
+     */
+    public static ByteBuffer load(File file, long offset, int length)
+            throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file = null");
+        }
+        if (offset < 0 || length < 0 || length > MAX_SIZE) {
+            throw new IllegalArgumentException("offset, length");
+        }
+        try (
+            FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            ) {
+            if (offset + length > fc.size()) {
+                throw new IOException("Region " + offset + "+" + length
+                        + " exceeds file " + file.getName());
+            }
+            return load(fc, offset, length);
+        }
+    }
+
+    /**
+     *
+     * @param fc
+     * @param offset
+     * @param length
+     * @return
+     * @throws IOException
+     */
+    private static ByteBuffer load(FileChannel fc, long offset, int length)
+            throws IOException {
+        if (length >= MAP_THRESHOLD) {
+            log.debug("map " + length + " B");
+            return fc.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+        log.debug("read " + length + " B");
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (fc.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+}   // InputData.java
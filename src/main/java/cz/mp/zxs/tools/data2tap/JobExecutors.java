@@ -0,0 +1,82 @@
+/*
+ * JobExecutors.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Vlákna pro převody (dávka, služba, proudový převod).
+ * <p>
+ * Tato varianta (Java 7) používá platformová vlákna. V JAR souboru 
+ * sestaveném na JDK 21 (profil {@code java21}, multi-release JAR) ji 
+ * pro běh na Java 21+ nahrazuje varianta z {@code src/main/java21}, 
+ * která pro každý převod spustí virtuální vlákno a počet současných
+ * převodů omezí jen limitem {@code maxConcurrentIo}; zde je vláken
+ * {@code parallelism} (nejvýš {@code maxConcurrentIo}). Obě varianty 
+ * musí mít stejné veřejné API.
+ *
+ * @author Martin Pokorný
+ */
+public final class JobExecutors {
+
+    /** Výchozí limit současně převáděných úloh (čekajících na I/O). */
+    public static final int DEFAULT_MAX_CONCURRENT_IO = 64;
+
+    /** */
+    private JobExecutors() {
+    }
+
+    /**
+     *
+     * @return  {@code true} = převody běží ve virtuálních vláknech
+     */
+    public static boolean isVirtual() {
+        return false;
+    }
+
+    /**
+     * Executor pro převody, každá úloha = jeden převod.
+     *
+     * @param parallelism  počet vláken
+     * @param maxConcurrentIo  max. počet současně běžících úloh
+     * @return  {@link ForkJoinPool} s {@code parallelism} vlákny
+     *      (nejvýš {@code maxConcurrentIo})
+     * @throws IllegalArgumentException
+     */
+    public static ExecutorService newJobExecutor(int parallelism, 
+            int maxConcurrentIo) {
+        if (maxConcurrentIo < 1) {
+            throw new IllegalArgumentException("maxConcurrentIo < 1");
+        }
+        return new ForkJoinPool(Math.min(parallelism, maxConcurrentIo));
+    }
+
+    /**
+     *
+     * @param namePrefix  jména vláken budou {@code namePrefix-1}, 
+     *      {@code namePrefix-2}, ...
+     * @return  továrna na vlákna-démony
+     */
+    public static ThreadFactory newThreadFactory(final String namePrefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, 
+                        namePrefix + "-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+}   // JobExecutors.java
@@ -0,0 +1,206 @@
+/*
+ * TapBlock.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+
+/**
+ * Záznam indexu bloků TAP souboru, viz {@linkplain TapReader}.
+ * <p>
+ * Obsahuje jen umístění bloku v souboru, flag a u hlaviček i jejich
+ * položky; data těla se načítají až na požádání
+ * ({@linkplain TapReader#readData(TapBlock)}).
+ *
+ * @author Martin Pokorný
+ * @see TapReader
+ */
+public class TapBlock {
+
+    /** délka bloku hlavičky (flag + 17 B + parita) */
+    static final int HEADER_BLOCK_LENGTH = TapHeader.HEADER_DEFAULT_SIZE;
+
+    /** pořadí bloku v souboru (od 0) */
+    private final int index;
+    /** pozice bloku v souboru (začátek 2B délky) */
+    private final long offset;
+    /** délka bloku bez 2B délky (tj. flag + data + parita) */
+    private final int length;
+    private final byte flag;
+
+    // položky hlavičky; platí jen pro isHeader()
+    private final int typeNum;
+    private final String name;
+    private final int dataLength;
+    private final int param1;
+    private final int param2;
+    private final boolean headerParityOk;
+
+    /**
+     * Blok dat (ne hlavička).
+     *
+     * @param index
+     * @param offset
+     * @param length
+     * @param flag
+     */
+    TapBlock(int index, long offset, int length, byte flag) {
+        this(index, offset, length, flag, -1, null, 0, 0, 0, false);
+    }
+
+    /**
+     *
+     * @param index
+     * @param offset
+     * @param length
+     * @param flag
+     * @param typeNum  {@code -1}, pokud nejde o hlavičku
+     * @param name
+     * @param dataLength
+     * @param param1
+     * @param param2
+     * @param headerParityOk
+     */
+    TapBlock(int index, long offset, int length, byte flag,
+            int typeNum, String name, int dataLength, int param1, int param2,
+            boolean headerParityOk) {
+        this.index = index;
+        this.offset = offset;
+        this.length = length;
+        this.flag = flag;
+        this.typeNum = typeNum;
+        this.name = name;
+        this.dataLength = dataLength;
+        this.param1 = param1;
+        this.param2 = param2;
+        this.headerParityOk = headerParityOk;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     *
+     * @return  pozice bloku v souboru (začátek 2B délky)
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     *
+     * @return  délka bloku bez 2B délky (tj. flag + data + parita)
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     *
+     * @return  pozice prvního bytu dat v souboru (za flagem)
+     */
+    public long getDataOffset() {
+        return offset + 3;
+    }
+
+    /**
+     *
+     * @return  délka samotných dat (bez flagu a parity)
+     */
+    public int getBlockDataLength() {
+        return length - 2;
+    }
+
+    /**
+     *
+     * @return  pozice následujícího bloku v souboru
+     */
+    public long getNextOffset() {
+        return offset + 2 + length;
+    }
+
+    public byte getFlag() {
+        return flag;
+    }
+
+    /**
+     *
+     * @return  {@code true}, pokud jde o standardní hlavičku
+     *      (flag {@code 0}, délka 19 B)
+     */
+    public boolean isHeader() {
+        return typeNum >= 0;
+    }
+
+    /**
+     *
+     * @return  číslo typu bloku z hlavičky (i nestandardní),
+     *      nebo {@code -1} pro blok dat
+     */
+    public int getTypeNum() {
+        return typeNum;
+    }
+
+    /**
+     *
+     * @return  typ bloku z hlavičky, nebo {@code null}
+     *      (blok dat nebo neznámý typ)
+     */
+    public TapBlockType getType() {
+        return TapBlockType.getByNum(typeNum);
+    }
+
+    /**
+     *
+     * @return  jméno z hlavičky (vždy 10 znaků), nebo {@code null}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     *
+     * @return  délka dat následujícího bloku podle hlavičky
+     */
+    public int getDataLength() {
+        return dataLength;
+    }
+
+    public int getParam1() {
+        return param1;
+    }
+
+    public int getParam2() {
+        return param2;
+    }
+
+    /**
+     * Parita hlavičky se kontroluje už při čtení indexu;
+     * u bloku dat viz {@linkplain TapReader#verifyParity(TapBlock)}.
+     *
+     * @return
+     * @throws IllegalStateException  pokud nejde o hlavičku
+     */
+    public boolean isHeaderParityOk() {
+        if (! isHeader()) {
+            throw new IllegalStateException("not a header");
+        }
+        return headerParityOk;
+    }
+
+    @Override
+    public String toString() {
+        if (isHeader()) {
+            return "#" + index + " @" + offset + " header " + typeNum
+                    + " \"" + name + "\" " + dataLength
+                    + " " + param1 + " " + param2;
+        }
+        return "#" + index + " @" + offset + " data flag=" + (flag & 0xFF)
+                + " (" + getBlockDataLength() + " B)";
+    }
+
+}   // TapBlock.java
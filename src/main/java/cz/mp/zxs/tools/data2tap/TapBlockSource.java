@@ -0,0 +1,37 @@
+/*
+ * TapBlockSource.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.IOException;
+
+
+/**
+ * Zdroj bloků pro {@linkplain TapStream}. Bloky si stream vyžádá až ve 
+ * chvíli, kdy je má kam uložit (zdroj tedy nikdy nepředbíhá zápis víc,
+ * než je kapacita streamu).
+ * <p>
+ * Metoda {@linkplain #next()} se volá vždy z jednoho vlákna streamu
+ * (ne z vlákna volajícího {@linkplain TapStream#writeTo}).
+ *
+ * @author Martin Pokorný
+ * @see TapStream
+ */
+public interface TapBlockSource {
+
+    /**
+     * Vytvoří (vygeneruje, načte, ...) další blok.
+     *
+     * @return  další blok; {@code null} = konec
+     * @throws IOException
+     * @throws InvalidDataException
+     * @throws InterruptedException  při zrušení streamu
+     */
+    TapBlockSpec next() 
+            throws IOException, InvalidDataException, InterruptedException;
+
+}   // TapBlockSource.java
@@ -0,0 +1,107 @@
+/*
+ * TapBlockSpec.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Popis jednoho bloku (hlavička + tělo) pro zápis do TAP souboru.
+ * <p>
+ * Hodnoty se zde nevalidují; to dělá až {@linkplain Data2tap} při
+ * sestavování bloku.
+ *
+ * @author Martin Pokorný
+ * @see Data2tap#execute(java.util.List)
+ */
+public class TapBlockSpec {
+
+    private final TapBlockType type;
+    /** Jméno bloku v hlavičce. 0-10 znaků. */
+    private final String name;
+    /** Adresa, kam sa mají v RAM ZX Spectra uložit data. */
+    private final int address;
+    /** Binární data pro zápis do těla bloku (od pozice do limitu). */
+    private final ByteBuffer data;
+
+    /**
+     *
+     * @param type
+     * @param name
+     * @param address
+     * @param data
+     * @throws IllegalArgumentException
+     */
+    public TapBlockSpec(TapBlockType type, String name, int address,
+            byte[] data) {
+        this(type, name, address, data == null ? null : ByteBuffer.wrap(data));
+    }
+
+    /**
+     *
+     * @param type
+     * @param name
+     * @param address
+     * @param data  data od pozice do limitu; buffer se nekopíruje
+     *      (může být i např. {@link java.nio.MappedByteBuffer}, 
+     *      viz {@linkplain InputData})
+     * @throws IllegalArgumentException
+     */
+    public TapBlockSpec(TapBlockType type, String name, int address,
+            ByteBuffer data) {
+        if (type == null) {
+            throw new IllegalArgumentException("type = null");
+        }
+        if (name == null) {
+            throw new IllegalArgumentException("name = null");
+        }
+        if (data == null) {
+            throw new IllegalArgumentException("data = null");
+        }
+        this.type = type;
+        this.name = name;
+        this.address = address;
+        this.data = data.slice();
+    }
+
+    public TapBlockType getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAddress() {
+        return address;
+    }
+
+    /**
+     *
+     * @return  data (nekopírují se); vrací se vždy nový pohled 
+     *      na data s pozicí 0
+     */
+    public ByteBuffer getData() {
+        return data.duplicate();
+    }
+
+    /**
+     *
+     * @return  délka dat v bytech
+     */
+    public int getDataLength() {
+        return data.remaining();
+    }
+
+    @Override
+    public String toString() {
+        return type.getNum() + " \"" + name + "\" " + address
+                + " (" + data.remaining() + " B)";
+    }
+
+}   // TapBlockSpec.java
@@ -96,10 +96,8 @@ public class TapBody {
      * @see #appendParityToLastByte() 
      */
     public void append(byte... values) {
-        for(int i=0; i<values.length; i++) {
-            bodyData[idx++] = values[i];
-            parity ^= values[i];            
-        }
+        parity ^= TapParity.copyAndXor(values, 0, bodyData, idx, values.length);
+        idx += values.length;
     }
     
     /**
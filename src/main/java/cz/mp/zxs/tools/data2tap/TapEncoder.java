@@ -0,0 +1,577 @@
+/*
+ * TapEncoder.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import cz.mp.zxs.tools.data2tap.cache.TapCache;
+import cz.mp.zxs.tools.data2tap.metrics.EncoderMetrics;
+import cz.mp.zxs.tools.data2tap.metrics.PhaseEvents;
+import cz.mp.zxs.tools.data2tap.metrics.PhaseEvents.Phase;
+import cz.mp.zxs.tools.data2tap.report.BlockRecord;
+import cz.mp.zxs.tools.data2tap.report.TapLoadTime;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sestaví a zapíše TAP soubor podle zadání {@linkplain TapJob}.
+ * <p>
+ * Kodér nemá žádný stav převodu (jen neměnné nastavení), stav jednoho
+ * převodu je jen v lokálních proměnných. Jednu instanci proto může
+ * bez zámků sdílet libovolný počet vláken.
+ * <p>
+ * Hlavičky všech bloků převodu se kódují za sebou do jednoho pole
+ * ({@linkplain TapHeader#encode(TapBlockType, String, int, int, ByteBuffer)}),
+ * bez objektu {@linkplain TapHeader} pro každý blok.
+ *
+ * @author Martin Pokorný
+ * @see TapJob
+ * @see Data2tap
+ * @see TapWriter
+ */
+public final class TapEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(TapEncoder.class);
+
+    private static final Set<? extends OpenOption> ASYNC_OPEN_OPTIONS = 
+            EnumSet.of(StandardOpenOption.CREATE, 
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+
+    /** Volitelný cache výsledných TAP souborů. */
+    private final TapCache cache;
+
+    private final boolean reportEnabled;
+
+    /**
+     * Bez cache a bez reportu.
+     */
+    public TapEncoder() {
+        this(null, false);
+    }
+
+    /**
+     *
+     * @param cache  {@code null} = bez cache
+     * @param reportEnabled  sběr údajů pro report (velikosti, parity,
+     *      doby fází, odhad doby nahrávání z pásky)
+     */
+    public TapEncoder(TapCache cache, boolean reportEnabled) {
+        this.cache = cache;
+        this.reportEnabled = reportEnabled;
+    }
+
+    public TapCache getCache() {
+        return cache;
+    }
+
+    public boolean isReportEnabled() {
+        return reportEnabled;
+    }
+
+    /**
+     * Sestaví a uloží do výstupního souboru úlohy všechny její bloky,
+     * v zadaném pořadí. Soubor se otevře a zapíše jen jednou.
+     * <p>
+     * Pokud je nastaven cache a obsahuje výsledek pro stejné vstupy,
+     * soubor se jen zkopíruje z cache.
+     *
+     * @param job
+     * @return  záznamy o blocích (ve stejném pořadí); prázdný seznam,
+     *      pokud není zapnut report
+     * @throws IllegalArgumentException  pokud úloha nemá výstupní soubor
+     * @throws InvalidDataException
+     * @throws IOException
+     */
+    public List<BlockRecord> encode(TapJob job)
+            throws IOException, InvalidDataException {
+        if (job == null) {
+            throw new IllegalArgumentException("job = null");
+        }
+        Encoding encoding = build(job);
+        // (až po validaci bloků)
+        File outTapFile = job.getOutTapFile();
+        if (outTapFile == null) {
+            throw new IllegalArgumentException("outTapFile = null");
+        }
+
+        String cacheKey = null;
+        if (cache != null) {
+            cacheKey = TapCache.key(job.getModel(), job.getBlocks());
+            long start = System.nanoTime();
+            if (cache.copyTo(cacheKey, outTapFile)) {
+                log.info("outTapFile = " + outTapFile + " (from cache)");
+                EncoderMetrics.get().recordCacheHit();
+                completeBlockRecords(encoding, outTapFile,
+                        System.nanoTime() - start, true);
+                return encoding.records;
+            }
+        }
+
+        saveToFile(encoding, outTapFile);
+        completeBlockRecords(encoding, outTapFile, 0, false);
+
+        if (cache != null) {
+            cache.store(cacheKey, outTapFile);
+        }
+
+        log.debug("-----------------------");
+        return encoding.records;
+    }
+
+    /**
+     * Sestaví bloky úlohy a zapíše je do kanálu (od jeho aktuální pozice).
+     * Kanál se nezavírá; výstupní soubor úlohy ani cache se nepoužijí.
+     *
+     * @param job
+     * @param channel
+     * @return  záznamy o blocích; prázdný seznam, pokud není zapnut report
+     * @throws IllegalArgumentException
+     * @throws InvalidDataException
+     * @throws IOException
+     * @see TapMerger
+     */
+    public List<BlockRecord> writeTo(TapJob job, WritableByteChannel channel)
+            throws IOException, InvalidDataException {
+        if (job == null) {
+            throw new IllegalArgumentException("job = null");
+        }
+        if (channel == null) {
+            throw new IllegalArgumentException("channel = null");
+        }
+        Encoding encoding = build(job);
+
+        // (TapWriter se nezavírá, zavřel by i kanál)
+        long start = System.nanoTime();
+        TapWriter tapWriter = new TapWriter(channel);
+        tapWriter.setTraceContext(job.getModel().getName(), null);
+        tapWriter.setBlockRecords(reportEnabled ? encoding.records : null);
+        tapWriter.writeBlocks(encoding.getHeaders(), getBodies(job));
+        EncoderMetrics.get().recordWrite(tapWriter.getBytesWritten(),
+                System.nanoTime() - start);
+        completeBlockRecords(encoding, null, 0, false);
+        return encoding.records;
+    }
+
+    /**
+     * Asynchronní varianta {@linkplain #encode(TapJob)}: sestaví bloky
+     * a zapíše je přes {@link AsynchronousFileChannel}; během zápisu 
+     * nečeká žádné vlákno.
+     * <p>
+     * Sestavení (kontrola bloků, hlavičky, parity těl) proběhne ještě ve 
+     * vlákně volajícího, zápis a jeho dokončení už ve vláknech 
+     * {@code executor}. Zapisuje se do dočasného souboru, který výstupní 
+     * soubor nahradí až po úspěšném dokončení.
+     * Cache ani report asynchronní zápis nepodporuje;
+     * kodér s nastaveným cache nebo zapnutým reportem se odmítne.
+     * Chyby (i neplatná data) se předávají jen přes vrácený {@code Future}.
+     * {@code Future.cancel} zastaví zápis (původní výstupní soubor 
+     * zůstane beze změny).
+     *
+     * @param job  (s výstupním souborem)
+     * @param executor  vlákna pro dokončení zápisu; {@code null} = výchozí
+     *      ({@linkplain AsynchronousFileChannel#open(java.nio.file.Path, java.util.Set, java.util.concurrent.ExecutorService, java.nio.file.attribute.FileAttribute...)})
+     * @return
+     * @throws IllegalArgumentException  pokud úloha nemá výstupní soubor
+     * @throws IllegalStateException  pokud je nastaven cache nebo zapnut
+     *      report
+     * @see #encodeAsync(TapJob, ExecutorService, Object, CompletionHandler) 
+     */
+    public Future<TapWriteResult> encodeAsync(TapJob job, 
+            ExecutorService executor) {
+        return encodeAsync(job, executor, 
+                new AsyncTapWrite<Void>(null, null));
+    }
+
+    /**
+     * Jako {@linkplain #encodeAsync(TapJob, ExecutorService)}, výsledek
+     * nebo chyba se navíc předá do {@code handler} (ve vlákně 
+     * {@code executor}, při chybě sestavení ve vlákně volajícího).
+     *
+     * @param <A>
+     * @param job  (s výstupním souborem)
+     * @param executor  {@code null} = výchozí
+     * @param attachment  pro {@code handler}
+     * @param handler
+     * @throws IllegalArgumentException
+     * @throws IllegalStateException  pokud je nastaven cache nebo zapnut
+     *      report
+     */
+    public <A> void encodeAsync(TapJob job, ExecutorService executor,
+            A attachment, CompletionHandler<TapWriteResult, ? super A> handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("handler = null");
+        }
+        encodeAsync(job, executor, 
+                new AsyncTapWrite<A>(attachment, handler));
+    }
+
+    /**
+     *
+     * @param job
+     * @param executor
+     * @param write
+     * @return
+     */
+    private Future<TapWriteResult> encodeAsync(TapJob job,
+            ExecutorService executor, AsyncTapWrite<?> write) {
+        if (cache != null || reportEnabled) {
+            throw new IllegalStateException(
+                    "cache and report are not supported by async encoding");
+        }
+        if (job == null) {
+            throw new IllegalArgumentException("job = null");
+        }
+        File outTapFile = job.getOutTapFile();
+        if (outTapFile == null) {
+            throw new IllegalArgumentException("outTapFile = null");
+        }
+        try {
+            Encoding encoding = build(job);
+            ByteBuffer[] buffers = getBuffers(encoding);
+            log.info("outTapFile = " + outTapFile + " (async)");
+            AsynchronousFileChannel channel = AsynchronousFileChannel.open(
+                    write.createTempFile(outTapFile).toPath(), 
+                    ASYNC_OPEN_OPTIONS, executor);
+            long dataBytes = 0;
+            for (TapBlockSpec block : job.getBlocks()) {
+                dataBytes += block.getDataLength();
+            }
+            write.start(channel, buffers, outTapFile, 
+                    job.getBlocks().size(), dataBytes);
+        } catch (InvalidDataException | IOException ex) {
+            write.failed(ex);
+        }
+        return write.getFuture();
+    }
+
+    /**
+     *
+     * @param job
+     * @return
+     * @throws InvalidDataException
+     */
+    private Encoding build(TapJob job) throws InvalidDataException {
+        List<TapBlockSpec> blocks = job.getBlocks();
+        log.info("blocks = " + blocks.size());
+
+        long start = System.nanoTime();
+        Encoding encoding = new Encoding(job, reportEnabled);
+        long dataBytes = 0;
+        try {
+            for (TapBlockSpec block : blocks) {
+                buildHeader(encoding, block);
+                dataBytes += block.getDataLength();
+            }
+        } catch (InvalidDataException ex) {
+            EncoderMetrics.get().recordValidationFailure();
+            throw ex;
+        }
+        EncoderMetrics.get().recordBuild(blocks.size() * 2, dataBytes,
+                System.nanoTime() - start);
+        return encoding;
+    }
+
+    /**
+     *
+     * @param encoding
+     * @param block
+     * @throws InvalidDataException
+     */
+    private void buildHeader(Encoding encoding, TapBlockSpec block)
+            throws InvalidDataException {
+        ZxModel model = encoding.job.getModel();
+        int dataLength = block.getDataLength();
+        log.info("model = " + model.getName());
+        log.info("tapBlockType = " + block.getType());
+        log.info("name = \"" + block.getName() + "\"");
+        log.info("address = " + block.getAddress());
+        log.info("dataLength = " + dataLength);
+
+        log.info("assemble tap header");
+        Object headerEvent = PhaseEvents.begin();
+        long start = System.nanoTime();
+        byte headerParity = encodeHeader(model, block, encoding.headers);
+        long headerNanos = System.nanoTime() - start;
+        PhaseEvents.end(headerEvent, Phase.HEADER, dataLength,
+                model.getName(), encoding.job.getOutTapFile());
+        log.info("assemble tap header ... OK");
+
+        if (reportEnabled) {
+            encoding.records.add(
+                    createBlockRecord(encoding, block, headerParity, headerNanos));
+        }
+    }
+
+    /**
+     * Zkontroluje blok vůči modelu a zapíše jeho hlavičku do bufferu
+     * (od pozice, pozice se posune).
+     *
+     * @param model
+     * @param block
+     * @param dst
+     * @return  parita hlavičky
+     * @throws InvalidDataException
+     * @see TapHeader#encode(TapBlockType, String, int, int, ByteBuffer)
+     */
+    static byte encodeHeader(ZxModel model, TapBlockSpec block,
+            ByteBuffer dst) throws InvalidDataException {
+        int dataLength = block.getDataLength();
+        int blockAddress = block.getAddress();
+        if (dataLength == 0) {
+            throw new InvalidDataException("no data");
+        }
+        if (! model.isValidAddress(blockAddress)) {
+            throw new InvalidDataException("Address " + blockAddress +
+                    " is invalid for " + model.getName());
+        }
+        // data se do RAM od zadané adresy nevejdou
+        if (blockAddress + dataLength > model.getRamAddresMax() + 1) {
+            log.debug("address = " + blockAddress);
+            log.debug("rawData.length = " + dataLength);
+            log.debug("model.getRamAddresMax() = " + model.getRamAddresMax());
+            throw new InvalidDataException(
+                    "Data doesn't fit in RAM  (address + length of data > max address)");
+        }
+
+        try {
+            // (délku dat vůči RAM modelu hlídá už kontrola adresy výše)
+            return TapHeader.encode(block.getType(), block.getName(),
+                    dataLength, blockAddress, dst);
+        } catch (IllegalArgumentException ex) {
+            log.warn(ex.getMessage());
+            throw new InvalidDataException("invalid data", ex);
+        }
+    }
+
+    /**
+     * Zapíše délku a flag bloku tak, jak v TAP souboru předchází data
+     * (sdílí {@linkplain TapWriter} i {@linkplain TapStream}).
+     *
+     * @param flag
+     * @param dataLength  délka samotných dat (bez flagu a parity)
+     * @param dst  aspoň 3 byty; zapíše se od začátku
+     * @return  {@code dst}
+     * @throws IllegalArgumentException  pokud jsou data prázdná nebo 
+     *      delší než {@code 0xFFFF - 2} B
+     */
+    static byte[] encodeBodyPrefix(byte flag, int dataLength, byte[] dst) {
+        if (dataLength < 1) {
+            throw new IllegalArgumentException("length < 1");
+        }
+        int len = dataLength + 2;  // 2 za flag a paritu
+        if (len > 0xFFFF) {
+            throw new IllegalArgumentException("length > " + (0xFFFF - 2));
+        }
+        dst[0] = (byte) (len & 0xFF);
+        dst[1] = (byte) ((len >> 8) & 0xFF);
+        dst[2] = flag;
+        return dst;
+    }
+
+    /**
+     * 
+     * @param data  data od pozice do limitu; pozice se nemění
+     * @return  parita těla s flagem {@linkplain TapBody#FLAG_DATA}
+     *      (XOR flagu a všech bytů dat)
+     */
+    static byte encodeBodyParity(ByteBuffer data) {
+        return (byte) (TapBody.FLAG_DATA ^ TapParity.xor(data));
+    }
+
+    /**
+     *
+     * @param encoding
+     * @param outTapFile
+     * @throws IOException
+     */
+    private void saveToFile(Encoding encoding, File outTapFile)
+            throws IOException {
+        log.info("outTapFile = " + outTapFile);
+
+        List<ByteBuffer> bodies = getBodies(encoding.job);
+
+        long start = System.nanoTime();
+        try (
+            TapWriter tapWriter = new TapWriter(FileChannel.open(
+                    outTapFile.toPath(),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE));
+            ) {
+
+            log.info("write tap headers and bodies");
+            tapWriter.setTraceContext(encoding.job.getModel().getName(), outTapFile);
+            tapWriter.setBlockRecords(reportEnabled ? encoding.records : null);
+            tapWriter.writeBlocks(encoding.getHeaders(), bodies);
+            EncoderMetrics.get().recordWrite(tapWriter.getBytesWritten(),
+                    System.nanoTime() - start);
+
+            log.info("done!");
+        } catch (IOException ioex) {
+            log.warn(ioex.getMessage(), ioex);
+            throw ioex;
+        }
+    }
+
+    /**
+     *
+     * @param encoding
+     * @param block
+     * @param headerParity
+     * @param headerNanos
+     * @return
+     */
+    private static BlockRecord createBlockRecord(Encoding encoding,
+            TapBlockSpec block, byte headerParity, long headerNanos) {
+        BlockRecord record = new BlockRecord();
+        record.setOutputFile(encoding.job.getOutTapFile());
+        record.setModel(encoding.job.getModel().getName());
+        record.setType(block.getType().getNum());
+        record.setName(block.getName());
+        record.setAddress(block.getAddress());
+        record.setInputSize(block.getDataLength());
+        record.setTapSize(TapHeader.SIZE + block.getDataLength() + 4);
+        record.setHeaderParity(headerParity & 0xFF);
+        record.setHeaderNanos(headerNanos);
+        return record;
+    }
+
+    /**
+     * Doplní záznamy pro report po zápisu. Parity těl, které nespočítal
+     * {@linkplain TapWriter} (výsledek z cache), se spočítají zde.
+     *
+     * @param encoding
+     * @param outputFile  výstupní soubor nebo {@code null}
+     * @param copyNanos  doba kopírování z cache (rozdělí se podle velikosti)
+     * @param cached
+     */
+    private void completeBlockRecords(Encoding encoding, File outputFile,
+            long copyNanos, boolean cached) {
+        if (! reportEnabled) {
+            return;
+        }
+        List<BlockRecord> records = encoding.records;
+        List<TapBlockSpec> blocks = encoding.job.getBlocks();
+        long totalSize = 0;
+        for (BlockRecord record : records) {
+            totalSize += record.getTapSize();
+        }
+        for (int i = 0; i < records.size(); i++) {
+            BlockRecord record = records.get(i);
+            ByteBuffer data = blocks.get(i).getData();
+            record.setOutputFile(outputFile);
+            if (cached) {
+                record.setCached(true);
+                record.setWriteNanos(copyNanos * record.getTapSize() / totalSize);
+            }
+            if (record.getBodyParity() == BlockRecord.PARITY_UNKNOWN) {
+                long start = System.nanoTime();
+                byte parity = encodeBodyParity(data);
+                record.setParityNanos(System.nanoTime() - start);
+                record.setBodyParity(parity & 0xFF);
+            }
+            record.setLoadTStates(
+                    TapLoadTime.headerBlockTStates(encoding.headerBytes,
+                            i * TapHeader.SIZE, TapHeader.SIZE)
+                    + TapLoadTime.dataBlockTStates(TapBody.FLAG_DATA, data,
+                            (byte) record.getBodyParity()));
+        }
+    }
+
+    /**
+     *
+     * @param job
+     * @return  data těl bloků (nekopírují se)
+     */
+    private static List<ByteBuffer> getBodies(TapJob job) {
+        List<TapBlockSpec> blocks = job.getBlocks();
+        List<ByteBuffer> bodies = new ArrayList<ByteBuffer>(blocks.size());
+        for (TapBlockSpec block : blocks) {
+            bodies.add(block.getData());
+        }
+        return bodies;
+    }
+
+    /**
+     *
+     * @param encoding
+     * @return  buffery celého TAP souboru v pořadí zápisu:
+     *      [hlavička, délka + flag, data, parita] pro každý blok
+     * @throws InvalidDataException
+     */
+    private static ByteBuffer[] getBuffers(Encoding encoding)
+            throws InvalidDataException {
+        List<TapBlockSpec> blocks = encoding.job.getBlocks();
+        ByteBuffer[] buffers = new ByteBuffer[blocks.size() * 4];
+        int b = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            ByteBuffer data = blocks.get(i).getData();
+            byte[] prefix;
+            try {
+                prefix = encodeBodyPrefix(TapBody.FLAG_DATA, 
+                        data.remaining(), new byte[3]);
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidDataException(ex.getMessage());
+            }
+            buffers[b++] = ByteBuffer.wrap(encoding.headerBytes,
+                    i * TapHeader.SIZE, TapHeader.SIZE);
+            buffers[b++] = ByteBuffer.wrap(prefix);
+            buffers[b++] = data;
+            buffers[b++] = ByteBuffer.wrap(new byte[] { encodeBodyParity(data) });
+        }
+        return buffers;
+    }
+
+    // -----
+    /**
+     * Stav jednoho převodu (patří jen jednomu volání).
+     */
+    private static final class Encoding {
+        private final TapJob job;
+        /** Hlavičky všech bloků za sebou, po {@linkplain TapHeader#SIZE}. */
+        private final byte[] headerBytes;
+        /** Pro zápis hlaviček; pozice = konec poslední zapsané. */
+        private final ByteBuffer headers;
+        private final List<BlockRecord> records;
+
+        Encoding(TapJob job, boolean reportEnabled) {
+            int count = job.getBlocks().size();
+            this.job = job;
+            this.headerBytes = new byte[count * TapHeader.SIZE];
+            this.headers = ByteBuffer.wrap(headerBytes);
+            this.records = reportEnabled
+                    ? new ArrayList<BlockRecord>(count)
+                    : Collections.<BlockRecord>emptyList();
+        }
+
+        /**
+         *
+         * @return  zapsané hlavičky (nový pohled, jen pro čtení)
+         */
+        ByteBuffer getHeaders() {
+            return ByteBuffer.wrap(headerBytes, 0, headers.position())
+                    .asReadOnlyBuffer();
+        }
+    }   // Encoding
+
+}   // TapEncoder.java
@@ -7,12 +7,21 @@
 
 package cz.mp.zxs.tools.data2tap;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 /**
  * Blok dat v TAP souboru uvozující blok dat.
+ * <p>
+ * Kromě sestavení přes settery a {@linkplain #createData()} lze hlavičku
+ * zapsat rovnou do bufferu volajícího statickou metodou
+ * {@linkplain #encode(TapBlockType, String, int, int, ByteBuffer)},
+ * bez alokací: zkopíruje se šablona s konstantními poli a přepíšou
+ * se jen proměnná pole; parita šablony je spočítaná předem a upraví se
+ * jen o proměnná pole.
  * 
  * @author Martin Pokorný
  * @see TapBody
@@ -24,6 +33,8 @@ public class TapHeader {
     public static final String DEFAULT_NAME = "          ";  // 10 mezer
     public static final int NAME_LEN = DEFAULT_NAME.length(); // = 10
     public static final int HEADER_DEFAULT_SIZE = 19;
+    /** Velikost hlavičky v TAP souboru, i s 2B délkou. */
+    public static final int SIZE = HEADER_DEFAULT_SIZE + 2;    // = 21
     
     public static final byte FLAG_HEADER = 0;
     
@@ -34,31 +45,36 @@ public class TapHeader {
     public static final int PARAM_2_MAX_VALUE = 0xFFFF;    // (2B celé číslo)
     public static final int PARAM_2_CODE_FLAG = 32768; // 0x8000
     
-    // délka bez lenLsb a lenMSB
-    private byte lenLsb = (byte)HEADER_DEFAULT_SIZE;
-    private byte lenMSB = 0;
+    // pozice polí (od začátku hlavičky i s 2B délkou)
+    private static final int OFFSET_FLAG = 2;
+    private static final int OFFSET_TYPE = 3;
+    private static final int OFFSET_NAME = 4;
+    private static final int OFFSET_DATA_LEN = OFFSET_NAME + NAME_LEN;  // 14
+    private static final int OFFSET_PARAM_1 = OFFSET_DATA_LEN + 2;
+    private static final int OFFSET_PARAM_2 = OFFSET_PARAM_1 + 2;
+    private static final int OFFSET_PARITY = OFFSET_PARAM_2 + 2;        // 20
+    
+    /** Šablona hlavičky: délka, flag, jméno z mezer; proměnná pole jsou 0. */
+    private static final byte[] TEMPLATE = createTemplate();
+    /** Parita šablony (od flagu, bez parity). */
+    private static final byte TEMPLATE_PARITY = TapParity.xor(
+            TEMPLATE, OFFSET_FLAG, OFFSET_PARITY - OFFSET_FLAG);
     
-    private byte flag = FLAG_HEADER;
     private TapBlockType type;  // 1B
     
-    /** Jméno v hlavičce. Vždy je 10 znaků. Doplňuje se mezerami zprava. */
-    private String name;
+    /** Jméno v hlavičce, 0-10 znaků. Do 10 znaků se doplní mezerami 
+     * zprava až v {@linkplain #encode}. */
+    private String name = "";
     
     private int dataLen;
-    private byte dataLenLsb;
-    private byte dataLenMSB;
     
     /** Param 2 má být pro blok typu 3 adresa v RAM, kam se mají vložit 
      * binární data. */
     private int param1;
-    private byte param1Lsb;
-    private byte param1MSB;
     
     /** Param 2 má být pro blok typu 3 vždy = 32768. 
      * @see #PARAM_1_MIN_VALUE_FOR_CODE */
     private int param2;
-    private byte param2Lsb;
-    private byte param2MSB;
     
     /** Parita. Počítá se jako XOR přes všechy byty... viz níže. */
     private byte parity;
@@ -154,7 +170,7 @@ public class TapHeader {
         if (checkName(name) == false) {
             throw new IllegalArgumentException("name contains illegal characters");
         }
-        this.name = String.format("%-10s", name);
+        this.name = name;
     }
     
     /**
@@ -169,8 +185,6 @@ public class TapHeader {
             throw new IllegalArgumentException("illegal data length");
         }
         this.dataLen = length;
-        dataLenLsb = get16bitLsb(length);
-        dataLenMSB = get16bitMSB(length);        
     }
        
     /**
@@ -188,8 +202,6 @@ public class TapHeader {
             }
         }
         this.param1 = param1;
-        param1Lsb = get16bitLsb(param1);
-        param1MSB = get16bitMSB(param1);
     }
     
     /**
@@ -211,8 +223,6 @@ public class TapHeader {
             throw new IllegalArgumentException("illegal param2");
         }
         this.param2 = param2;
-        param2Lsb = get16bitLsb(param2);
-        param2MSB = get16bitMSB(param2);        
     }
 
     /**
@@ -231,34 +241,131 @@ public class TapHeader {
      * @throws IllegalStateException
      */
     public void createData() {
+        if (type == null) {
+            throw new IllegalStateException("type = null");
+        }
         if (dataLen < 0 || dataLen > zxModel.getRamSize()) {
             throw new IllegalStateException("illegal dataLen");
         }
-        if (param1 < 0 || param1 > PARAM_1_MAX_VALUE) {
+        if (param1 < 0 || param1 > PARAM_1_MAX_VALUE
+                || (type == TapBlockType.BINARY_DATA 
+                        && param1 < PARAM_1_MIN_VALUE_FOR_CODE)) {
             throw new IllegalStateException("illegal param1");
         }
         if (param2 < 0 || param2 > PARAM_2_MAX_VALUE) {
             throw new IllegalStateException("illegal param2");
         }
         
-        data = new byte[HEADER_DEFAULT_SIZE + 2];    // +2 je za lenLsb a lenMSB
-        int i=0;
-        data[i++] = lenLsb;
-        //log.debug("lenLsb = 0x" + Integer.toHexString(lenLsb));
-        data[i++] = lenMSB;        
-        data[i++] = flag;   parity = flag;
-        data[i++] = (byte)type.getNum();   parity ^= (byte)type.getNum();
-        for (int j=0; j<name.length(); j++) {
-            data[i++] = (byte)name.charAt(j);
-            parity ^= (byte)name.charAt(j);
+        data = new byte[SIZE];
+        parity = encode(type, name, dataLen, param1, param2, 
+                ByteBuffer.wrap(data));
+    }
+    
+    /**
+     * Zapíše hlavičku (i s 2B délkou) do bufferu od jeho pozice a posune 
+     * pozici za ni. Parametr 2 je pro {@link TapBlockType#BINARY_DATA}
+     * {@linkplain #PARAM_2_CODE_FLAG}, jinak {@code 0}.
+     * 
+     * @param type
+     * @param name  0-10 znaků
+     * @param dataLength  délka dat následujícího bloku
+     * @param param1  (pro binární data adresa)
+     * @param dst
+     * @return  parita hlavičky
+     * @throws IllegalArgumentException
+     * @throws BufferOverflowException  pokud je v bufferu míň než 
+     *      {@linkplain #SIZE} bytů
+     * @see #encode(TapBlockType, String, int, int, int, ByteBuffer) 
+     */
+    public static byte encode(TapBlockType type, String name, int dataLength,
+            int param1, ByteBuffer dst) {
+        return encode(type, name, dataLength, param1, 
+                type == TapBlockType.BINARY_DATA ? PARAM_2_CODE_FLAG : 0, dst);
+    }
+    
+    /**
+     * Zapíše hlavičku (i s 2B délkou) do bufferu od jeho pozice a posune 
+     * pozici za ni. Nic se nealokuje.
+     * 
+     * @param type
+     * @param name  0-10 znaků
+     * @param dataLength  délka dat následujícího bloku
+     * @param param1
+     * @param param2
+     * @param dst
+     * @return  parita hlavičky
+     * @throws IllegalArgumentException
+     * @throws BufferOverflowException  pokud je v bufferu míň než 
+     *      {@linkplain #SIZE} bytů
+     */
+    public static byte encode(TapBlockType type, String name, int dataLength,
+            int param1, int param2, ByteBuffer dst) {
+        if (type == null) {
+            throw new IllegalArgumentException("type=null");
+        }
+        if (name == null || ! checkName(name)) {
+            throw new IllegalArgumentException("illegal name");
+        }
+        if (dataLength < 0 || dataLength > 0xFFFF) {
+            throw new IllegalArgumentException("illegal data length");
+        }
+        if (param1 < 0 || param1 > PARAM_1_MAX_VALUE
+                || (type == TapBlockType.BINARY_DATA 
+                        && param1 < PARAM_1_MIN_VALUE_FOR_CODE)) {
+            throw new IllegalArgumentException("illegal param1");
+        }
+        if (param2 < 0 || param2 > PARAM_2_MAX_VALUE) {
+            throw new IllegalArgumentException("illegal param2");
+        }
+        if (dst.remaining() < SIZE) {
+            throw new BufferOverflowException();
+        }
+        
+        int base = dst.position();
+        dst.put(TEMPLATE);
+        byte typeNum = (byte) type.getNum();
+        dst.put(base + OFFSET_TYPE, typeNum);
+        int parity = TEMPLATE_PARITY ^ typeNum;
+        for (int j = 0; j < name.length(); j++) {
+            char ch = name.charAt(j);
+            dst.put(base + OFFSET_NAME + j, (byte) ch);
+            parity ^= ch ^ ' ';     // (mezera ze šablony se nahradí)
+        }
+        parity ^= put16bit(dst, base + OFFSET_DATA_LEN, dataLength);
+        parity ^= put16bit(dst, base + OFFSET_PARAM_1, param1);
+        parity ^= put16bit(dst, base + OFFSET_PARAM_2, param2);
+        dst.put(base + OFFSET_PARITY, (byte) parity);
+        return (byte) parity;
+    }
+    
+    /**
+     * 
+     * @param dst
+     * @param index
+     * @param value  2B celé číslo
+     * @return  XOR obou zapsaných bytů
+     */
+    private static int put16bit(ByteBuffer dst, int index, int value) {
+        byte lsb = get16bitLsb(value);
+        byte msb = get16bitMSB(value);
+        dst.put(index, lsb);
+        dst.put(index + 1, msb);
+        return lsb ^ msb;
+    }
+    
+    /**
+     * 
+     * @return 
+     */
+    private static byte[] createTemplate() {
+        byte[] template = new byte[SIZE];
+        template[0] = (byte) HEADER_DEFAULT_SIZE;
+        template[1] = 0;
+        template[OFFSET_FLAG] = FLAG_HEADER;
+        for (int j = 0; j < NAME_LEN; j++) {
+            template[OFFSET_NAME + j] = ' ';
         }
-        data[i++] = dataLenLsb;   parity ^= dataLenLsb;
-        data[i++] = dataLenMSB;   parity ^= dataLenMSB;
-        data[i++] = param1Lsb;   parity ^= param1Lsb;
-        data[i++] = param1MSB;   parity ^= param1MSB;
-        data[i++] = param2Lsb;   parity ^= param2Lsb;
-        data[i++] = param2MSB;   parity ^= param2MSB;
-        data[i++] = parity;        
+        return template;
     }
     
     /**
@@ -0,0 +1,95 @@
+/*
+ * TapJob.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Neměnné zadání jednoho převodu: model, bloky a výstupní soubor.
+ * <p>
+ * Instance lze bez omezení sdílet mezi vlákny (data bloků se ale
+ * nekopírují, viz {@linkplain TapBlockSpec}).
+ *
+ * @author Martin Pokorný
+ * @see TapEncoder
+ * @see TapBlockSpec
+ */
+public final class TapJob {
+
+    private final ZxModel model;
+    private final List<TapBlockSpec> blocks;
+    private final File outTapFile;
+
+    /**
+     *
+     * @param model
+     * @param block
+     * @param outTapFile  {@code null} = jen pro zápis do kanálu
+     * @throws IllegalArgumentException
+     */
+    public TapJob(ZxModel model, TapBlockSpec block, File outTapFile) {
+        this(model, Collections.singletonList(block), outTapFile);
+    }
+
+    /**
+     *
+     * @param model
+     * @param blocks  bloky v pořadí zápisu (alespoň jeden); seznam se kopíruje
+     * @param outTapFile  {@code null} = jen pro zápis do kanálu
+     *      ({@linkplain TapEncoder#writeTo(TapJob, java.nio.channels.WritableByteChannel)})
+     * @throws IllegalArgumentException
+     */
+    public TapJob(ZxModel model, List<TapBlockSpec> blocks, File outTapFile) {
+        if (model == null) {
+            throw new IllegalArgumentException("model = null");
+        }
+        if (blocks == null || blocks.isEmpty()) {
+            throw new IllegalArgumentException("blocks is blank");
+        }
+        List<TapBlockSpec> copy = new ArrayList<TapBlockSpec>(blocks);
+        for (TapBlockSpec block : copy) {
+            if (block == null) {
+                throw new IllegalArgumentException("block = null");
+            }
+        }
+        this.model = model;
+        this.blocks = Collections.unmodifiableList(copy);
+        this.outTapFile = outTapFile;
+    }
+
+    public ZxModel getModel() {
+        return model;
+    }
+
+    /**
+     *
+     * @return  neměnný seznam bloků
+     */
+    public List<TapBlockSpec> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     *
+     * @return  výstupní soubor nebo {@code null}
+     */
+    public File getOutTapFile() {
+        return outTapFile;
+    }
+
+    @Override
+    public String toString() {
+        return model.getName() + ", blocks = " + blocks.size()
+                + (outTapFile != null ? " -> " + outTapFile.getPath() : "");
+    }
+
+}   // TapJob.java
@@ -0,0 +1,224 @@
+/*
+ * TapMerger.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Spojí několik TAP souborů (a případně nově vytvořené bloky) do jednoho
+ * TAP souboru, např. BASIC zavaděč + data.
+ * <p>
+ * Struktura bloků každého vstupního souboru se nejdřív zkontroluje
+ * ({@linkplain TapReader}), potom se soubor připojí pomocí
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * tj. bez kopírování dat přes haldu JVM. Nové bloky se sestaví a zapíšou
+ * přímo do výstupu ({@linkplain TapEncoder#writeTo(TapJob, java.nio.channels.WritableByteChannel)}).
+ * <p>
+ * Části se zapisují v pořadí, v jakém byly přidány.
+ *
+ * @author Martin Pokorný
+ * @see TapReader
+ * @see Data2tap
+ */
+public class TapMerger {
+
+    private static final Logger log = LoggerFactory.getLogger(TapMerger.class);
+
+    private static final TapEncoder ENCODER = new TapEncoder();
+
+    /** Část výstupu: buď TAP soubor, nebo bloky pro {@linkplain TapEncoder}. */
+    private static class Part {
+        final File tapFile;
+        final List<TapBlockSpec> blocks;
+
+        Part(File tapFile, List<TapBlockSpec> blocks) {
+            this.tapFile = tapFile;
+            this.blocks = blocks;
+        }
+    }
+
+    private final List<Part> parts = new ArrayList<Part>();
+
+    private ZxModel model = ZxModelSpectrum48k.get();
+
+    /** kontrolovat i paritu těl bloků (vyžaduje navíc přečtení dat) */
+    private boolean verifyParity = false;
+
+    /** */
+    public TapMerger() {
+    }
+
+    /**
+     *
+     * @param model  model pro validaci nových bloků
+     */
+    public void setModel(ZxModel model) {
+        if (model == null) {
+            throw new IllegalArgumentException("model = null");
+        }
+        this.model = model;
+    }
+
+    /**
+     *
+     * @param verifyParity  {@code true} = kontroluje se i parita všech
+     *      bloků vstupních souborů, ne jen jejich struktura
+     */
+    public void setVerifyParity(boolean verifyParity) {
+        this.verifyParity = verifyParity;
+    }
+
+    /**
+     * Přidá TAP soubor.
+     *
+     * @param tapFile
+     */
+    public void addTapFile(File tapFile) {
+        if (tapFile == null) {
+            throw new IllegalArgumentException("tapFile = null");
+        }
+        parts.add(new Part(tapFile, null));
+    }
+
+    /**
+     * Přidá nový blok (hlavička + tělo).
+     *
+     * @param block
+     */
+    public void addBlock(TapBlockSpec block) {
+        if (block == null) {
+            throw new IllegalArgumentException("block = null");
+        }
+        parts.add(new Part(null, Collections.singletonList(block)));
+    }
+
+    /**
+     *
+     * @return  počet přidaných částí
+     */
+    public int getPartCount() {
+        return parts.size();
+    }
+
+    /**
+     * Zkontroluje vstupní soubory a zapíše výsledný TAP soubor.
+     *
+     * @param outTapFile  nesmí být zároveň vstupem
+     * @return  velikost výsledného souboru v bytech
+     * @throws IllegalStateException  nebyla přidána žádná část
+     * @throws InvalidDataException  vadný vstupní soubor nebo blok
+     * @throws IOException
+     */
+    public long merge(File outTapFile) throws IOException, InvalidDataException {
+        if (outTapFile == null) {
+            throw new IllegalArgumentException("outTapFile = null");
+        }
+        if (parts.isEmpty()) {
+            throw new IllegalStateException("nothing to merge");
+        }
+        log.info("parts = " + parts.size() + ", outTapFile = " + outTapFile);
+
+        // 1. kontrola všech vstupů ještě před vytvořením výstupu
+        File outCanonical = outTapFile.getCanonicalFile();
+        for (Part part : parts) {
+            if (part.tapFile != null) {
+                if (part.tapFile.getCanonicalFile().equals(outCanonical)) {
+                    throw new InvalidDataException(
+                            "Input and output is the same file: " + outTapFile);
+                }
+                checkTapFile(part.tapFile);
+            }
+        }
+
+        // 2. zápis
+        try (FileChannel out = FileChannel.open(outTapFile.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            for (Part part : parts) {
+                if (part.tapFile != null) {
+                    transferTapFile(part.tapFile, out);
+                }
+                else {
+                    ENCODER.writeTo(new TapJob(model, part.blocks, null), out);
+                }
+            }
+            log.info("done! size = " + out.size());
+            return out.size();
+        }
+    }
+
+    /**
+     *
+     * @param tapFile
+     * @throws InvalidDataException
+     * @throws IOException
+     */
+    private void checkTapFile(File tapFile) throws InvalidDataException, IOException {
+        log.debug("check " + tapFile);
+        if (!tapFile.exists() || tapFile.isDirectory()) {
+            throw new InvalidDataException("TAP file " + tapFile + " doesn't exist");
+        }
+        try (TapReader tapReader = new TapReader(tapFile)) {
+            List<TapBlock> blocks;
+            try {
+                blocks = tapReader.readIndex();
+            } catch (InvalidDataException ex) {
+                throw new InvalidDataException(tapFile + ": " + ex.getMessage(), ex);
+            }
+            if (blocks.isEmpty()) {
+                throw new InvalidDataException("TAP file " + tapFile + " is empty");
+            }
+            for (TapBlock block : blocks) {
+                boolean parityOk = block.isHeader() 
+                        ? block.isHeaderParityOk()
+                        : (! verifyParity || tapReader.verifyParity(block));
+                if (! parityOk) {
+                    throw new InvalidDataException(tapFile 
+                            + ": wrong parity of block " + block);
+                }
+            }
+        }
+    }
+
+    /**
+     * Připojí celý soubor na konec výstupu ({@code transferTo}).
+     *
+     * @param tapFile
+     * @param out
+     * @throws IOException  i pokud se soubor během přenosu zkrátí
+     */
+    private static void transferTapFile(File tapFile, FileChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(tapFile.toPath(), 
+                StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    // (výstup je blokující, 0 znamená konec vstupu)
+                    throw new IOException("TAP file " + tapFile 
+                            + " changed during merge (" + in.size() 
+                            + " B, expected " + size + " B)");
+                }
+                position += transferred;
+            }
+            log.debug(tapFile + ": " + size + " B");
+        }
+    }
+
+}   // TapMerger.java
@@ -0,0 +1,98 @@
+/*
+ * TapParity.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+
+/**
+ * Výpočet parity bloku TAP (XOR všech bytů).
+ * <p>
+ * Data se XORují po 64 bitech (8 bytů najednou) a výsledný {@code long}
+ * se nakonec "složí" do jednoho bytu. XOR je nezávislý na pořadí bytů,
+ * proto lze použít nativní pořadí bytů platformy.
+ *
+ * @author Martin Pokorný
+ * @see TapBody
+ * @see TapHeader
+ * @see TapWriter
+ */
+public final class TapParity {
+
+    /** */
+    private TapParity() {
+    }
+
+    /**
+     *
+     * @param data
+     * @param offset
+     * @param length
+     * @return  XOR všech bytů v zadaném rozsahu ({@code 0} pro prázdný rozsah)
+     * @throws IndexOutOfBoundsException
+     */
+    public static byte xor(byte[] data, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IndexOutOfBoundsException("offset, length");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.nativeOrder());
+        return xorImpl(buffer, offset, offset + length);
+    }
+
+    /**
+     *
+     * @param data  data od pozice do limitu; pozice se nemění
+     * @return  XOR všech bytů ({@code 0} pro prázdný buffer)
+     */
+    public static byte xor(ByteBuffer data) {
+        ByteBuffer buffer = data.duplicate().order(ByteOrder.nativeOrder());
+        return xorImpl(buffer, data.position(), data.limit());
+    }
+
+    /**
+     * Zkopíruje data ({@link System#arraycopy}) a spočítá jejich paritu.
+     *
+     * @param src
+     * @param srcOffset
+     * @param dst
+     * @param dstOffset
+     * @param length
+     * @return  XOR všech zkopírovaných bytů
+     * @throws IndexOutOfBoundsException
+     */
+    public static byte copyAndXor(byte[] src, int srcOffset,
+            byte[] dst, int dstOffset, int length) {
+        System.arraycopy(src, srcOffset, dst, dstOffset, length);
+        return xor(dst, dstOffset, length);
+    }
+
+    /**
+     *
+     * @param buffer  (v nativním pořadí bytů)
+     * @param from  absolutní index
+     * @param to  absolutní index (mimo)
+     * @return
+     */
+    private static byte xorImpl(ByteBuffer buffer, int from, int to) {
+        long acc = 0;
+        int i = from;
+        for (; i <= to - 8; i += 8) {
+            acc ^= buffer.getLong(i);
+        }
+        acc ^= acc >>> 32;
+        acc ^= acc >>> 16;
+        acc ^= acc >>> 8;
+        byte parity = (byte) acc;
+        for (; i < to; i++) {
+            parity ^= buffer.get(i);
+        }
+        return parity;
+    }
+
+}   // TapParity.java
@@ -0,0 +1,239 @@
+/*
+ * TapReader.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Čte TAP soubor po blocích a sestavuje index bloků ({@linkplain TapBlock}).
+ * <p>
+ * Z každého bloku se čte jen délka a flag; hlavička (19 B) se načte celá,
+ * rozebere a zkontroluje se její parita. Data těla se nenačítají,
+ * dokud o ně někdo nepožádá ({@linkplain #readData(TapBlock)},
+ * {@linkplain #verifyParity(TapBlock)}).
+ *
+ * @author Martin Pokorný
+ * @see TapBlock
+ * @see TapWriter
+ */
+public class TapReader implements Closeable {
+
+    /** po kolika bytech se čte tělo při kontrole parity */
+    private static final int PARITY_CHUNK_SIZE = 8192;
+
+    private final SeekableByteChannel channel;
+    private final long size;
+
+    private final ByteBuffer headerBuf = ByteBuffer
+            .allocate(2 + TapBlock.HEADER_BLOCK_LENGTH)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+    /** pozice dalšího nepřečteného bloku */
+    private long nextOffset = 0;
+    private final List<TapBlock> blocks = new ArrayList<TapBlock>();
+
+    /**
+     *
+     * @param channel
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public TapReader(SeekableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel = null");
+        }
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    /**
+     *
+     * @param tapFile
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public TapReader(File tapFile) throws IOException {
+        this(FileChannel.open(checkFile(tapFile).toPath(),
+                StandardOpenOption.READ));
+    }
+
+    private static File checkFile(File tapFile) {
+        if (tapFile == null) {
+            throw new IllegalArgumentException("tapFile = null");
+        }
+        return tapFile;
+    }
+
+    /**
+     * Přečte další blok a přidá ho do indexu.
+     *
+     * @return  další blok, nebo {@code null} na konci souboru
+     * @throws IOException
+     * @throws InvalidDataException  pokud je blok neplatný nebo oříznutý
+     */
+    public TapBlock readNextBlock() throws IOException, InvalidDataException {
+        long offset = nextOffset;
+        if (offset >= size) {
+            return null;
+        }
+        if (size - offset < 2 + 2) {
+            throw new InvalidDataException("Truncated block at offset " + offset);
+        }
+
+        headerBuf.clear().limit(2 + 1);
+        readFully(headerBuf, offset);
+        int length = headerBuf.getShort(0) & 0xFFFF;
+        byte flag = headerBuf.get(2);
+        if (length < 2) {
+            throw new InvalidDataException("Invalid block length " + length
+                    + " at offset " + offset);
+        }
+        if (offset + 2 + length > size) {
+            throw new InvalidDataException("Truncated block at offset " + offset
+                    + " (length " + length + ", file size " + size + ")");
+        }
+
+        TapBlock block;
+        int index = blocks.size();
+        if (flag == TapHeader.FLAG_HEADER
+                && length == TapBlock.HEADER_BLOCK_LENGTH) {
+            headerBuf.limit(headerBuf.capacity());
+            readFully(headerBuf, offset + headerBuf.position());
+            byte[] h = headerBuf.array();
+            boolean parityOk = TapParity.xor(h, 2, length) == 0;
+            block = new TapBlock(index, offset, length, flag,
+                    h[3] & 0xFF,
+                    new String(h, 4, TapHeader.NAME_LEN, StandardCharsets.ISO_8859_1),
+                    headerBuf.getShort(14) & 0xFFFF,
+                    headerBuf.getShort(16) & 0xFFFF,
+                    headerBuf.getShort(18) & 0xFFFF,
+                    parityOk);
+        }
+        else {
+            block = new TapBlock(index, offset, length, flag);
+        }
+
+        blocks.add(block);
+        nextOffset = block.getNextOffset();
+        return block;
+    }
+
+    /**
+     * Dočte zbývající bloky.
+     *
+     * @return  index všech bloků souboru
+     * @throws IOException
+     * @throws InvalidDataException
+     * @see #readNextBlock()
+     */
+    public List<TapBlock> readIndex() throws IOException, InvalidDataException {
+        while (readNextBlock() != null) {
+            // (jen čtení)
+        }
+        return getIndex();
+    }
+
+    /**
+     *
+     * @return  dosud přečtené bloky
+     */
+    public List<TapBlock> getIndex() {
+        return Collections.unmodifiableList(new ArrayList<TapBlock>(blocks));
+    }
+
+    /**
+     * Načte data bloku (bez flagu a parity).
+     *
+     * @param block
+     * @return  nový buffer s daty (pozice 0)
+     * @throws IOException
+     */
+    public ByteBuffer readData(TapBlock block) throws IOException {
+        if (block == null) {
+            throw new IllegalArgumentException("block = null");
+        }
+        ByteBuffer data = ByteBuffer.allocate(block.getBlockDataLength());
+        readFully(data, block.getDataOffset());
+        data.flip();
+        return data;
+    }
+
+    /**
+     * Zkontroluje paritu bloku. Tělo se čte po částech, nenačítá se
+     * do paměti celé.
+     *
+     * @param block
+     * @return  {@code true}, pokud XOR flagu, dat a parity je {@code 0}
+     * @throws IOException
+     */
+    public boolean verifyParity(TapBlock block) throws IOException {
+        if (block == null) {
+            throw new IllegalArgumentException("block = null");
+        }
+        if (block.isHeader()) {
+            return block.isHeaderParityOk();
+        }
+        ByteBuffer chunk = ByteBuffer.allocate(
+                Math.min(PARITY_CHUNK_SIZE, block.getLength()));
+        long position = block.getOffset() + 2;
+        long end = position + block.getLength();
+        byte parity = 0;
+        while (position < end) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), end - position));
+            readFully(chunk, position);
+            chunk.flip();
+            parity ^= TapParity.xor(chunk);
+            position += chunk.remaining();
+        }
+        return parity == 0;
+    }
+
+    /**
+     *
+     * @return  velikost souboru v bytech
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Načte z kanálu zbytek bufferu (od pozice do limitu).
+     *
+     * @param buffer
+     * @param position  pozice v souboru
+     * @throws IOException
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        channel.position(position);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("position " + channel.position());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}   // TapReader.java
@@ -0,0 +1,348 @@
+/*
+ * TapStream.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import cz.mp.zxs.tools.data2tap.metrics.EncoderMetrics;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Proudový převod: bloky se zapisují průběžně, jak je zdroj vytváří.
+ * <p>
+ * Tři fáze běží souběžně a jsou spojené frontami s omezenou kapacitou:
+ * <ol>
+ * <li>zdroj ({@linkplain TapBlockSource#next()}) ve vlastním vlákně,
+ * <li>kódování (kontrola bloku, hlavička, parita těla) ve vlastním vlákně,
+ * <li>zápis do kanálu ve vlákně volajícího {@linkplain #writeTo}.
+ * </ol>
+ * Když je fronta plná, předchozí fáze čeká (zpětný tlak); v paměti
+ * je tak najednou nejvýš {@code 2 * capacity + 3} bloků. Data těl se 
+ * nekopírují.
+ * <p>
+ * Výstupem je libovolný {@link WritableByteChannel}: soubor 
+ * ({@code FileChannel}), soket ({@code SocketChannel}) nebo proud, např. 
+ * položka ZIP archivu ({@code Channels.newChannel(zipOut)}).
+ * <p>
+ * Instance nemá stav převodu, lze ji sdílet mezi vlákny.
+ *
+ * @author Martin Pokorný
+ * @see TapBlockSource
+ * @see TapEncoder
+ */
+public final class TapStream {
+
+    private static final Logger log = LoggerFactory.getLogger(TapStream.class);
+
+    public static final int DEFAULT_CAPACITY = 8;
+
+    /** Konec streamu (ve frontách). */
+    private static final Object END = new Object();
+
+    private static final AtomicInteger streamCounter = new AtomicInteger();
+
+    private final ZxModel model;
+
+    /** Kapacita každé z front (v blocích). */
+    private final int capacity;
+
+    /**
+     *
+     * @param model
+     * @throws IllegalArgumentException
+     */
+    public TapStream(ZxModel model) {
+        this(model, DEFAULT_CAPACITY);
+    }
+
+    /**
+     *
+     * @param model
+     * @param capacity  max. počet bloků čekajících mezi fázemi
+     * @throws IllegalArgumentException
+     */
+    public TapStream(ZxModel model, int capacity) {
+        if (model == null) {
+            throw new IllegalArgumentException("model = null");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity < 1");
+        }
+        this.model = model;
+        this.capacity = capacity;
+    }
+
+    public ZxModel getModel() {
+        return model;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Převede všechny bloky zdroje a zapíše je do kanálu (od jeho aktuální
+     * pozice), v pořadí, v jakém je zdroj vrátil. Kanál se nezavírá.
+     * <p>
+     * Při chybě v kterékoli fázi (i {@link Error}) se převod ukončí a chyba
+     * se vyhodí zde; do kanálu už mohly být zapsány předchozí bloky.
+     *
+     * @param source
+     * @param channel
+     * @return  počet zapsaných bytů
+     * @throws IOException
+     * @throws InvalidDataException
+     * @throws InterruptedException
+     * @throws IllegalArgumentException
+     */
+    public long writeTo(TapBlockSource source, WritableByteChannel channel)
+            throws IOException, InvalidDataException, InterruptedException {
+        if (source == null) {
+            throw new IllegalArgumentException("source = null");
+        }
+        if (channel == null) {
+            throw new IllegalArgumentException("channel = null");
+        }
+        final BlockingQueue<Object> specs = new ArrayBlockingQueue<Object>(capacity);
+        final BlockingQueue<Object> encoded = new ArrayBlockingQueue<Object>(capacity);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2,
+                JobExecutors.newThreadFactory(
+                        "tap-stream-" + streamCounter.incrementAndGet()));
+        try {
+            executor.execute(new SourceStage(source, specs, failure));
+            executor.execute(new EncodeStage(specs, encoded, failure));
+            return write(encoded, channel, failure);
+        } finally {
+            // (přeruší fáze čekající na plnou frontu, pokud zápis skončil chybou)
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     *
+     * @param encoded
+     * @param channel
+     * @param failure
+     * @return
+     * @throws IOException
+     * @throws InvalidDataException
+     * @throws InterruptedException
+     */
+    private long write(BlockingQueue<Object> encoded,
+            WritableByteChannel channel, AtomicReference<Throwable> failure)
+            throws IOException, InvalidDataException, InterruptedException {
+        long start = System.nanoTime();
+        long total = 0;
+        int blocks = 0;
+        while (true) {
+            Object item = encoded.take();
+            if (item == END) {
+                break;
+            }
+            ByteBuffer[] buffers = (ByteBuffer[]) item;
+            total += writeBuffers(buffers, channel);
+            blocks++;
+        }
+        Throwable ex = failure.get();
+        if (ex != null) {
+            if (ex instanceof InvalidDataException) {
+                EncoderMetrics.get().recordValidationFailure();
+                throw (InvalidDataException) ex;
+            }
+            if (ex instanceof IOException) {
+                throw (IOException) ex;
+            }
+            if (ex instanceof InterruptedException) {
+                throw (InterruptedException) ex;
+            }
+            if (ex instanceof RuntimeException) {
+                throw (RuntimeException) ex;
+            }
+            if (ex instanceof Error) {
+                throw (Error) ex;
+            }
+            throw new IllegalStateException(ex);
+        }
+        EncoderMetrics.get().recordWrite(total, System.nanoTime() - start);
+        log.info("blocks = " + blocks + ", bytes = " + total);
+        return total;
+    }
+
+    /**
+     *
+     * @param buffers
+     * @param channel
+     * @return
+     * @throws IOException
+     */
+    private static long writeBuffers(ByteBuffer[] buffers,
+            WritableByteChannel channel) throws IOException {
+        long length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+        if (channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gatheringChannel = (GatheringByteChannel) channel;
+            long written = 0;
+            while (written < length) {
+                written += gatheringChannel.write(buffers);
+            }
+        }
+        else {
+            for (ByteBuffer buffer : buffers) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Ukončí fázi: zaznamená případnou chybu a vždy (i po {@link Error})
+     * předá další fázi {@code END}, jinak by zápis čekal navždy.
+     *
+     * @param out
+     * @param failure
+     * @param error  {@code null} = bez chyby
+     */
+    private static void finishStage(BlockingQueue<Object> out,
+            AtomicReference<Throwable> failure, Throwable error) {
+        if (error != null) {
+            if (! (error instanceof InterruptedException)) {
+                log.warn(String.valueOf(error));
+            }
+            failure.compareAndSet(null, error);
+        }
+        if (error instanceof InterruptedException) {
+            // (stream byl zrušen, zápis už z fronty nečte; nelze čekat)
+            out.offer(END);
+            return;
+        }
+        try {
+            out.put(END);
+        } catch (InterruptedException ex) {
+            // stream byl zrušen během čekání na místo ve frontě
+        }
+    }
+
+    // -----
+    /**
+     * Fáze 1: čte bloky ze zdroje.
+     */
+    private static final class SourceStage implements Runnable {
+        private final TapBlockSource source;
+        private final BlockingQueue<Object> out;
+        private final AtomicReference<Throwable> failure;
+
+        SourceStage(TapBlockSource source, BlockingQueue<Object> out,
+                AtomicReference<Throwable> failure) {
+            this.source = source;
+            this.out = out;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            Throwable error = null;
+            try {
+                TapBlockSpec block;
+                while ((block = source.next()) != null) {
+                    out.put(block);
+                }
+            } catch (Throwable ex) {
+                error = ex;
+            } finally {
+                finishStage(out, failure, error);
+            }
+        }
+    }   // SourceStage
+
+    /**
+     * Fáze 2: zkontroluje blok a připraví buffery pro zápis
+     * (hlavička, délka + flag, data, parita).
+     */
+    private final class EncodeStage implements Runnable {
+        private final BlockingQueue<Object> in;
+        private final BlockingQueue<Object> out;
+        private final AtomicReference<Throwable> failure;
+
+        EncodeStage(BlockingQueue<Object> in, BlockingQueue<Object> out,
+                AtomicReference<Throwable> failure) {
+            this.in = in;
+            this.out = out;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            Throwable error = null;
+            try {
+                long dataBytes = 0;
+                int blocks = 0;
+                long start = System.nanoTime();
+                Object item;
+                while ((item = in.take()) != END) {
+                    TapBlockSpec block = (TapBlockSpec) item;
+                    out.put(encode(block));
+                    dataBytes += block.getDataLength();
+                    blocks++;
+                }
+                if (blocks > 0) {
+                    EncoderMetrics.get().recordBuild(blocks * 2, dataBytes,
+                            System.nanoTime() - start);
+                }
+            } catch (Throwable ex) {
+                error = ex;
+            } finally {
+                finishStage(out, failure, error);
+            }
+        }
+
+        /**
+         *
+         * @param block
+         * @return
+         * @throws InvalidDataException
+         */
+        private ByteBuffer[] encode(TapBlockSpec block)
+                throws InvalidDataException {
+            ByteBuffer header = ByteBuffer.allocate(TapHeader.SIZE);
+            TapEncoder.encodeHeader(model, block, header);
+            header.flip();
+
+            ByteBuffer data = block.getData();
+            byte[] prefix;
+            try {
+                prefix = TapEncoder.encodeBodyPrefix(TapBody.FLAG_DATA, 
+                        data.remaining(), new byte[3]);
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidDataException(ex.getMessage());
+            }
+            return new ByteBuffer[] {
+                header,
+                ByteBuffer.wrap(prefix),
+                data,
+                ByteBuffer.wrap(new byte[] { TapEncoder.encodeBodyParity(data) })
+            };
+        }
+    }   // EncodeStage
+
+}   // TapStream.java
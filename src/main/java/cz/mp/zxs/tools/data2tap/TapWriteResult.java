@@ -0,0 +1,75 @@
+/*
+ * TapWriteResult.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.File;
+
+
+/**
+ * Výsledek asynchronního zápisu TAP souboru.
+ *
+ * @author Martin Pokorný
+ * @see TapEncoder#encodeAsync(TapJob, java.util.concurrent.ExecutorService)
+ */
+public final class TapWriteResult {
+
+    private final File outTapFile;
+    private final int blocks;
+    private final long dataBytes;
+    private final long tapBytes;
+
+    /**
+     *
+     * @param outTapFile
+     * @param blocks
+     * @param dataBytes
+     * @param tapBytes
+     */
+    TapWriteResult(File outTapFile, int blocks, long dataBytes, 
+            long tapBytes) {
+        this.outTapFile = outTapFile;
+        this.blocks = blocks;
+        this.dataBytes = dataBytes;
+        this.tapBytes = tapBytes;
+    }
+
+    public File getOutTapFile() {
+        return outTapFile;
+    }
+
+    /**
+     *
+     * @return  počet zapsaných bloků (dvojic hlavička + tělo)
+     */
+    public int getBlocks() {
+        return blocks;
+    }
+
+    /**
+     *
+     * @return  součet délek dat všech těl
+     */
+    public long getDataBytes() {
+        return dataBytes;
+    }
+
+    /**
+     *
+     * @return  velikost zapsaného TAP souboru
+     */
+    public long getTapBytes() {
+        return tapBytes;
+    }
+
+    @Override
+    public String toString() {
+        return outTapFile.getPath() + " (blocks = " + blocks 
+                + ", data = " + dataBytes + " B, tap = " + tapBytes + " B)";
+    }
+
+}   // TapWriteResult.java
@@ -0,0 +1,481 @@
+/*
+ * TapWriter.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import cz.mp.zxs.tools.data2tap.metrics.PhaseEvents;
+import cz.mp.zxs.tools.data2tap.metrics.PhaseEvents.Phase;
+import cz.mp.zxs.tools.data2tap.report.BlockRecord;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+
+/**
+ * Zapisuje bloky TAP souboru přímo do výstupu, bez sestavení celého těla
+ * bloku v paměti (jako to dělá {@linkplain TapBody}).
+ * <p>
+ * Data těla se zapisují přímo z pole volajícího; navíc se alokuje jen
+ * pár bytů pro délku, flag a paritu.
+ * <p>
+ * Pokud je výstupem {@link GatheringByteChannel} (např. {@code FileChannel}),
+ * {@linkplain #writeBlocks(java.nio.ByteBuffer, java.util.List)} zapíše 
+ * všechny hlavičky a těla jedním voláním {@code write(ByteBuffer[])}.
+ *
+ * @author Martin Pokorný
+ * @see TapHeader
+ * @see TapBody
+ */
+public class TapWriter implements Closeable {
+
+    /** Výstup; buď {@code out}, nebo {@code channel}. */
+    private final OutputStream out;
+    private final WritableByteChannel channel;
+
+    /** délka bloku (2B) + flag */
+    private final byte[] blockPrefix = new byte[3];
+    private final byte[] parityBuf = new byte[1];
+
+    private long bytesWritten = 0;
+
+    /** jen pro události JFR */
+    private String traceModel;
+    private File traceOutputPath;
+
+    /** jen pro report; {@code null} = nevyplňuje se */
+    private List<BlockRecord> blockRecords;
+
+    /**
+     *
+     * @param out
+     * @throws IllegalArgumentException
+     */
+    public TapWriter(OutputStream out) {
+        if (out == null) {
+            throw new IllegalArgumentException("out = null");
+        }
+        this.out = out;
+        this.channel = null;
+    }
+
+    /**
+     *
+     * @param channel
+     * @throws IllegalArgumentException
+     */
+    public TapWriter(WritableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel = null");
+        }
+        this.out = null;
+        this.channel = channel;
+    }
+
+    /**
+     * Údaje, které se připojí k událostem JFR 
+     * ({@linkplain PhaseEvents}) z {@linkplain #writeBlocks}.
+     *
+     * @param model  jméno modelu nebo {@code null}
+     * @param outputPath  výstupní soubor nebo {@code null}
+     */
+    public void setTraceContext(String model, File outputPath) {
+        this.traceModel = model;
+        this.traceOutputPath = outputPath;
+    }
+
+    /**
+     * Záznamy, do kterých {@linkplain #writeBlocks} doplní parity těl 
+     * a doby fází (stejný počet a pořadí jako zapisované bloky).
+     *
+     * @param blockRecords  {@code null} = nevyplňovat
+     */
+    public void setBlockRecords(List<BlockRecord> blockRecords) {
+        this.blockRecords = blockRecords;
+    }
+
+    /**
+     * Zapíše hlavičku.
+     * Před zavoláním této metody je třeba zavolat
+     * {@linkplain TapHeader#createData()}.
+     *
+     * @param header
+     * @throws IOException
+     * @throws IllegalStateException
+     */
+    public void writeHeader(TapHeader header) throws IOException {
+        if (header == null) {
+            throw new IllegalArgumentException("header = null");
+        }
+        byte[] headerData = header.getBytes();
+        writeBytes(headerData, 0, headerData.length);
+    }
+
+    /**
+     * Zapíše blok dat s flagem {@linkplain TapBody#FLAG_DATA}
+     * (délka, flag, data, parita).
+     *
+     * @param data
+     * @throws IOException
+     * @see #writeBlock(byte, byte[], int, int)
+     */
+    public void writeBody(byte[] data) throws IOException {
+        if (data == null) {
+            throw new IllegalArgumentException("data = null");
+        }
+        writeBlock(TapBody.FLAG_DATA, data, 0, data.length);
+    }
+
+    /**
+     * Zapíše blok dat s flagem {@linkplain TapBody#FLAG_DATA}
+     * (délka, flag, data, parita).
+     *
+     * @param data  data od pozice do limitu; pozice bufferu se nemění
+     * @throws IOException
+     * @see #writeBlock(byte, java.nio.ByteBuffer)
+     */
+    public void writeBody(ByteBuffer data) throws IOException {
+        writeBlock(TapBody.FLAG_DATA, data);
+    }
+
+    /**
+     * Zapíše blok (délka, flag, data, parita).
+     * Parita se počítá průběžně z flagu a dat.
+     *
+     * @param flag
+     * @param data
+     * @param offset
+     * @param length  délka samotných dat.
+     *      Nezapočítává se flag, parita, délka bloku.
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public void writeBlock(byte flag, byte[] data, int offset, int length)
+            throws IOException {
+        if (data == null) {
+            throw new IllegalArgumentException("data = null");
+        }
+        if (offset < 0 || length < 1 || offset + length > data.length) {
+            throw new IllegalArgumentException("offset, length");
+        }
+        writeBlockPrefix(flag, length);
+
+        writeBytes(data, offset, length);
+
+        parityBuf[0] = computeParity(flag, data, offset, length);
+        writeBytes(parityBuf, 0, 1);
+    }
+
+    /**
+     * Zapíše blok (délka, flag, data, parita).
+     * Data se nekopírují do pomocného pole (pokud to výstup umožňuje).
+     *
+     * @param flag
+     * @param data  data od pozice do limitu; pozice bufferu se nemění
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public void writeBlock(byte flag, ByteBuffer data) throws IOException {
+        if (data == null) {
+            throw new IllegalArgumentException("data = null");
+        }
+        if (data.hasArray()) {
+            writeBlock(flag, data.array(), data.arrayOffset() + data.position(), 
+                    data.remaining());
+            return;
+        }
+        writeBlockPrefix(flag, data.remaining());
+        
+        writeBuffer(data.duplicate());
+
+        parityBuf[0] = computeParity(flag, data);
+        writeBytes(parityBuf, 0, 1);
+    }
+
+    /**
+     * 
+     * @param flag
+     * @param length
+     * @throws IOException 
+     */
+    private void writeBlockPrefix(byte flag, int length) throws IOException {
+        TapEncoder.encodeBodyPrefix(flag, length, blockPrefix);
+        writeBytes(blockPrefix, 0, blockPrefix.length);
+    }
+
+    /**
+     * Zapíše dvojice hlavička + tělo (s flagem {@linkplain TapBody#FLAG_DATA}).
+     *
+     * @param headers  hlavičky, na každé bylo zavoláno 
+     *      {@linkplain TapHeader#createData()}
+     * @param bodies  data těl (od pozice do limitu; pozice se nemění); 
+     *      stejný počet jako {@code headers}
+     * @throws IOException
+     * @throws IllegalArgumentException
+     * @see #writeBlocks(java.nio.ByteBuffer, java.util.List) 
+     */
+    public void writeBlocks(List<TapHeader> headers, List<ByteBuffer> bodies)
+            throws IOException {
+        if (headers == null || bodies == null 
+                || headers.size() != bodies.size()) {
+            throw new IllegalArgumentException("headers, bodies");
+        }
+        ByteBuffer headerBuffer = ByteBuffer.allocate(
+                headers.size() * TapHeader.SIZE);
+        for (TapHeader header : headers) {
+            if (header == null || header.getSize() != TapHeader.SIZE) {
+                throw new IllegalArgumentException("header");
+            }
+            headerBuffer.put(header.getBytes());
+        }
+        headerBuffer.flip();
+        writeBlocks(headerBuffer, bodies);
+    }
+
+    /**
+     * Zapíše dvojice hlavička + tělo (s flagem {@linkplain TapBody#FLAG_DATA}).
+     * <p>
+     * Do {@link GatheringByteChannel} se vše zapíše jedním voláním 
+     * {@code write(ByteBuffer[])}; hlavičky i data těl se přitom do bufferů 
+     * jen obalí, nekopírují se. Do jiného výstupu se zapisuje postupně.
+     *
+     * @param headers  hlavičky tak jak jsou v TAP souboru, za sebou po 
+     *      {@linkplain TapHeader#SIZE} bytech, od pozice do limitu 
+     *      (pozice se nemění); viz 
+     *      {@linkplain TapHeader#encode(TapBlockType, String, int, int, ByteBuffer)}
+     * @param bodies  data těl (od pozice do limitu; pozice se nemění); 
+     *      stejný počet jako hlaviček
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public void writeBlocks(ByteBuffer headers, List<ByteBuffer> bodies)
+            throws IOException {
+        if (headers == null || bodies == null 
+                || headers.remaining() != bodies.size() * TapHeader.SIZE) {
+            throw new IllegalArgumentException("headers, bodies");
+        }
+        int count = bodies.size();
+        if (! (channel instanceof GatheringByteChannel)) {
+            // [header, len+flag, data, parity]
+            ByteBuffer[] block = new ByteBuffer[4];
+            Object writeEvent = PhaseEvents.begin();
+            long start = bytesWritten;
+            for (int i = 0; i < count; i++) {
+                block[0] = getHeader(headers, i);
+                frameBody(i, bodies.get(i), block, 1);
+                long writeStart = System.nanoTime();
+                for (ByteBuffer buffer : block) {
+                    writeBuffer(buffer);
+                }
+                if (blockRecords != null) {
+                    blockRecords.get(i).setWriteNanos(System.nanoTime() - writeStart);
+                }
+            }
+            PhaseEvents.end(writeEvent, Phase.WRITE, bytesWritten - start, 
+                    traceModel, traceOutputPath);
+            return;
+        }
+
+        // [header, len+flag, data, parity] pro každý blok
+        ByteBuffer[] buffers = new ByteBuffer[count * 4];
+        long total = 0;
+        int b = 0;
+        for (int i = 0; i < count; i++) {
+            buffers[b++] = getHeader(headers, i);
+            b = frameBody(i, bodies.get(i), buffers, b);
+            total += TapHeader.SIZE + bodies.get(i).remaining() + 4;
+        }
+
+        Object writeEvent = PhaseEvents.begin();
+        long writeStart = System.nanoTime();
+        GatheringByteChannel gatheringChannel = (GatheringByteChannel) channel;
+        long written = 0;
+        while (written < total) {
+            written += gatheringChannel.write(buffers);
+        }
+        if (blockRecords != null) {
+            // (vše se zapsalo najednou, doba se rozdělí podle velikosti bloků)
+            long writeNanos = System.nanoTime() - writeStart;
+            for (int i = 0; i < count; i++) {
+                long blockSize = TapHeader.SIZE + bodies.get(i).remaining() + 4;
+                blockRecords.get(i).setWriteNanos(writeNanos * blockSize / total);
+            }
+        }
+        PhaseEvents.end(writeEvent, Phase.WRITE, total, 
+                traceModel, traceOutputPath);
+        bytesWritten += total;
+    }
+
+    /**
+     * Obalí tělo bloku do bufferů {@code [délka+flag, data, parita]}
+     * (data se nekopírují). Doby sestavení a výpočtu parity a paritu
+     * těla zapíše do záznamu bloku, pokud se záznamy vedou.
+     *
+     * @param index  index bloku
+     * @param data  data těla (od pozice do limitu; pozice se nemění)
+     * @param dst
+     * @param offset  index v {@code dst}, kam se zapíše první buffer
+     * @return  index v {@code dst} za posledním zapsaným bufferem
+     * @throws IllegalArgumentException
+     */
+    private int frameBody(int index, ByteBuffer data, ByteBuffer[] dst, 
+            int offset) {
+        if (data == null || ! data.hasRemaining()) {
+            throw new IllegalArgumentException("data is blank");
+        }
+        int b = offset;
+        Object bodyEvent = PhaseEvents.begin();
+        long bodyStart = System.nanoTime();
+        dst[b++] = ByteBuffer.wrap(TapEncoder.encodeBodyPrefix(
+                TapBody.FLAG_DATA, data.remaining(), new byte[3]));
+        dst[b++] = data.duplicate();
+        long bodyNanos = System.nanoTime() - bodyStart;
+        PhaseEvents.end(bodyEvent, Phase.BODY, data.remaining(), 
+                traceModel, traceOutputPath);
+
+        Object parityEvent = PhaseEvents.begin();
+        long parityStart = System.nanoTime();
+        byte parity = TapEncoder.encodeBodyParity(data);
+        dst[b++] = ByteBuffer.wrap(new byte[] { parity });
+        long parityNanos = System.nanoTime() - parityStart;
+        PhaseEvents.end(parityEvent, Phase.PARITY, data.remaining(), 
+                traceModel, traceOutputPath);
+        if (blockRecords != null) {
+            BlockRecord record = blockRecords.get(index);
+            record.setBodyNanos(bodyNanos);
+            record.setParityNanos(parityNanos);
+            record.setBodyParity(parity & 0xFF);
+        }
+        return b;
+    }
+
+    /**
+     * 
+     * @param headers
+     * @param index
+     * @return  pohled na hlavičku s indexem {@code index}
+     */
+    private static ByteBuffer getHeader(ByteBuffer headers, int index) {
+        ByteBuffer header = headers.duplicate();
+        int from = headers.position() + index * TapHeader.SIZE;
+        header.limit(from + TapHeader.SIZE);
+        header.position(from);
+        return header;
+    }
+
+    /**
+     * 
+     * @param flag
+     * @param data
+     * @param offset
+     * @param length
+     * @return  parita = XOR flagu a všech bytů dat
+     */
+    private static byte computeParity(byte flag, byte[] data, 
+            int offset, int length) {
+        return (byte) (flag ^ TapParity.xor(data, offset, length));
+    }
+
+    /**
+     * 
+     * @param flag
+     * @param data  data od pozice do limitu; pozice se nemění
+     * @return  parita = XOR flagu a všech bytů dat
+     */
+    private static byte computeParity(byte flag, ByteBuffer data) {
+        return (byte) (flag ^ TapParity.xor(data));
+    }
+
+    /**
+     *
+     * @param b
+     * @param offset
+     * @param length
+     * @throws IOException
+     */
+    private void writeBytes(byte[] b, int offset, int length)
+            throws IOException {
+        if (out != null) {
+            out.write(b, offset, length);
+        }
+        else {
+            ByteBuffer buffer = ByteBuffer.wrap(b, offset, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        bytesWritten += length;
+    }
+
+    /**
+     *
+     * @param buffer  zapíše se od pozice do limitu; pozice se posune
+     * @throws IOException
+     */
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        if (out != null) {
+            if (buffer.hasArray()) {
+                out.write(buffer.array(), 
+                        buffer.arrayOffset() + buffer.position(), length);
+                buffer.position(buffer.limit());
+            }
+            else {
+                byte[] chunk = new byte[Math.min(length, 8192)];
+                while (buffer.hasRemaining()) {
+                    int n = Math.min(buffer.remaining(), chunk.length);
+                    buffer.get(chunk, 0, n);
+                    out.write(chunk, 0, n);
+                }
+            }
+        }
+        else {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        bytesWritten += length;
+    }
+
+    /**
+     *
+     * @return  počet dosud zapsaných bytů
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Zavře i výstup, do kterého se zapisuje.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+        else {
+            channel.close();
+        }
+    }
+
+}   // TapWriter.java
@@ -17,7 +17,7 @@ import java.util.List;
  */
 public abstract class ZxModel {
 
-    private String name;
+    private final String name;
     
     /**
      * 
@@ -46,7 +46,29 @@ public abstract class ZxModel {
     public String getName() {
         return name;
     }
-    
+
+    /**
+     * Získá model podle krátkého klíče, jak se zadává např. v dávkovém
+     * souboru: {@code 16k}, {@code 48k}. Nerozlišuje velikost písmen.
+     *
+     * @param key
+     * @return  model nebo {@code null}, pokud klíč neodpovídá žádnému modelu
+     * @throws IllegalArgumentException
+     */
+    public static ZxModel getByKey(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key = null");
+        }
+        String k = key.trim();
+        if (k.equalsIgnoreCase("16k")) {
+            return ZxModelSpectrum16k.get();
+        }
+        if (k.equalsIgnoreCase("48k")) {
+            return ZxModelSpectrum48k.get();
+        }
+        return null;
+    }
+
     @Override
     public String toString() {
         return name;
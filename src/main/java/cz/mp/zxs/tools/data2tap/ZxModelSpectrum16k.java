@@ -18,11 +18,13 @@ import java.util.List;
  */
 public class ZxModelSpectrum16k extends ZxModel {
     
-    private static ZxModelSpectrum16k instance;
+    /** (vytvoří se při inicializaci třídy, je tedy bezpečně publikovaná 
+     *  pro všechna vlákna) */
+    private static final ZxModelSpectrum16k INSTANCE = new ZxModelSpectrum16k();
     
     private static final int RAM_SIZE = 16384;   // 16k
     
-    private List<MemoryAddress> suggestions;
+    private final List<MemoryAddress> suggestions;
             
     /** */
     private ZxModelSpectrum16k() {
@@ -38,10 +40,7 @@ public class ZxModelSpectrum16k extends ZxModel {
     }
     
     public static ZxModelSpectrum16k get() {
-        if (instance == null) {
-            instance = new ZxModelSpectrum16k();
-        }
-        return instance;
+        return INSTANCE;
     }
 
     @Override
@@ -18,11 +18,13 @@ import java.util.List;
  */
 public class ZxModelSpectrum48k extends ZxModel {
 
-    private static ZxModelSpectrum48k instance;
+    /** (vytvoří se při inicializaci třídy, je tedy bezpečně publikovaná 
+     *  pro všechna vlákna) */
+    private static final ZxModelSpectrum48k INSTANCE = new ZxModelSpectrum48k();
     
     private static final int RAM_SIZE = 49152;   // 48k
 
-    private List<MemoryAddress> suggestions;
+    private final List<MemoryAddress> suggestions;
             
     /** */
     private ZxModelSpectrum48k() {
@@ -38,10 +40,7 @@ public class ZxModelSpectrum48k extends ZxModel {
     }
     
     public static ZxModelSpectrum48k get() {
-        if (instance == null) {
-            instance = new ZxModelSpectrum48k();
-        }
-        return instance;
+        return INSTANCE;
     }
 
     @Override
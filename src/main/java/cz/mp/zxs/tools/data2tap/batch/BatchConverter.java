@@ -0,0 +1,309 @@
+/*
+ * BatchConverter.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.batch;
+
+import cz.mp.utils.FileUtils;
+import cz.mp.zxs.tools.data2tap.InputData;
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import cz.mp.zxs.tools.data2tap.JobExecutors;
+import cz.mp.zxs.tools.data2tap.TapBlockSpec;
+import cz.mp.zxs.tools.data2tap.TapBlockType;
+import cz.mp.zxs.tools.data2tap.TapEncoder;
+import cz.mp.zxs.tools.data2tap.TapJob;
+import cz.mp.zxs.tools.data2tap.cache.TapCache;
+import cz.mp.zxs.tools.data2tap.metrics.PhaseEvents;
+import cz.mp.zxs.tools.data2tap.metrics.PhaseEvents.Phase;
+import cz.mp.zxs.tools.data2tap.report.BlockRecord;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Dávkový převod: spustí všechny úlohy paralelně, v executoru z 
+ * {@linkplain JobExecutors} ({@code ForkJoinPool}; na Java 21+ 
+ * z multi-release JAR jedno virtuální vlákno na úlohu).
+ * <p>
+ * Chyba jedné úlohy neukončí ostatní; je zaznamenána do jejího
+ * {@linkplain BatchResult}. Všechna vlákna sdílí jeden
+ * {@linkplain TapEncoder}.
+ *
+ * @author Martin Pokorný
+ * @see BatchManifest
+ * @see TapEncoder
+ */
+public class BatchConverter {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchConverter.class);
+
+    private final int parallelism;
+    
+    private int maxConcurrentIo = JobExecutors.DEFAULT_MAX_CONCURRENT_IO;
+    
+    private TapCache cache;
+    
+    private boolean reportEnabled = false;
+
+    /**
+     * Počet vláken odpovídá počtu procesorů.
+     */
+    public BatchConverter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     *
+     * @param parallelism  počet platformových vláken (s virtuálními 
+     *      vlákny se nepoužije, viz 
+     *      {@linkplain JobExecutors#newJobExecutor(int, int)})
+     * @throws IllegalArgumentException
+     */
+    public BatchConverter(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Nastaví max. počet současně převáděných úloh (otevřených souborů),
+     * nezávisle na počtu procesorů. Uplatní se hlavně s virtuálními 
+     * vlákny, kde úloha čekající na I/O nedrží vlákno procesoru.
+     * 
+     * @param maxConcurrentIo  výchozí je 
+     *      {@linkplain JobExecutors#DEFAULT_MAX_CONCURRENT_IO}
+     * @throws IllegalArgumentException
+     */
+    public void setMaxConcurrentIo(int maxConcurrentIo) {
+        if (maxConcurrentIo < 1) {
+            throw new IllegalArgumentException("maxConcurrentIo < 1");
+        }
+        this.maxConcurrentIo = maxConcurrentIo;
+    }
+
+    /**
+     * 
+     * @param cache  {@code null} = bez cache
+     */
+    public void setCache(TapCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * 
+     * @param reportEnabled  {@code true} = výsledky obsahují záznam pro report
+     * @see BatchResult#getRecord() 
+     */
+    public void setReportEnabled(boolean reportEnabled) {
+        this.reportEnabled = reportEnabled;
+    }
+
+    /**
+     * Provede všechny úlohy a počká na jejich dokončení.
+     * <p>
+     * Všechny výsledky se drží v paměti; pro velké dávky viz
+     * {@linkplain #execute(java.util.List, ResultHandler)}.
+     *
+     * @param jobs
+     * @return  výsledky ve stejném pořadí jako {@code jobs}
+     * @throws IllegalArgumentException
+     */
+    public List<BatchResult> execute(List<BatchJob> jobs) {
+        if (jobs == null) {
+            throw new IllegalArgumentException("jobs = null");
+        }
+        final BatchResult[] results = new BatchResult[jobs.size()];
+        executeImpl(jobs, new IndexedHandler() {
+            @Override
+            public void completed(int index, BatchResult result) {
+                results[index] = result;
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Provede všechny úlohy a každý výsledek předá do {@code handler}
+     * hned po dokončení úlohy (v pořadí dokončení). Výsledky se nikde
+     * nehromadí, po zpracování v {@code handler} je lze zahodit.
+     * <p>
+     * {@code handler} se volá jen z vlákna volajícího této metody.
+     *
+     * @param jobs
+     * @param handler
+     * @throws IllegalArgumentException
+     */
+    public void execute(List<BatchJob> jobs, final ResultHandler handler) {
+        if (jobs == null) {
+            throw new IllegalArgumentException("jobs = null");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("handler = null");
+        }
+        executeImpl(jobs, new IndexedHandler() {
+            @Override
+            public void completed(int index, BatchResult result) {
+                handler.completed(result);
+            }
+        });
+    }
+
+    /**
+     *
+     * @param jobs
+     * @param handler
+     */
+    private void executeImpl(List<BatchJob> jobs, IndexedHandler handler) {
+        log.info("jobs = " + jobs.size() + ", parallelism = " + parallelism
+                + ", maxConcurrentIo = " + maxConcurrentIo
+                + (JobExecutors.isVirtual() ? " (virtual threads)" : ""));
+
+        final TapEncoder encoder = new TapEncoder(cache, reportEnabled);
+        ExecutorService pool = JobExecutors.newJobExecutor(parallelism, 
+                maxConcurrentIo);
+        CompletionService<BatchResult> completionService =
+                new ExecutorCompletionService<BatchResult>(pool);
+        Map<Future<BatchResult>, Integer> pending =
+                new HashMap<Future<BatchResult>, Integer>();
+        try {
+            for (int i = 0; i < jobs.size(); i++) {
+                final BatchJob job = jobs.get(i);
+                pending.put(completionService.submit(new Callable<BatchResult>() {
+                    @Override
+                    public BatchResult call() {
+                        return convert(job, encoder);
+                    }
+                }), i);
+            }
+            while (! pending.isEmpty()) {
+                Future<BatchResult> future;
+                try {
+                    future = completionService.take();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    pool.shutdownNow();
+                    for (int index : pending.values()) {
+                        handler.completed(index, 
+                                BatchResult.failure(jobs.get(index), ex));
+                    }
+                    return;
+                }
+                int index = pending.remove(future);
+                BatchResult result;
+                try {
+                    result = future.get();
+                } catch (ExecutionException ex) {     // (convert() chyby zachytává)
+                    result = BatchResult.failure(jobs.get(index),
+                            new IllegalStateException(ex.getCause()));
+                } catch (InterruptedException ex) {   // (nenastane, je hotovo)
+                    Thread.currentThread().interrupt();
+                    result = BatchResult.failure(jobs.get(index), ex);
+                }
+                handler.completed(index, result);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Převede jednu úlohu. Nikdy nevyhazuje výjimku, chyba se vrací
+     * ve výsledku.
+     *
+     * @param job
+     * @param encoder  (sdílený)
+     * @return
+     */
+    static BatchResult convert(BatchJob job, TapEncoder encoder) {
+        try {
+            File inFile = job.getInputFile();
+            if (!inFile.exists() || inFile.isDirectory()) {
+                throw new InvalidDataException("Input file " + inFile
+                        + " doesn't exist");
+            }
+            Object readEvent = PhaseEvents.begin();
+            long readStart = System.nanoTime();
+            ByteBuffer inputFileContent = InputData.load(inFile);
+            long readNanos = System.nanoTime() - readStart;
+            PhaseEvents.end(readEvent, Phase.READ, inputFileContent.remaining(),
+                    job.getModel().getName(), job.getOutTapFile());
+            if (! inputFileContent.hasRemaining()) {
+                throw new InvalidDataException("Input file " + inFile
+                        + " is empty");
+            }
+
+            File outTapFile = job.getOutTapFile();
+            // (vstup může být namapován do paměti, nesmí se přepsat)
+            if (inFile.getCanonicalFile().equals(outTapFile.getCanonicalFile())) {
+                throw new InvalidDataException("Input and output is the same file: "
+                        + outTapFile);
+            }
+            if (! FileUtils.getFileExtension(outTapFile).equalsIgnoreCase("tap")
+                    && outTapFile.exists() && outTapFile.isFile()) {
+                throw new InvalidDataException("Overwriting files with"
+                        + " extension different from \"tap\" is forbidden: "
+                        + outTapFile);
+            }
+
+            List<BlockRecord> records = encoder.encode(new TapJob(
+                    job.getModel(), 
+                    new TapBlockSpec(TapBlockType.BINARY_DATA, job.getName(),
+                            job.getAddress(), inputFileContent),
+                    outTapFile));
+
+            BlockRecord record = null;
+            if (encoder.isReportEnabled()) {
+                record = records.get(0);
+                record.setLineNumber(job.getLineNumber());
+                record.setInputFile(inFile);
+                record.setReadNanos(readNanos);
+            }
+            return BatchResult.success(job, inputFileContent.remaining(),
+                    outTapFile.length(), record);
+        } catch (InvalidDataException | IOException
+                | IllegalArgumentException ex) {
+            log.warn(job + ": " + ex.getMessage());
+            return BatchResult.failure(job, ex);
+        } catch (Exception ex) {
+            log.error(job + ": " + ex.getMessage(), ex);
+            return BatchResult.failure(job, ex);
+        }
+    }
+
+    // -----
+    /**
+     * Příjemce výsledků úloh.
+     *
+     * @see BatchConverter#execute(java.util.List, ResultHandler)
+     */
+    public interface ResultHandler {
+        /**
+         *
+         * @param result  výsledek jedné úlohy (úspěch i chyba)
+         */
+        void completed(BatchResult result);
+    }   // ResultHandler
+
+    /** */
+    private interface IndexedHandler {
+        void completed(int index, BatchResult result);
+    }   // IndexedHandler
+
+}   // BatchConverter.java
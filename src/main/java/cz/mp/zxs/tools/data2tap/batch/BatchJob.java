@@ -0,0 +1,93 @@
+/*
+ * BatchJob.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.batch;
+
+import cz.mp.zxs.tools.data2tap.ZxModel;
+import java.io.File;
+
+
+/**
+ * Jedna úloha dávkového převodu = jeden řádek v dávkovém souboru.
+ *
+ * @author Martin Pokorný
+ * @see BatchManifest
+ * @see BatchConverter
+ */
+public class BatchJob {
+
+    /** Číslo řádku v dávkovém souboru (od 1). Jen pro hlášení chyb. */
+    private final int lineNumber;
+    private final File inputFile;
+    private final int address;
+    private final String name;
+    private final ZxModel model;
+    private final File outTapFile;
+
+    /**
+     *
+     * @param lineNumber
+     * @param inputFile
+     * @param address
+     * @param name
+     * @param model
+     * @param outTapFile
+     * @throws IllegalArgumentException
+     */
+    public BatchJob(int lineNumber, File inputFile, int address, String name,
+            ZxModel model, File outTapFile) {
+        if (inputFile == null) {
+            throw new IllegalArgumentException("inputFile = null");
+        }
+        if (name == null) {
+            throw new IllegalArgumentException("name = null");
+        }
+        if (model == null) {
+            throw new IllegalArgumentException("model = null");
+        }
+        if (outTapFile == null) {
+            throw new IllegalArgumentException("outTapFile = null");
+        }
+        this.lineNumber = lineNumber;
+        this.inputFile = inputFile;
+        this.address = address;
+        this.name = name;
+        this.model = model;
+        this.outTapFile = outTapFile;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public File getInputFile() {
+        return inputFile;
+    }
+
+    public int getAddress() {
+        return address;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ZxModel getModel() {
+        return model;
+    }
+
+    public File getOutTapFile() {
+        return outTapFile;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + lineNumber + " " + inputFile.getPath()
+                + " -> " + outTapFile.getPath();
+    }
+
+}   // BatchJob.java
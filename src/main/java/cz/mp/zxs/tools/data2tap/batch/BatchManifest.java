@@ -0,0 +1,170 @@
+/*
+ * BatchManifest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.batch;
+
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import cz.mp.zxs.tools.data2tap.MemoryAddress;
+import cz.mp.zxs.tools.data2tap.TapHeader;
+import cz.mp.zxs.tools.data2tap.ZxModel;
+import cz.mp.zxs.tools.data2tap.ZxModelSpectrum48k;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Načítá dávkový soubor (manifest) pro dávkový převod.
+ * <p>
+ * Každý řádek popisuje jednu úlohu, položky se oddělují středníkem:
+ * <tt><pre>
+ * # vstupní_soubor ; adresa ; jméno ; model ; výstupní_TAP
+ * loader.scr ; 0x4000 ; screen ; 48k ; loader.tap
+ * code.bin   ; 32768  ; code   ;     ; code.tap
+ * </pre></tt>
+ * Prázdné řádky a řádky začínající {@code #} se přeskakují.
+ * Prázdný model znamená {@linkplain ZxModelSpectrum48k}.
+ * Relativní cesty se berou vzhledem k adresáři dávkového souboru.
+ *
+ * @author Martin Pokorný
+ * @see BatchJob
+ */
+public class BatchManifest {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchManifest.class);
+
+    public static final String COMMENT_PREFIX = "#";
+    public static final String SEPARATOR = ";";
+    public static final int FIELD_COUNT = 5;
+
+    /** */
+    private BatchManifest() {
+    }
+
+    /**
+     * Načte a zvaliduje všechny řádky dávkového souboru.
+     *
+     * @param manifestFile
+     * @return  seznam úloh v pořadí, v jakém jsou v souboru
+     * @throws IOException
+     * @throws InvalidDataException  pokud je některý řádek chybný
+     * @throws IllegalArgumentException
+     */
+    public static List<BatchJob> parse(File manifestFile)
+            throws IOException, InvalidDataException {
+        if (manifestFile == null) {
+            throw new IllegalArgumentException("manifestFile = null");
+        }
+        log.info("manifestFile = " + manifestFile);
+        File baseDir = manifestFile.getAbsoluteFile().getParentFile();
+
+        List<BatchJob> jobs = new ArrayList<BatchJob>();
+        try (
+            BufferedReader reader = Files.newBufferedReader(
+                    manifestFile.toPath(), StandardCharsets.UTF_8);
+            ) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                BatchJob job = parseLine(line, lineNumber, baseDir);
+                if (job != null) {
+                    jobs.add(job);
+                }
+            }
+        }
+        log.info("jobs = " + jobs.size());
+        return Collections.unmodifiableList(jobs);
+    }
+
+    /**
+     *
+     * @param line
+     * @param lineNumber
+     * @param baseDir  adresář pro relativní cesty
+     * @return  úloha nebo {@code null} pro prázdný řádek a komentář
+     * @throws InvalidDataException
+     */
+    static BatchJob parseLine(String line, int lineNumber, File baseDir)
+            throws InvalidDataException {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith(COMMENT_PREFIX)) {
+            return null;
+        }
+        String[] fields = trimmed.split(SEPARATOR, -1);
+        if (fields.length != FIELD_COUNT) {
+            throw new InvalidDataException("line " + lineNumber
+                    + ": expected " + FIELD_COUNT + " fields, found "
+                    + fields.length);
+        }
+
+        String input = fields[0].trim();
+        if (input.isEmpty()) {
+            throw new InvalidDataException("line " + lineNumber
+                    + ": missing input file");
+        }
+
+        int address;
+        try {
+            address = MemoryAddress.addressToInt(fields[1].trim());
+        } catch (NumberFormatException ex) {
+            throw new InvalidDataException("line " + lineNumber
+                    + ": address is not a valid number");
+        }
+        if (address < 0) {
+            throw new InvalidDataException("line " + lineNumber
+                    + ": address < 0");
+        }
+
+        String name = fields[2].trim();
+        if (! TapHeader.checkName(name)) {
+            throw new InvalidDataException("line " + lineNumber
+                    + ": illegal name \"" + name + "\"");
+        }
+
+        ZxModel model = ZxModelSpectrum48k.get();
+        String modelKey = fields[3].trim();
+        if (! modelKey.isEmpty()) {
+            model = ZxModel.getByKey(modelKey);
+            if (model == null) {
+                throw new InvalidDataException("line " + lineNumber
+                        + ": unknown model \"" + modelKey + "\"");
+            }
+        }
+
+        String output = fields[4].trim();
+        if (output.isEmpty()) {
+            throw new InvalidDataException("line " + lineNumber
+                    + ": missing output file");
+        }
+
+        return new BatchJob(lineNumber, resolve(baseDir, input), address,
+                name, model, resolve(baseDir, output));
+    }
+
+    /**
+     *
+     * @param baseDir
+     * @param path
+     * @return
+     */
+    private static File resolve(File baseDir, String path) {
+        File file = new File(path);
+        if (file.isAbsolute() || baseDir == null) {
+            return file;
+        }
+        return new File(baseDir, path);
+    }
+
+}   // BatchManifest.java
@@ -0,0 +1,91 @@
+/*
+ * BatchResult.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.batch;
+
+import cz.mp.zxs.tools.data2tap.report.BlockRecord;
+
+/**
+ * Výsledek jedné úlohy dávkového převodu.
+ *
+ * @author Martin Pokorný
+ * @see BatchConverter
+ */
+public class BatchResult {
+
+    private final BatchJob job;
+    /** Chyba, kvůli které úloha selhala; {@code null} při úspěchu. */
+    private final Exception error;
+    private final long dataSize;
+    private final long tapSize;
+    /** Jen při zapnutém reportu, jinak {@code null}. */
+    private final BlockRecord record;
+
+    /**
+     *
+     * @param job
+     * @param dataSize
+     * @param tapSize
+     * @param record  {@code null}, pokud není zapnut report
+     * @return
+     */
+    static BatchResult success(BatchJob job, long dataSize, long tapSize,
+            BlockRecord record) {
+        return new BatchResult(job, null, dataSize, tapSize, record);
+    }
+
+    /**
+     *
+     * @param job
+     * @param error
+     * @return
+     */
+    static BatchResult failure(BatchJob job, Exception error) {
+        return new BatchResult(job, error, 0, 0, null);
+    }
+
+    /** */
+    private BatchResult(BatchJob job, Exception error,
+            long dataSize, long tapSize, BlockRecord record) {
+        this.job = job;
+        this.error = error;
+        this.dataSize = dataSize;
+        this.tapSize = tapSize;
+        this.record = record;
+    }
+
+    public BatchJob getJob() {
+        return job;
+    }
+
+    public boolean isOk() {
+        return error == null;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    public long getDataSize() {
+        return dataSize;
+    }
+
+    public long getTapSize() {
+        return tapSize;
+    }
+
+    /**
+     *
+     * @return  záznam pro report; {@code null} při chybě nebo pokud 
+     *      není zapnut report
+     * @see BatchConverter#setReportEnabled(boolean)
+     */
+    public BlockRecord getRecord() {
+        return record;
+    }
+
+}   // BatchResult.java
@@ -0,0 +1,382 @@
+/*
+ * BatchWatcher.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.batch;
+
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import cz.mp.zxs.tools.data2tap.cache.TapCache;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Sleduje vstupní soubory dávkového souboru ({@linkplain BatchManifest})
+ * a při jejich změně znovu vytvoří jen ty TAP soubory, kterých se změna
+ * týká.
+ * <p>
+ * Sledují se adresáře vstupních souborů a dávkového souboru
+ * ({@link WatchService}). Události se sbírají, dokud nenastane klid
+ * alespoň {@code debounceMillis} (editory často zapisují soubor 
+ * na několikrát). Soubor, jehož obsah (SHA-256) se nezměnil, se přeskočí;
+ * hash každého vstupu se v jednom cyklu počítá jen jednou. Hash vstupu,
+ * jehož převod selhal, se zapomene, takže se při další události převede
+ * znovu i se stejným obsahem.
+ * Změna dávkového souboru znamená jeho nové načtení.
+ *
+ * @author Martin Pokorný
+ * @see BatchManifest
+ * @see BatchConverter
+ */
+public class BatchWatcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchWatcher.class);
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+    /**
+     * Výsledky každého (i úvodního) převodu.
+     */
+    public interface Listener {
+        /**
+         * Volá se z vlákna {@linkplain BatchWatcher#run()}.
+         *
+         * @param results  (neprázdný seznam)
+         */
+        void converted(List<BatchResult> results);
+
+        /**
+         * Dávkový soubor nelze načíst; sleduje se dál podle 
+         * posledního platného obsahu.
+         *
+         * @param ex
+         */
+        void manifestFailed(Exception ex);
+    }
+
+    private final Path manifestPath;
+    private final long debounceMillis;
+    private final BatchConverter converter;
+    private final Listener listener;
+    private final WatchService watchService;
+
+    /** vstupní soubor -> úlohy, které ho převádí */
+    private Map<Path, List<BatchJob>> jobsByInput = 
+            new HashMap<Path, List<BatchJob>>();
+    /** vstupní soubor -> SHA-256 obsahu při posledním převodu */
+    private final Map<Path, byte[]> hashes = new HashMap<Path, byte[]>();
+    private final Map<Path, WatchKey> watchedDirs = new HashMap<Path, WatchKey>();
+
+    /**
+     *
+     * @param manifestFile
+     * @param debounceMillis
+     * @param listener
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public BatchWatcher(File manifestFile, long debounceMillis,
+            Listener listener) throws IOException {
+        if (manifestFile == null) {
+            throw new IllegalArgumentException("manifestFile = null");
+        }
+        if (debounceMillis < 0) {
+            throw new IllegalArgumentException("debounceMillis < 0");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("listener = null");
+        }
+        this.manifestPath = normalize(manifestFile.toPath());
+        this.debounceMillis = debounceMillis;
+        this.converter = new BatchConverter();
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * 
+     * @param maxConcurrentIo
+     * @throws IllegalArgumentException
+     * @see BatchConverter#setMaxConcurrentIo(int)
+     */
+    public void setMaxConcurrentIo(int maxConcurrentIo) {
+        converter.setMaxConcurrentIo(maxConcurrentIo);
+    }
+
+    /**
+     * 
+     * @param cache  {@code null} = bez cache
+     * @see BatchConverter#setCache(TapCache)
+     */
+    public void setCache(TapCache cache) {
+        converter.setCache(cache);
+    }
+
+    /**
+     * Převede všechny úlohy a potom sleduje změny, dokud není vlákno
+     * přerušeno nebo zavolána metoda {@linkplain #close()}.
+     *
+     * @throws IOException
+     * @throws InvalidDataException  dávkový soubor nelze načíst na začátku
+     */
+    public void run() throws IOException, InvalidDataException {
+        List<BatchJob> jobs = BatchManifest.parse(manifestPath.toFile());
+        setJobs(jobs);
+        updateAllHashes();
+        convert(jobs);
+
+        try {
+            while (! Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = waitForChanges();
+                if (! changed.isEmpty()) {
+                    processChanges(changed);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            log.debug("closed");
+        }
+    }
+
+    /**
+     * Počká na první událost a pak sbírá další, dokud nenastane klid.
+     *
+     * @return  změněné soubory (absolutní cesty)
+     * @throws InterruptedException
+     */
+    private Set<Path> waitForChanges() throws InterruptedException {
+        Set<Path> changed = new HashSet<Path>();
+        WatchKey key = watchService.take();
+        while (key != null) {
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    log.warn("overflow; all inputs will be checked");
+                    changed.addAll(jobsByInput.keySet());
+                    continue;
+                }
+                changed.add(dir.resolve((Path) event.context()));
+            }
+            if (! key.reset()) {
+                rewatch(dir, key);
+            }
+            key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+        }
+        return changed;
+    }
+
+    /**
+     * Klíč adresáře přestal platit (adresář byl smazán, přejmenován
+     * nebo je nedostupný). Pokud adresář znovu existuje, zaregistruje
+     * se znovu, jinak se přestane sledovat (do příští změny dávkového
+     * souboru).
+     *
+     * @param dir
+     * @param key  neplatný klíč
+     */
+    private void rewatch(Path dir, WatchKey key) {
+        if (watchedDirs.get(dir) != key) {
+            return;     // (zrušený klíč, adresář už není potřeba)
+        }
+        watchedDirs.remove(dir);
+        if (! Files.isDirectory(dir)) {
+            log.warn(dir + ": no longer watched");
+            return;
+        }
+        try {
+            watch(dir);
+            log.info(dir + ": watch key invalid, registered again");
+        } catch (IOException ex) {
+            log.warn(dir + ": no longer watched: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Převede úlohy změněných souborů (nebo všechny, pokud se změnil
+     * dávkový soubor).
+     *
+     * @param changed  změněné soubory (absolutní cesty)
+     * @return  výsledky převodu (prázdné, pokud se nic nepřevádělo)
+     * @throws IOException
+     */
+    List<BatchResult> processChanges(Set<Path> changed) throws IOException {
+        if (changed.contains(manifestPath)) {
+            log.info("manifest changed");
+            List<BatchJob> jobs;
+            try {
+                jobs = BatchManifest.parse(manifestPath.toFile());
+            } catch (InvalidDataException | IOException ex) {
+                log.warn(ex.getMessage());
+                listener.manifestFailed(ex);
+                return Collections.emptyList();
+            }
+            setJobs(jobs);
+            hashes.clear();
+            updateAllHashes();
+            return convert(jobs);
+        }
+
+        List<BatchJob> jobs = new ArrayList<BatchJob>();
+        for (Path path : changed) {
+            List<BatchJob> inputJobs = jobsByInput.get(path);
+            if (inputJobs != null && contentChanged(path)) {
+                jobs.addAll(inputJobs);
+            }
+        }
+        return convert(jobs);
+    }
+
+    /**
+     * Uloží hash všech vstupů (před převodem všech úloh).
+     */
+    private void updateAllHashes() {
+        for (Path input : jobsByInput.keySet()) {
+            contentChanged(input);
+        }
+    }
+
+    /**
+     * Převede úlohy; hash jejich vstupů už musí být uložen
+     * ({@linkplain #contentChanged(Path)}). Hash vstupů neúspěšných 
+     * úloh se odstraní.
+     *
+     * @param jobs
+     * @return
+     */
+    private List<BatchResult> convert(List<BatchJob> jobs) {
+        if (jobs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        log.info("convert " + jobs.size() + " job(s)");
+        List<BatchResult> results = converter.execute(jobs);
+        for (BatchResult result : results) {
+            if (! result.isOk()) {
+                hashes.remove(normalize(
+                        result.getJob().getInputFile().toPath()));
+            }
+        }
+        listener.converted(results);
+        return results;
+    }
+
+    /**
+     * Porovná hash obsahu souboru s posledním známým a uloží nový.
+     *
+     * @param input
+     * @return  {@code false}, pokud je obsah stejný jako minule
+     */
+    private boolean contentChanged(Path input) {
+        byte[] hash = null;
+        try {
+            if (Files.isRegularFile(input)) {
+                hash = MessageDigest.getInstance("SHA-256")
+                        .digest(Files.readAllBytes(input));
+            }
+        } catch (IOException ex) {
+            log.warn(input + ": " + ex.getMessage());
+        } catch (NoSuchAlgorithmException ex) {     // (nenastane, SHA-256 je povinný)
+            throw new IllegalStateException(ex);
+        }
+        byte[] previous = hash == null ? hashes.remove(input) : hashes.put(input, hash);
+        boolean changed = hash == null || ! Arrays.equals(hash, previous);
+        if (! changed) {
+            log.debug(input + ": content not changed");
+        }
+        return changed;
+    }
+
+    /**
+     * Sestaví mapu vstupů a zaregistruje jejich adresáře.
+     *
+     * @param jobs
+     * @throws IOException
+     */
+    private void setJobs(List<BatchJob> jobs) throws IOException {
+        Map<Path, List<BatchJob>> newJobsByInput = 
+                new LinkedHashMap<Path, List<BatchJob>>();
+        Set<Path> dirs = new HashSet<Path>();
+        dirs.add(manifestPath.getParent());
+        for (BatchJob job : jobs) {
+            Path input = normalize(job.getInputFile().toPath());
+            List<BatchJob> inputJobs = newJobsByInput.get(input);
+            if (inputJobs == null) {
+                inputJobs = new ArrayList<BatchJob>();
+                newJobsByInput.put(input, inputJobs);
+            }
+            inputJobs.add(job);
+            dirs.add(input.getParent());
+        }
+        jobsByInput = newJobsByInput;
+
+        for (Path dir : new ArrayList<Path>(watchedDirs.keySet())) {
+            if (! dirs.contains(dir)) {
+                watchedDirs.remove(dir).cancel();
+            }
+        }
+        for (Path dir : dirs) {
+            if (! watchedDirs.containsKey(dir) && Files.isDirectory(dir)) {
+                watch(dir);
+            }
+        }
+    }
+
+    /**
+     *
+     * @param dir
+     * @throws IOException
+     */
+    private void watch(Path dir) throws IOException {
+        log.debug("watch " + dir);
+        watchedDirs.put(dir, dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE));
+    }
+
+    /**
+     *
+     * @param path
+     * @return  absolutní normalizovaná cesta
+     */
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Ukončí sledování; {@linkplain #run()} skončí.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+}   // BatchWatcher.java
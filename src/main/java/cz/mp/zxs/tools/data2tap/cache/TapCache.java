@@ -0,0 +1,335 @@
+/*
+ * TapCache.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.cache;
+
+import cz.mp.zxs.tools.data2tap.TapBlockSpec;
+import cz.mp.zxs.tools.data2tap.ZxModel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Diskový cache vytvořených TAP souborů.
+ * <p>
+ * Klíčem je SHA-256 všech vstupů, na kterých výsledek závisí (model, typ,
+ * jméno, adresa a data všech bloků), viz {@linkplain #key(ZxModel, List)}.
+ * Stejné vstupy tak znamenají jen vyhledání v cache a kopii souboru.
+ * <p>
+ * Cache lze sdílet více procesy:
+ * <ul>
+ * <li>nový záznam se zapíše do dočasného souboru a potom atomicky
+ *      přejmenuje, takže se nikdy nečte napůl zapsaný soubor;</li>
+ * <li>při použití záznamu se mu nastaví čas poslední změny (LRU);</li>
+ * <li>mazání nejstarších záznamů (při překročení max. velikosti) 
+ *      probíhá pod zámkem souboru {@value #LOCK_FILE_NAME}.</li>
+ * </ul>
+ * Soubor zámku obsahuje i odhad celkové velikosti záznamů; při uložení
+ * se jen aktualizuje a adresář se prochází, jen když odhad překročí 
+ * max. velikost (nebo ještě neexistuje). Odhad může být jen vyšší než
+ * skutečnost (např. po ručním smazání záznamů), procházení ho opraví.
+ * Chyby cache převod nikdy neukončí; cache se v takovém případě
+ * jen nepoužije.
+ *
+ * @author Martin Pokorný
+ * @see cz.mp.zxs.tools.data2tap.Data2tap#setCache(TapCache)
+ */
+public class TapCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TapCache.class);
+
+    /** 256 MiB */
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    static final String LOCK_FILE_NAME = ".lock";
+    static final String ENTRY_SUFFIX = ".tap";
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    /** Mění se se změnou formátu výstupu; staré záznamy se pak nepoužijí. */
+    private static final String KEY_VERSION = "data2tap-1";
+
+    /** (zámek souboru nestačí pro více vláken jednoho procesu) */
+    private static final Object EVICTION_LOCK = new Object();
+
+    private final Path dir;
+    private final long maxSize;
+
+    /**
+     *
+     * @param dir  adresář cache; vytvoří se, pokud neexistuje
+     * @throws IOException
+     */
+    public TapCache(File dir) throws IOException {
+        this(dir, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     *
+     * @param dir  adresář cache; vytvoří se, pokud neexistuje
+     * @param maxSize  max. celková velikost záznamů v bytech
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public TapCache(File dir, long maxSize) throws IOException {
+        if (dir == null) {
+            throw new IllegalArgumentException("dir = null");
+        }
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.dir = dir.toPath();
+        this.maxSize = maxSize;
+        Files.createDirectories(this.dir);
+    }
+
+    /**
+     *
+     * @param model
+     * @param blocks
+     * @return  klíč (SHA-256 jako hex řetězec)
+     */
+    public static String key(ZxModel model, List<TapBlockSpec> blocks) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {     // (nenastane, SHA-256 je povinný)
+            throw new IllegalStateException(ex);
+        }
+        ByteBuffer numbers = ByteBuffer.allocate(16);
+        digest.update(KEY_VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update(model.getName().getBytes(StandardCharsets.UTF_8));
+        numbers.putInt(model.getRamSize()).putInt(blocks.size()).flip();
+        digest.update(numbers);
+        for (TapBlockSpec block : blocks) {
+            byte[] name = block.getName().getBytes(StandardCharsets.UTF_8);
+            numbers.clear();
+            numbers.putInt(block.getType().getNum())
+                    .putInt(block.getAddress())
+                    .putInt(name.length)
+                    .putInt(block.getDataLength())
+                    .flip();
+            digest.update(numbers);
+            digest.update(name);
+            digest.update(block.getData());
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Zkopíruje záznam z cache do výstupního souboru.
+     *
+     * @param key
+     * @param outFile
+     * @return  {@code false}, pokud záznam v cache není (nebo ho nelze 
+     *      použít)
+     */
+    public boolean copyTo(String key, File outFile) {
+        Path entry = entryPath(key);
+        try {
+            Files.copy(entry, outFile.toPath(), 
+                    StandardCopyOption.REPLACE_EXISTING);
+            // (LRU; chyba zde nevadí)
+            entry.toFile().setLastModified(System.currentTimeMillis());
+            log.info("hit " + key);
+            return true;
+        } catch (NoSuchFileException ex) {
+            log.debug("miss " + key);
+            return false;
+        } catch (IOException ex) {
+            log.warn("cache read failed: " + ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Uloží soubor do cache a případně smaže nejstarší záznamy.
+     *
+     * @param key
+     * @param tapFile
+     */
+    public void store(String key, File tapFile) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(dir, TEMP_PREFIX, ENTRY_SUFFIX);
+            Files.copy(tapFile.toPath(), temp, StandardCopyOption.REPLACE_EXISTING);
+            long added = Files.size(temp);
+            Path entry = entryPath(key);
+            try {
+                added -= Files.size(entry);     // (nahrazuje se)
+            } catch (NoSuchFileException ex) {
+                // nový záznam
+            }
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+            log.info("stored " + key);
+            evictIfNeeded(added);
+        } catch (IOException ex) {
+            log.warn("cache write failed: " + ex.getMessage());
+        } finally {
+            if (temp != null) {
+                temp.toFile().delete();
+            }
+        }
+    }
+
+    /**
+     * Připočte uložený záznam k odhadu velikosti cache; pokud odhad 
+     * překročí max. velikost, smaže nejdéle nepoužité záznamy.
+     *
+     * @param added  o kolik bytů se cache zvětšila
+     * @throws IOException
+     */
+    void evictIfNeeded(long added) throws IOException {
+        synchronized (EVICTION_LOCK) {
+            try (FileChannel lockChannel = FileChannel.open(
+                        dir.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // (zámek se uvolní zavřením kanálu)
+                lockChannel.lock();
+                long total = readSizeHint(lockChannel);
+                if (total >= 0) {
+                    total = Math.max(0, total + added);
+                }
+                if (total < 0 || total > maxSize) {
+                    total = evict();
+                }
+                writeSizeHint(lockChannel, total);
+            }
+        }
+    }
+
+    /**
+     * Projde adresář a smaže nejdéle nepoužité záznamy, dokud celková 
+     * velikost nepřesahuje max. velikost. Volat jen pod zámkem.
+     *
+     * @return  skutečná celková velikost záznamů po smazání
+     * @throws IOException
+     */
+    private long evict() throws IOException {
+        List<File> entries = new ArrayList<File>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = 
+                Files.newDirectoryStream(dir, "*" + ENTRY_SUFFIX)) {
+            for (Path path : stream) {
+                if (path.getFileName().toString().startsWith(TEMP_PREFIX)) {
+                    continue;
+                }
+                File entry = path.toFile();
+                entries.add(entry);
+                total += entry.length();
+            }
+        }
+        if (total <= maxSize) {
+            return total;
+        }
+
+        final Map<File, Long> lastModified = 
+                new HashMap<File, Long>();
+        for (File entry : entries) {
+            lastModified.put(entry, entry.lastModified());
+        }
+        Collections.sort(entries, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                return Long.compare(lastModified.get(f1), lastModified.get(f2));
+            }
+        });
+        for (File entry : entries) {
+            if (total <= maxSize) {
+                break;
+            }
+            long length = entry.length();
+            if (entry.delete()) {
+                total -= length;
+                log.debug("evicted " + entry.getName());
+            }
+        }
+        log.info("size after eviction = " + total + " B");
+        return total;
+    }
+
+    /**
+     *
+     * @param lockChannel
+     * @return  odhad celkové velikosti záznamů; {@code -1} = není
+     * @throws IOException
+     */
+    private static long readSizeHint(FileChannel lockChannel) 
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        while (buffer.hasRemaining()) {
+            if (lockChannel.read(buffer, buffer.position()) < 0) {
+                return -1;
+            }
+        }
+        buffer.flip();
+        return buffer.getLong();
+    }
+
+    /**
+     *
+     * @param lockChannel
+     * @param total
+     * @throws IOException
+     */
+    private static void writeSizeHint(FileChannel lockChannel, long total) 
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putLong(total).flip();
+        while (buffer.hasRemaining()) {
+            lockChannel.write(buffer, buffer.position());
+        }
+    }
+
+    /**
+     *
+     * @param key
+     * @return
+     */
+    private Path entryPath(String key) {
+        return dir.resolve(key + ENTRY_SUFFIX);
+    }
+
+    /**
+     *
+     * @param bytes
+     * @return
+     */
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+}   // TapCache.java
@@ -0,0 +1,85 @@
+/*
+ * DataTextFormat.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.gui;
+
+import java.nio.ByteBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Převod binárních dat na text (čísla v zadané soustavě),
+ * tak jak se zobrazují v datové oblasti {@linkplain MainFrame}.
+ * Text zpět na data převádí {@linkplain DataTextTokenizer}.
+ *
+ * @author Martin Pokorný
+ * @see MainFrame
+ * @see DataTextTokenizer
+ */
+public final class DataTextFormat {
+
+    private static final Logger log = LoggerFactory.getLogger(DataTextFormat.class);
+
+    /** */
+    private DataTextFormat() {
+    }
+
+    /**
+     * Převede data na text.
+     *
+     * @param data  data od pozice do limitu; pozice se nemění
+     * @param radix  {@code 10} nebo {@code 16}
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static String format(ByteBuffer data, int radix) {
+        if (data == null) {
+            throw new IllegalArgumentException("data");
+        }
+        int length = data.remaining();
+        int start = data.position();
+        log.info("data.length = " + length);
+
+        StringBuilder sb = new StringBuilder(length * 5);
+
+        if (radix == 16) {
+            for(int i=0; i<length; i++) {
+                sb.append(String.format("%02X ", (int)(data.get(start + i) & 0xFF)));
+
+                // jen dodatečné formátování pro lepší přehlednost
+                if ((i+1) % 8 == 0) {
+                    sb.append(" ");
+                    if ((i+1) % 16 == 0) {
+                        sb.append("\n");
+                        if ((i+1) % 256 == 0) {
+                            sb.append("\n");
+                        }
+                    }
+                }
+            }
+        }
+        else if (radix == 10) {
+            for(int i=0; i<length; i++) {
+                sb.append(String.format("%d, ", (int)(data.get(start + i) & 0xFF)));
+
+                // jen dodatečné formátování pro lepší přehlednost
+                if ((i+1) % 8 == 0) {
+                    sb.append("\n");
+                    if ((i+1) % 80 == 0) {
+                        sb.append("\n");
+                    }
+                }
+            }
+        }
+        else {
+            throw new IllegalArgumentException("unsupported radix");
+        }
+        return sb.toString();
+    }
+
+}   // DataTextFormat.java
@@ -0,0 +1,473 @@
+/*
+ * DataTextTokenizer.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.gui;
+
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+
+/**
+ * Průběžná analýza čísel v textu dokumentu (datová oblast
+ * {@linkplain MainFrame}).
+ * <p>
+ * Text se čte po segmentech ({@link Segment}, bez kopírování do
+ * {@code String}) a hodnoty se zapisují přímo do rostoucího pole bytů.
+ * Pro každé číslo se pamatuje jeho pozice v dokumentu, takže při změně
+ * dokumentu ({@link DocumentListener}) se znovu analyzují jen čísla
+ * dotčená změnou; u následujících čísel se jen posunou pozice.
+ * <p>
+ * Oddělovače jsou {@code , . ;} a bílé znaky (text z 
+ * {@link DataTextFormat#format(ByteBuffer, int)} se převede zpět beze změny).
+ *
+ * @author Martin Pokorný
+ * @see DataTextFormat
+ */
+public final class DataTextTokenizer implements DocumentListener {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** číslo je v pořádku */
+    static final byte OK = 0;
+    /** číslo obsahuje neplatný znak */
+    static final byte WRONG_NUMBER = 1;
+    /** hodnota je větší než {@code 0xFF} */
+    static final byte TOO_BIG = 2;
+
+    private final Document document;
+
+    private int radix;
+
+    /** počet čísel */
+    private int size = 0;
+    /** pozice začátku čísla v dokumentu */
+    private int[] starts = new int[INITIAL_CAPACITY];
+    /** pozice konce čísla v dokumentu (mimo) */
+    private int[] ends = new int[INITIAL_CAPACITY];
+    /** hodnoty čísel */
+    private byte[] values = new byte[INITIAL_CAPACITY];
+    /** {@link #OK}, {@link #WRONG_NUMBER} nebo {@link #TOO_BIG} */
+    private byte[] states = new byte[INITIAL_CAPACITY];
+    private int errorCount = 0;
+
+    // (pomocná pole pro čísla z právě analyzovaného úseku; opakovaně se
+    //  používají, aby se při každé změně nealokovalo)
+    private int scanSize = 0;
+    private int[] scanStarts = new int[INITIAL_CAPACITY];
+    private int[] scanEnds = new int[INITIAL_CAPACITY];
+    private byte[] scanValues = new byte[INITIAL_CAPACITY];
+    private byte[] scanStates = new byte[INITIAL_CAPACITY];
+
+    private final Segment segment = new Segment();
+
+    /**
+     * Analyzuje celý obsah dokumentu. Změny dokumentu se sledují až po
+     * registraci ({@code document.addDocumentListener(tokenizer)}).
+     *
+     * @param document
+     * @param radix  {@code 10} nebo {@code 16}
+     * @throws IllegalArgumentException
+     */
+    public DataTextTokenizer(Document document, int radix) {
+        if (document == null) {
+            throw new IllegalArgumentException("document = null");
+        }
+        checkRadix(radix);
+        this.document = document;
+        this.radix = radix;
+        segment.setPartialReturn(true);
+        reparse();
+    }
+
+    /**
+     *
+     * @param radix
+     * @throws IllegalArgumentException
+     */
+    private static void checkRadix(int radix) {
+        if (radix != 10 && radix != 16) {
+            throw new IllegalArgumentException("unsupported radix");
+        }
+    }
+
+    /**
+     *
+     * @return
+     */
+    public int getRadix() {
+        return radix;
+    }
+
+    /**
+     * Nastaví číselný základ; pokud se změní, analyzuje se celý dokument
+     * znovu (vhodné je volat nad prázdným dokumentem).
+     *
+     * @param radix  {@code 10} nebo {@code 16}
+     * @throws IllegalArgumentException
+     */
+    public void setRadix(int radix) {
+        checkRadix(radix);
+        if (this.radix != radix) {
+            this.radix = radix;
+            reparse();
+        }
+    }
+
+    /**
+     * Znovu analyzuje celý dokument.
+     */
+    public void reparse() {
+        size = 0;
+        errorCount = 0;
+        replaceTokens(0, 0, 0, document.getLength(), 0);
+    }
+
+    /**
+     *
+     * @return  počet čísel (bytů)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     *
+     * @return  počet chybných čísel
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     *
+     * @return  index prvního chybného čísla nebo {@code -1}
+     */
+    private int getFirstErrorIndex() {
+        if (errorCount == 0) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (states[i] != OK) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("errorCount");
+    }
+
+    /**
+     *
+     * @return  pozice začátku prvního chybného čísla v dokumentu
+     *      nebo {@code -1}
+     */
+    public int getErrorStart() {
+        int index = getFirstErrorIndex();
+        return index < 0 ? -1 : starts[index];
+    }
+
+    /**
+     *
+     * @return  pozice konce (mimo) prvního chybného čísla v dokumentu
+     *      nebo {@code -1}
+     */
+    public int getErrorEnd() {
+        int index = getFirstErrorIndex();
+        return index < 0 ? -1 : ends[index];
+    }
+
+    /**
+     * Vrátí analyzovaná data bez kopírování.
+     *
+     * @return  data jen pro čtení; platná do další změny dokumentu
+     * @throws InvalidDataException  pokud text obsahuje chybné číslo
+     */
+    public ByteBuffer getData() throws InvalidDataException {
+        checkErrors();
+        return ByteBuffer.wrap(values, 0, size).asReadOnlyBuffer();
+    }
+
+    /**
+     *
+     * @return  pole bytů nebo prázdné pole
+     * @throws InvalidDataException  pokud text obsahuje chybné číslo
+     */
+    public byte[] toByteArray() throws InvalidDataException {
+        checkErrors();
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     *
+     * @throws InvalidDataException  pro první chybné číslo
+     */
+    private void checkErrors() throws InvalidDataException {
+        int index = getFirstErrorIndex();
+        if (index < 0) {
+            return;
+        }
+        String token;
+        try {
+            token = document.getText(starts[index], ends[index] - starts[index]);
+        } catch (BadLocationException ex) {
+            throw new IllegalStateException(ex);
+        }
+        if (states[index] == TOO_BIG) {
+            throw new InvalidDataException("value " + token + " > 0xFF"
+                    + " (position " + starts[index] + ")");
+        }
+        throw new InvalidDataException("Wrong number: \"" + token + "\""
+                + " (position " + starts[index] + ")");
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        int offset = e.getOffset();
+        int length = e.getLength();
+        // dotčená jsou čísla, která se místa vložení dotýkají
+        //  (vložený text se s nimi může spojit)
+        int first = firstIndexEndingAtOrAfter(offset);
+        int last = lastIndexStartingAtOrBefore(offset);
+        int from = offset;
+        int to = offset + length;
+        if (first <= last) {
+            from = Math.min(starts[first], offset);
+            to = Math.max(ends[last] + length, to);
+        }
+        replaceTokens(first, last + 1, from, to, length);
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        int offset = e.getOffset();
+        int length = e.getLength();
+        // dotčená jsou čísla v odstraněném úseku a čísla, která se ho
+        //  dotýkají (po odstranění oddělovače se mohou spojit)
+        int first = firstIndexEndingAtOrAfter(offset);
+        int last = lastIndexStartingAtOrBefore(offset + length);
+        int from = offset;
+        int to = offset;
+        if (first <= last) {
+            from = Math.min(starts[first], offset);
+            to = Math.max(ends[last] - length, offset);
+        }
+        replaceTokens(first, last + 1, from, to, -length);
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+    }
+
+    /**
+     *
+     * @param offset
+     * @return  index prvního čísla s koncem {@code >= offset}
+     *      (nebo {@code size})
+     */
+    private int firstIndexEndingAtOrAfter(int offset) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ends[mid] < offset) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     *
+     * @param offset
+     * @return  index posledního čísla se začátkem {@code <= offset}
+     *      (nebo {@code -1})
+     */
+    private int lastIndexStartingAtOrBefore(int offset) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= offset) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo - 1;
+    }
+
+    /**
+     * Nahradí čísla {@code [fromIndex, toIndex)} čísly z úseku
+     * {@code [from, to)} (aktuálního) dokumentu a posune pozice
+     * následujících čísel.
+     *
+     * @param fromIndex
+     * @param toIndex
+     * @param from
+     * @param to
+     * @param shift  posun pozic čísel za nahrazeným úsekem
+     */
+    private void replaceTokens(int fromIndex, int toIndex,
+            int from, int to, int shift) {
+        scan(from, to);
+
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (states[i] != OK) {
+                errorCount--;
+            }
+        }
+        int tail = size - toIndex;
+        int newSize = fromIndex + scanSize + tail;
+        ensureCapacity(newSize);
+        int newTail = fromIndex + scanSize;
+        if (newTail != toIndex) {
+            System.arraycopy(starts, toIndex, starts, newTail, tail);
+            System.arraycopy(ends, toIndex, ends, newTail, tail);
+            System.arraycopy(values, toIndex, values, newTail, tail);
+            System.arraycopy(states, toIndex, states, newTail, tail);
+        }
+        if (shift != 0) {
+            for (int i = newTail; i < newSize; i++) {
+                starts[i] += shift;
+                ends[i] += shift;
+            }
+        }
+        System.arraycopy(scanStarts, 0, starts, fromIndex, scanSize);
+        System.arraycopy(scanEnds, 0, ends, fromIndex, scanSize);
+        System.arraycopy(scanValues, 0, values, fromIndex, scanSize);
+        System.arraycopy(scanStates, 0, states, fromIndex, scanSize);
+        for (int i = 0; i < scanSize; i++) {
+            if (scanStates[i] != OK) {
+                errorCount++;
+            }
+        }
+        size = newSize;
+    }
+
+    /**
+     * Jedním průchodem analyzuje úsek dokumentu do pomocných polí.
+     *
+     * @param from
+     * @param to  (mimo)
+     */
+    private void scan(int from, int to) {
+        scanSize = 0;
+        int tokenStart = -1;
+        int value = 0;
+        byte state = OK;
+        int offset = from;
+        try {
+            while (offset < to) {
+                document.getText(offset, to - offset, segment);
+                char[] array = segment.array;
+                int end = segment.offset + segment.count;
+                for (int i = segment.offset; i < end; i++, offset++) {
+                    char c = array[i];
+                    if (isSeparator(c)) {
+                        if (tokenStart >= 0) {
+                            addScanned(tokenStart, offset, value, state);
+                            tokenStart = -1;
+                        }
+                        continue;
+                    }
+                    if (tokenStart < 0) {
+                        tokenStart = offset;
+                        value = 0;
+                        state = OK;
+                    }
+                    if (state == WRONG_NUMBER) {
+                        continue;
+                    }
+                    int digit = Character.digit(c, radix);
+                    if (digit < 0) {
+                        state = WRONG_NUMBER;
+                    }
+                    else if (state == OK) {
+                        value = value * radix + digit;
+                        if (value > 0xFF) {
+                            state = TOO_BIG;
+                        }
+                    }
+                }
+            }
+        } catch (BadLocationException ex) {
+            throw new IllegalStateException(ex);
+        }
+        if (tokenStart >= 0) {
+            addScanned(tokenStart, to, value, state);
+        }
+    }
+
+    /**
+     *
+     * @param c
+     * @return  {@code true} pro {@code , . ;} a bílé znaky
+     *      (jako {@code [,.;\s]} v regulárním výrazu)
+     */
+    private static boolean isSeparator(char c) {
+        switch (c) {
+            case ',':
+            case '.':
+            case ';':
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\u000B':
+            case '\f':
+            case '\r':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     *
+     * @param start
+     * @param end
+     * @param value
+     * @param state
+     */
+    private void addScanned(int start, int end, int value, byte state) {
+        if (scanSize == scanStarts.length) {
+            int capacity = scanSize * 2;
+            scanStarts = Arrays.copyOf(scanStarts, capacity);
+            scanEnds = Arrays.copyOf(scanEnds, capacity);
+            scanValues = Arrays.copyOf(scanValues, capacity);
+            scanStates = Arrays.copyOf(scanStates, capacity);
+        }
+        scanStarts[scanSize] = start;
+        scanEnds[scanSize] = end;
+        scanValues[scanSize] = (byte) value;
+        scanStates[scanSize] = state;
+        scanSize++;
+    }
+
+    /**
+     *
+     * @param capacity
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= starts.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, starts.length * 2);
+        starts = Arrays.copyOf(starts, newCapacity);
+        ends = Arrays.copyOf(ends, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+        states = Arrays.copyOf(states, newCapacity);
+    }
+
+}   // DataTextTokenizer.java
@@ -0,0 +1,45 @@
+/*
+ * GuiLauncher.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.gui;
+
+import javax.swing.SwingUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Spuštění GUI.
+ * <p>
+ * Jediné místo, přes které CLI ({@code Data2tapCli}) sahá na GUI; 
+ * Swing se tak načte jen při spuštění s {@code --gui}.
+ *
+ * @author Martin Pokorný
+ * @see MainFrame
+ */
+public final class GuiLauncher {
+
+    private static final Logger log = LoggerFactory.getLogger(GuiLauncher.class);
+
+    /** */
+    private GuiLauncher() {
+    }
+
+    /**
+     * Vytvoří a zobrazí hlavní okno (v EDT).
+     */
+    public static void start() {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                log.info("create and show GUI");
+                MainFrame.getInstance().setVisible(true);
+            }
+        });
+    }
+
+}   // GuiLauncher.java
@@ -7,16 +7,20 @@
 
 package cz.mp.zxs.tools.data2tap.gui;
 
-import cz.mp.zxs.tools.data2tap.Data2tap;
 import cz.mp.zxs.tools.data2tap.Data2tapCli;
 import cz.mp.utils.GuiUtils;
 import cz.mp.zxs.tools.data2tap.InvalidDataException;
 import cz.mp.zxs.tools.data2tap.MemoryAddress;
+import cz.mp.zxs.tools.data2tap.TapBlockSpec;
 import cz.mp.zxs.tools.data2tap.TapBlockType;
+import cz.mp.zxs.tools.data2tap.TapEncoder;
+import cz.mp.zxs.tools.data2tap.TapJob;
 import cz.mp.zxs.tools.data2tap.Version;
 import cz.mp.zxs.tools.data2tap.ZxModel;
 import cz.mp.zxs.tools.data2tap.ZxModelSpectrum16k;
 import cz.mp.zxs.tools.data2tap.ZxModelSpectrum48k;
+import cz.mp.zxs.tools.data2tap.gui.component.ByteGrid;
+import cz.mp.zxs.tools.data2tap.gui.component.ByteGridModel;
 import cz.mp.zxs.tools.data2tap.gui.component.LabelBold;
 import cz.mp.utils.FileUtils;
 import cz.mp.utils.StandardDialogsLocaliser;
@@ -35,12 +39,22 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JEditorPane;
@@ -49,12 +63,21 @@ import javax.swing.JFormattedTextField;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JSeparator;
+import javax.swing.JTabbedPane;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.UIManager;
 import javax.swing.WindowConstants;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import javax.swing.text.MaskFormatter;
 import javax.swing.undo.UndoManager;
 import org.slf4j.Logger;
@@ -97,9 +120,27 @@ public class MainFrame {
 
     private LabelBold dataLabel = new LabelBold(getLocText("gui.mainframe.data"));
 
+    /** Data; zobrazují se v {@linkplain #dataGrid}, 
+     * v {@linkplain #dataTextArea} jen na záložce Text. */
+    private ByteGridModel dataModel = new ByteGridModel();
+    private ByteGrid dataGrid = new ByteGrid(dataModel);
+    private JScrollPane dataGridScrollPane = new JScrollPane(dataGrid);
+    private UndoManager dataGridUndoManager = new UndoManager();
+
     private JEditorPane dataTextArea = new JEditorPane();
     private JScrollPane dataScrollPane = new JScrollPane(dataTextArea);
     private UndoManager dataTextAreaUndoManager = new UndoManager();
+    /** průběžně analyzuje čísla v {@linkplain #dataTextArea} */
+    private DataTextTokenizer dataTextTokenizer;
+    /** {@linkplain #dataTextArea} neodpovídá {@linkplain #dataModel} 
+     * (text se vyplní až při zobrazení záložky Text) */
+    private boolean dataTextStale = false;
+    /** text byl upraven a ještě se nepřevedl do {@linkplain #dataModel} */
+    private boolean dataTextDirty = false;
+    /** (změny textu z programu se nepovažují za úpravy) */
+    private boolean fillingDataText = false;
+
+    private JTabbedPane dataTabs = new JTabbedPane();
 
     private JLabel dataRadixLabel = new JLabel(getLocText("gui.mainframe.data.radix"));
     private JComboBox<Radix> dataRadixCombo = new JComboBox<Radix>();
@@ -110,6 +151,12 @@ public class MainFrame {
             Font.PLAIN, dataTextArea.getFont().getSize()+2);
             
     private JButton createTapBtn = new JButton(getLocText("gui.mainframe.create_tap")); // Create TAP file
+
+    /** průběh úlohy na pozadí ({@linkplain #runningTask}) */
+    private JProgressBar taskProgressBar = new JProgressBar(0, 100);
+    private JButton cancelTaskBtn = new JButton(getLocText("gui.mainframe.task.cancel"));
+    /** právě běžící úloha na pozadí nebo {@code null} */
+    private BackgroundTask<?, ?> runningTask = null;
    
     private JTextField aboutSelectableLabel = new JTextField("");
 
@@ -118,7 +165,7 @@ public class MainFrame {
 
     private JFileChooser saveTapFileChooser = null;
     
-    private Data2tap data2tap = new Data2tap();
+    private static final TapEncoder ENCODER = new TapEncoder();
     
     // -----
     /** */
@@ -132,7 +179,7 @@ public class MainFrame {
             initEventHandlers();
             initFrame();
             nameField.requestFocusInWindow();
-            StandardDialogsLocaliser.localize(MAIN);
+            StandardDialogsLocaliser.localize(getMainBundle());
             log.info("init done");
             log.info("selectedZxModel = " + selectedZxModel.getName());        
         } catch (Exception ex) {
@@ -185,6 +232,14 @@ public class MainFrame {
         
         dataTextArea.setFont(monoBiggerFont);
         dataScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
+        dataGrid.setFont(monoBiggerFont);
+        dataGrid.setRadix(Radix.DECIMAL.getRadix());
+        dataGridScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
+        dataGridScrollPane.getViewport().setBackground(dataGrid.getBackground());
+        dataTabs.addTab(getLocText("gui.mainframe.data.grid"), dataGridScrollPane);
+        dataTabs.addTab(getLocText("gui.mainframe.data.text"), dataScrollPane);
+        
+        cancelTaskBtn.setEnabled(false);
 
         addressCombo.addItem("");
         for (MemoryAddress ma : selectedZxModel.getMemoryAdressSuggestions()) {
@@ -215,6 +270,7 @@ public class MainFrame {
         initAbout();
         
         dataTextArea.getDocument().addUndoableEditListener(dataTextAreaUndoManager);
+        dataModel.addUndoableEditListener(dataGridUndoManager);
     }
     
     private void initAbout() {
@@ -297,7 +353,7 @@ public class MainFrame {
                 GridBagConstraints.WEST, GridBagConstraints.NONE, ins5505, 0,0));
         r++;
                 
-        c.add(dataScrollPane, new GridBagConstraints(0,r,5,5,1.0,1.0,
+        c.add(dataTabs, new GridBagConstraints(0,r,5,5,1.0,1.0,
                 GridBagConstraints.WEST, GridBagConstraints.BOTH, ins5555, 0, 0));
         // "vata" - vertikální mezera s min. výškou
         c.add(new JLabel(), new GridBagConstraints(10,r,1,1,0.0,1.0,
@@ -305,6 +361,12 @@ public class MainFrame {
 
         r+=5;        
         
+        c.add(taskProgressBar, new GridBagConstraints(0,r,4,1,1.0,0.0,
+                GridBagConstraints.WEST, GridBagConstraints.HORIZONTAL, ins5505, 0,0));
+        c.add(cancelTaskBtn, new GridBagConstraints(4,r,1,1,0.0,0.0,
+                GridBagConstraints.WEST, GridBagConstraints.NONE, ins5505, 0,0));
+        r++;
+        
         c.add(createTapBtn, new GridBagConstraints(0,r,5,1,1.0,0.0,
                 GridBagConstraints.CENTER, GridBagConstraints.NONE,
                 new Insets(10, 5, 10, 5), 0,0));
@@ -337,21 +399,34 @@ public class MainFrame {
             }
         });
         
-        dataTextArea.addKeyListener(new KeyAdapter() {
+        dataTextArea.addKeyListener(new UndoKeyListener(dataTextAreaUndoManager));
+        dataGrid.addKeyListener(new UndoKeyListener(dataGridUndoManager));
+        
+        dataTextTokenizer = new DataTextTokenizer(
+                dataTextArea.getDocument(), Radix.DECIMAL.getRadix());
+        dataTextArea.getDocument().addDocumentListener(dataTextTokenizer);
+        dataTextArea.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            public void keyPressed(KeyEvent e) {
-                if (e.isControlDown() && e.getKeyCode() == KeyEvent.VK_Z) {
-                    if (dataTextAreaUndoManager.canUndo()) {
-                        dataTextAreaUndoManager.undo();
-                    }
-                }
-                if (e.isControlDown() && e.getKeyCode() == KeyEvent.VK_Y) {
-                    if (dataTextAreaUndoManager.canRedo()) {
-                        dataTextAreaUndoManager.redo();
-                    }
-                }
+            public void insertUpdate(DocumentEvent e) {
+                dataTextChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                dataTextChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        
+        dataTabs.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                dataTabChanged();
             }
-        });        
+        });
         
         loadDataBtn.addActionListener(new ActionListener() {
             @Override
@@ -363,6 +438,16 @@ public class MainFrame {
         
         dataRadixCombo.addItemListener(new ChangeDataRadixItemListener());
         
+        cancelTaskBtn.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                log.debug("(cancelTaskBtn click)");
+                if (runningTask != null) {
+                    runningTask.requestCancel();
+                }
+            }
+        });
+        
         createTapBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -422,7 +507,7 @@ public class MainFrame {
      * @param newRadix 
      * @throws InvalidDataException
      * @throws IllegalArgumentException
-     * @see #parseDataInInputTextArea(cz.mp.zxs.tools.data2tap.gui.MainFrame.Radix) 
+     * @see #updateDataModelFromText() 
      * @see #fillDataToInputTextArea(byte[], cz.mp.zxs.tools.data2tap.gui.MainFrame.Radix) 
      */
     private void convertDataInInputTextAreaToNewRadix(Radix origRadix, Radix newRadix) 
@@ -435,135 +520,121 @@ public class MainFrame {
         }
         log.info("origRadix = " + origRadix + "  ->  newRadix = " + newRadix);
         
-        byte[] data = parseDataInInputTextArea(origRadix);
-        fillDataToInputTextArea(data, newRadix);
+        updateDataModelFromText();
+        dataGrid.setRadix(newRadix.getRadix());
+        if (isDataTextTabSelected()) {
+            fillDataToInputTextArea(dataModel.toByteArray(), newRadix);
+        }
+        else {
+            dataTextStale = true;
+        }
     }
 
     /**
+     * Pokud byl text upraven, převede ho do {@linkplain #dataModel}.
+     * Text je už analyzovaný ({@linkplain #dataTextTokenizer}), 
+     * data se jen zkopírují. Při chybě se chybné číslo v textu označí.
      * 
-     * @param data
-     * @param radix 
-     * @throws IllegalArgumentException
-     * @see #parseDataInInputTextArea(cz.mp.zxs.tools.data2tap.gui.MainFrame.Radix) 
+     * @throws InvalidDataException 
+     * @see #dataTextDirty
      */
-    private void fillDataToInputTextArea(byte[] data, Radix radix) {
-        if (data == null) {
-            throw new IllegalArgumentException("data");
-        }
-        if (data.length == 0) {
-            dataTextArea.setText("");
+    private void updateDataModelFromText() 
+            throws InvalidDataException {
+        if (! dataTextDirty) {
             return;
         }
-        if (radix == null) {
-            throw new IllegalArgumentException("radix");
+        ByteBuffer data;
+        try {
+            data = dataTextTokenizer.getData();
+        } catch (InvalidDataException idex) {
+            dataTextArea.select(dataTextTokenizer.getErrorStart(), 
+                    dataTextTokenizer.getErrorEnd());
+            throw idex;
         }
-        log.info("radix = " + radix);
-        log.info("data.length = " + data.length);
-        
-        StringBuilder sb = new StringBuilder(data.length * 5);
-        
-        if (radix == Radix.HEXADECIMAL) {
-            for(int i=0; i<data.length; i++) {
-                sb.append(String.format("%02X ", (int)(data[i] & 0xFF)));
-                
-                // jen dodatečné formátování pro lepší přehlednost
-                if ((i+1) % 8 == 0) {
-                    sb.append(" ");
-                    if ((i+1) % 16 == 0) {
-                        sb.append("\n");
-                        if ((i+1) % 256 == 0) {
-                            sb.append("\n");
-                        }
-                    }
-                }                
-            }
+        dataModel.setData(data);
+        dataGridUndoManager.discardAllEdits();
+        dataTextDirty = false;
+    }
+
+    /**
+     * 
+     * @return  {@code true}, pokud je zobrazena záložka Text
+     */
+    private boolean isDataTextTabSelected() {
+        return dataTabs.getSelectedComponent() == dataScrollPane;
+    }
+
+    /**
+     * Obsluha změny obsahu {@linkplain #dataTextArea}.
+     */
+    private void dataTextChanged() {
+        if (! fillingDataText) {
+            dataTextDirty = true;
         }
-        else if (radix == Radix.DECIMAL) {
-            for(int i=0; i<data.length; i++) {
-                sb.append(String.format("%d, ", (int)(data[i] & 0xFF)));
-                
-                // jen dodatečné formátování pro lepší přehlednost
-                if ((i+1) % 8 == 0) {
-                    sb.append("\n");
-                    if ((i+1) % 80 == 0) {
-                        sb.append("\n");
-                    }
-                }
-            }            
+    }
+
+    /**
+     * Obsluha přepnutí záložek: text se vyplní až při zobrazení záložky Text,
+     * upravený text se převede zpět při přepnutí na mřížku.
+     */
+    private void dataTabChanged() {
+        Radix selectedRadix = (Radix) dataRadixCombo.getSelectedItem();
+        if (isDataTextTabSelected()) {
+            if (dataTextStale) {
+                fillDataToInputTextArea(dataModel.toByteArray(), selectedRadix);
+            }
         }
         else {
-            throw new IllegalArgumentException("unsupported radix");
+            try {
+                updateDataModelFromText();
+            } catch (InvalidDataException idex) {
+                log.warn(idex.getMessage());
+                dataTabs.setSelectedComponent(dataScrollPane);
+                JOptionPane.showMessageDialog(MainFrame.this.frame,
+                        idex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
         }
-        
-        dataTextArea.setText(sb.toString());
     }
-    
+
     /**
-     * Z čísel v textové podobě v {@linkplain #dataTextArea} vytvoří 
-     * pole bytů.
+     * Vyplní {@linkplain #dataTextArea} zadanými daty. Text se formátuje 
+     * na pozadí a do dokumentu se přidává po částech
+     * ({@linkplain FillDataTextTask}).
      * 
-     * @param radix
-     * @return  pole bytů nebo prázdné pole
-     * @throws InvalidDataException 
+     * @param data
+     * @param radix 
      * @throws IllegalArgumentException
-     * @see #splitDataInInputTextField()
-     * @see #parseData(java.lang.String[], cz.mp.zxs.tools.data2tap.gui.MainFrame.Radix) 
+     * @see DataTextTokenizer
      */
-    private byte[] parseDataInInputTextArea(Radix radix)    // pozn. 'radix' je potřeba v convertDataInInputTextAreaToNewRadix ...
-            throws InvalidDataException {
+    private void fillDataToInputTextArea(byte[] data, Radix radix) {
+        if (data == null) {
+            throw new IllegalArgumentException("data");
+        }
         if (radix == null) {
             throw new IllegalArgumentException("radix");
         }
-        log.debug("radix = " + radix);
+        log.info("radix = " + radix);
         
-        String[] dataArray = splitDataInInputTextField();
-        if (dataArray.length == 0) {
-            return new byte[]{};
-        }
-        log.debug("dataArray.length = " + dataArray.length);
-
-        byte[] result = parseData(dataArray, radix);
-
-        return result;
-    }
-    
-    /**
-     * Analyzuje pole dat v textové podobě a převede je na pole bytů.
-     * 
-     * @param dataArray
-     * @param radix
-     * @return 
-     */
-    private static byte[] parseData(String[] dataArray, Radix radix) 
-            throws InvalidDataException {
-        if (dataArray.length == 0) {
-            return new byte[]{};
+        fillingDataText = true;
+        try {
+            // (nový základ se nastaví nad prázdným dokumentem)
+            dataTextArea.setText("");
+            dataTextTokenizer.setRadix(radix.getRadix());
+        } finally {
+            fillingDataText = false;
         }
-        log.debug("dataArray.length = " + dataArray.length);
-        
-        byte[] result = new byte[dataArray.length];
-        
-        for (int i=0; i<dataArray.length; i++) {
-            try {
-                int value = Integer.parseUnsignedInt(dataArray[i], radix.getRadix());
-                if (value > 0xFF) {
-                    log.warn("value = " + value);
-                    throw new InvalidDataException("value " + value + " > 0xFF");
-                }
-                result[i] = (byte) value;
-            } catch (NumberFormatException ex) {
-                //log.warn(ex.getMessage(), ex);
-                log.warn(ex.getMessage());
-                throw new InvalidDataException("Wrong number: \"" + dataArray[i] + "\"");
-            }
+        dataTextDirty = false;
+        if (data.length == 0) {
+            dataTextStale = false;
+            return;
         }
-        
-        return result;
+        dataTextStale = true;       // (do dokončení úlohy)
+        new FillDataTextTask(data, radix).start();
     }
-            
+    
     /**
-     * Načte binární soubor obsah zapíše v číselné podobě do 
-     * textového pole {@linkplain #dataTextArea}.
+     * Načte binární soubor do {@linkplain #dataModel} (zobrazí se 
+     * v mřížce {@linkplain #dataGrid}).
      * 
      * @see #loadDataBtn
      */
@@ -586,13 +657,7 @@ public class MainFrame {
 
             log.info("selectedFile = " + selectedFile.getName());
 
-            try {
-                loadBinaryFileAndFillDataArea(selectedFile);
-            } catch (IOException ex) {
-                log.warn(ex.getMessage(), ex);
-                JOptionPane.showMessageDialog(MainFrame.this.frame,
-                        ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            loadBinaryFileAndFillDataArea(selectedFile);
         }
         else {
             log.info("canceled");
@@ -600,43 +665,22 @@ public class MainFrame {
     }
             
     /**
+     * Spustí načítání souboru na pozadí ({@linkplain LoadDataTask}).
      * 
      * @param file
-     * @throws FileNotFoundException
-     * @throws IOException 
      * @throws IllegalArgumentException
      * @see #loadBinaryFileWithDialogs()
      */
-    private void loadBinaryFileAndFillDataArea(File file) 
-            throws FileNotFoundException, IOException {
+    private void loadBinaryFileAndFillDataArea(File file) {
         if (file == null) {
             throw new IllegalArgumentException("file=null");
         }
         log.info("file = " + file.getAbsolutePath());
         
-        int fileSize = (int) Files.size(file.toPath());
-        log.info("fileSize = " + fileSize);
-        
-        if (fileSize > selectedZxModel.getRamSize()) {
-            log.warn(file.getName() 
-                    + " is too big (" + fileSize + " B > " 
-                    + selectedZxModel.getRamSize() + " B)");
-            throw new IOException("File " + file.getName() 
-                    + " is too big (" + fileSize + " B > " 
-                    + selectedZxModel.getRamSize() + " B)");
-        }
-            
-        Radix selectedRadix = (Radix) dataRadixCombo.getSelectedItem();
-
-        byte[] data = Files.readAllBytes(file.toPath());
-        
-        fillDataToInputTextArea(data, selectedRadix);
-     
-        log.info(file.getName() + " loaded");
-        JOptionPane.showMessageDialog(frame,
-                getLocText("gui.mainframe.ok.data_loaded", file.getName(), data.length),
-                getLocText("success"),
-                JOptionPane.INFORMATION_MESSAGE);
+        dataTabs.setSelectedComponent(dataGridScrollPane);
+        LoadDataTask task = new LoadDataTask(file, selectedZxModel.getRamSize());
+        dataModel.setData(ByteBuffer.allocate(0));
+        task.start();
     }
         
     /**
@@ -727,7 +771,8 @@ public class MainFrame {
     
     /**
      * Ze všech zadaných dat Sestaví TAP soubor.
-     * Zobrazí všechny potřebné dialogy.
+     * Zobrazí všechny potřebné dialogy; soubor se zapisuje na pozadí
+     * ({@linkplain CreateTapTask}).
      * <p>
      * viz též {@linkplain Data2tapCli#executeCliOpts()}.
      */
@@ -757,11 +802,10 @@ public class MainFrame {
                     getLocText("error"), JOptionPane.ERROR_MESSAGE);            
         }
         
-        Radix selectedRadix = (Radix) dataRadixCombo.getSelectedItem();
-        
         byte[] inputFileContent;
         try {
-            inputFileContent = parseDataInInputTextArea(selectedRadix);
+            updateDataModelFromText();
+            inputFileContent = dataModel.toByteArray();
         }
         catch (InvalidDataException idex) {
             //log.warn(idex.getMessage(), idex);
@@ -795,42 +839,11 @@ public class MainFrame {
             return;
         }
                 
-        // --- 3. vytvoření TAP souboru        
-        data2tap.setModel(selectedZxModel);
-        data2tap.setTapBlockType((TapBlockType)typeCombo.getSelectedItem());
-        data2tap.setName(name);
-        data2tap.setAddress(address);
-        data2tap.setRawData(inputFileContent);
-        data2tap.setOutTapFile(outTapFile);
-        
-        try {
-            data2tap.execute();
-
-            if (outTapFile.exists() && outTapFile.isFile()) {
-                log.info(outTapFile.getName() + " successfully created");
-                log.info("Data size = " + inputFileContent.length + " B");
-                log.info("File size = " + outTapFile.length() + " B");
-                log.debug("-----------------------");                
-                JOptionPane.showMessageDialog(frame,
-                        getLocText("gui.mainframe.ok.outfile_created", 
-                                outTapFile.getName(), inputFileContent.length, outTapFile.length()),
-                        getLocText("success"), JOptionPane.INFORMATION_MESSAGE);                
-            }
-            else {
-                log.warn(outTapFile.getName() + " doesn't exist");
-                JOptionPane.showMessageDialog(MainFrame.this.frame,
-                        getLocText("gui.mainframe.err.general.unexpected"), 
-                        getLocText("error"), JOptionPane.ERROR_MESSAGE); 
-            }
-        } catch (InvalidDataException | IOException ex) {
-            log.warn(ex.getMessage(), ex);
-            JOptionPane.showMessageDialog(MainFrame.this.frame,
-                    ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);            
-        } catch (Exception ex) {
-            log.warn(ex.getMessage(), ex);
-            JOptionPane.showMessageDialog(MainFrame.this.frame,
-                    ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        // --- 3. vytvoření TAP souboru (na pozadí)
+        TapBlockSpec block = new TapBlockSpec(
+                (TapBlockType) typeCombo.getSelectedItem(), name, address, 
+                inputFileContent);
+        new CreateTapTask(selectedZxModel, block, outTapFile).start();
     }
 
     /**
@@ -864,37 +877,48 @@ public class MainFrame {
     }
 
     /**
-     * Rozdělí data v textové podobě v {@linkplain #dataTextArea} na 
-     * jednotlivé prvky.
-     * <p>
-     * např. {@literal " 24 60,90" -> ["24","60","90"]}
+     * Povolí/zakáže ovládací prvky, které mění data (během úlohy na pozadí).
      * 
-     * @return 
+     * @param enabled 
+     * @see BackgroundTask
      */
-    private String[] splitDataInInputTextField() {
-        String rawData = dataTextArea.getText().trim();
-        return splitDataText(rawData);
+    private void setDataControlsEnabled(boolean enabled) {
+        modelCombo.setEnabled(enabled);
+        dataRadixCombo.setEnabled(enabled);
+        loadDataBtn.setEnabled(enabled);
+        createTapBtn.setEnabled(enabled);
+        dataTabs.setEnabled(enabled);
+        dataGrid.setEnabled(enabled);
+        dataTextArea.setEditable(enabled);
+        cancelTaskBtn.setEnabled(! enabled);
     }
-    
+
+    // -------------------------------------------------------------------------
     /**
-     * Rozdělí data v textové podobě na jednotlivé prvky.
-     * <p>
-     * např. {@literal " 24 60,90" -> ["24","60","90"]}
-     * 
-     * @param data
-     * @return 
+     * Ctrl+Z / Ctrl+Y pro zadaný {@link UndoManager}.
      */
-    private static String[] splitDataText(String data) {
-        if (data.isEmpty()) {
-            return new String[]{};
-        }
-        String[] dataArray = data.split("[,.;\\s\\r\\n]+");
-        //log.debug("dataArray = " + Arrays.toString(dataArray));
-        log.info("dataArray.length = " + dataArray.length);
-        return dataArray;
-    }
+    private static class UndoKeyListener extends KeyAdapter {
+        private final UndoManager undoManager;
+
+        UndoKeyListener(UndoManager undoManager) {
+            this.undoManager = undoManager;
+        }
+
+        @Override
+        public void keyPressed(KeyEvent e) {
+            if (e.isControlDown() && e.getKeyCode() == KeyEvent.VK_Z) {
+                if (undoManager.canUndo()) {
+                    undoManager.undo();
+                }
+            }
+            if (e.isControlDown() && e.getKeyCode() == KeyEvent.VK_Y) {
+                if (undoManager.canRedo()) {
+                    undoManager.redo();
+                }
+            }
+        }
+    }   // UndoKeyListener
 
-    // -------------------------------------------------------------------------
     /**
      * 
      * @see #dataRadixCombo
@@ -960,5 +984,478 @@ public class MainFrame {
             }
         } 
     }   // ChangeDataRadixItemListener
+
+    // -------------------------------------------------------------------------
+    /**
+     * Úloha na pozadí s průběhem v {@linkplain #taskProgressBar}, 
+     * kterou lze zrušit tlačítkem {@linkplain #cancelTaskBtn}.
+     * Po dobu běhu jsou ovládací prvky pro práci s daty zakázané.
+     * <p>
+     * Části výsledku se předávají do EDT přes {@link #publishChunk(Object)}
+     * a zpracují v {@link #processChunk(Object)}; {@link #finished()} se 
+     * zavolá (v EDT) až po zpracování všech částí, nebo po zrušení, až 
+     * skončí vlákno úlohy ({@link #runInBackground()}). Do té doby zůstanou
+     * ovládací prvky zakázané. Části došlé po zrušení se zahodí.
+     */
+    private abstract class BackgroundTask<T, V> extends SwingWorker<T, V> {
+        private static final int WORKER_NOT_STARTED = 0;
+        private static final int WORKER_RUNNING = 1;
+        private static final int WORKER_EXITED = 2;
+
+        private final AtomicInteger publishedCount = new AtomicInteger();
+        private final AtomicInteger workerState = 
+                new AtomicInteger(WORKER_NOT_STARTED);
+        private final Object commitLock = new Object();
+        private boolean committed = false;
+        private int processedCount = 0;
+        private boolean doneCalled = false;
+        private boolean finishedCalled = false;
+
+        /**
+         * Spustí úlohu (v EDT).
+         * 
+         * @throws IllegalStateException  pokud už běží jiná úloha
+         */
+        void start() {
+            if (runningTask != null) {
+                throw new IllegalStateException("runningTask = " + runningTask);
+            }
+            runningTask = this;
+            setDataControlsEnabled(false);
+            taskProgressBar.setValue(0);
+            taskProgressBar.setStringPainted(true);
+            addPropertyChangeListener(new PropertyChangeListener() {
+                @Override
+                public void propertyChange(PropertyChangeEvent evt) {
+                    if ("progress".equals(evt.getPropertyName())) {
+                        taskProgressBar.setValue((Integer) evt.getNewValue());
+                    }
+                }
+            });
+            execute();
+        }
+
+        /**
+         * Zruší úlohu (v EDT), pokud ještě nepotvrdila výsledek 
+         * ({@link #commit()}).
+         */
+        void requestCancel() {
+            synchronized (commitLock) {
+                if (! committed) {
+                    cancel(true);
+                }
+            }
+        }
+
+        /**
+         * Potvrdí výsledek: od této chvíle už úlohu nelze zrušit.
+         * (volat z {@link #runInBackground()} před nevratnou změnou)
+         * 
+         * @return  {@code false}, pokud už byla úloha zrušena
+         */
+        protected final boolean commit() {
+            synchronized (commitLock) {
+                if (isCancelled()) {
+                    return false;
+                }
+                committed = true;
+                return true;
+            }
+        }
+
+        @Override
+        protected final T doInBackground() throws Exception {
+            if (! workerState.compareAndSet(WORKER_NOT_STARTED, WORKER_RUNNING)) {
+                return null;    // (zrušeno před spuštěním)
+            }
+            try {
+                return runInBackground();
+            } finally {
+                workerState.set(WORKER_EXITED);
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (doneCalled && isCancelled() && ! finishedCalled) {
+                            finish();
+                        }
+                    }
+                });
+            }
+        }
+
+        /**
+         * Vlastní práce úlohy (ve vlákně na pozadí).
+         * 
+         * @return
+         * @throws Exception 
+         */
+        protected abstract T runInBackground() throws Exception;
+
+        /**
+         * (volat z {@link #runInBackground()})
+         * 
+         * @param chunk 
+         */
+        protected final void publishChunk(V chunk) {
+            publishedCount.incrementAndGet();
+            publish(chunk);
+        }
+
+        @Override
+        protected final void process(List<V> chunks) {
+            if (isCancelled() || finishedCalled) {
+                return;
+            }
+            for (V chunk : chunks) {
+                processChunk(chunk);
+                processedCount++;
+            }
+            if (doneCalled && processedCount == publishedCount.get()) {
+                finish();
+            }
+        }
+
+        @Override
+        protected final void done() {
+            doneCalled = true;
+            if (isCancelled()) {
+                // (po zrušení až skončí vlákno úlohy, viz doInBackground())
+                if (workerState.compareAndSet(WORKER_NOT_STARTED, WORKER_EXITED)
+                        || workerState.get() == WORKER_EXITED) {
+                    finish();
+                }
+                return;
+            }
+            if (processedCount == publishedCount.get()) {
+                finish();
+            }
+            // (jinak se dokončí po zpracování zbývajících částí v process())
+        }
+
+        private void finish() {
+            finishedCalled = true;
+            runningTask = null;
+            setDataControlsEnabled(true);
+            taskProgressBar.setValue(0);
+            taskProgressBar.setStringPainted(false);
+            finished();
+        }
+
+        /**
+         * Zpracuje část výsledku (v EDT).
+         * 
+         * @param chunk 
+         */
+        protected void processChunk(V chunk) {
+        }
+
+        /**
+         * Zpracuje výsledek úlohy, chybu nebo zrušení (v EDT).
+         */
+        protected abstract void finished();
+
+        /**
+         * 
+         * @return  výjimka z {@link #runInBackground()}
+         */
+        protected Throwable getFailure() {
+            try {
+                get();
+                return null;
+            } catch (ExecutionException ex) {
+                return ex.getCause();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return ex;
+            }
+        }
+
+        /**
+         * 
+         * @param failure 
+         */
+        protected void showFailure(Throwable failure) {
+            log.warn(failure.getMessage(), failure);
+            JOptionPane.showMessageDialog(MainFrame.this.frame,
+                    failure.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }   // BackgroundTask
+
+    /**
+     * Načte binární soubor po částech do {@linkplain #dataModel}.
+     * Při chybě nebo zrušení se obnoví původní data.
+     * 
+     * @see #loadBinaryFileAndFillDataArea(java.io.File) 
+     */
+    private class LoadDataTask extends BackgroundTask<Integer, ByteBuffer> {
+        private static final int CHUNK_SIZE = 4096;
+        
+        private final File file;
+        private final int maxSize;
+        private final byte[] previousData = dataModel.toByteArray();
+
+        LoadDataTask(File file, int maxSize) {
+            this.file = file;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected Integer runInBackground() throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), 
+                    StandardOpenOption.READ)) {
+                long fileSize = channel.size();
+                log.info("fileSize = " + fileSize);
+                if (fileSize > maxSize) {
+                    log.warn(file.getName() 
+                            + " is too big (" + fileSize + " B > " 
+                            + maxSize + " B)");
+                    throw new IOException("File " + file.getName() 
+                            + " is too big (" + fileSize + " B > " 
+                            + maxSize + " B)");
+                }
+                int size = (int) fileSize;
+                int loaded = 0;
+                while (loaded < size && ! isCancelled()) {
+                    ByteBuffer chunk = ByteBuffer.allocate(
+                            Math.min(CHUNK_SIZE, size - loaded));
+                    while (chunk.hasRemaining()) {
+                        if (channel.read(chunk) < 0) {
+                            throw new EOFException(file.getName());
+                        }
+                    }
+                    chunk.flip();
+                    loaded += chunk.remaining();
+                    publishChunk(chunk);
+                    setProgress((int) (100L * loaded / size));
+                }
+                return loaded;
+            }
+        }
+
+        @Override
+        protected void processChunk(ByteBuffer chunk) {
+            dataModel.appendData(chunk);
+        }
+
+        @Override
+        protected void finished() {
+            if (isCancelled()) {
+                log.info("canceled");
+                dataModel.setData(ByteBuffer.wrap(previousData));
+                return;
+            }
+            Throwable failure = getFailure();
+            if (failure != null) {
+                dataModel.setData(ByteBuffer.wrap(previousData));
+                showFailure(failure);
+                return;
+            }
+            dataGridUndoManager.discardAllEdits();
+            dataTextStale = true;
+            dataTextDirty = false;
+            // (záložka Text zůstane vybraná, pokud v ní byla chyba)
+            if (isDataTextTabSelected()) {
+                fillDataToInputTextArea(dataModel.toByteArray(),
+                        (Radix) dataRadixCombo.getSelectedItem());
+            }
+
+            log.info(file.getName() + " loaded");
+            JOptionPane.showMessageDialog(frame,
+                    getLocText("gui.mainframe.ok.data_loaded", 
+                            file.getName(), dataModel.getSize()),
+                    getLocText("success"),
+                    JOptionPane.INFORMATION_MESSAGE);
+        }
+    }   // LoadDataTask
+
+    /**
+     * Formátuje data na text po částech a přidává je na konec dokumentu
+     * {@linkplain #dataTextArea}. Při chybě nebo zrušení se text vyprázdní
+     * a zobrazí se mřížka.
+     * 
+     * @see #fillDataToInputTextArea(byte[], cz.mp.zxs.tools.data2tap.gui.MainFrame.Radix) 
+     */
+    private class FillDataTextTask extends BackgroundTask<Void, String> {
+        /** (násobek 256 i 80, aby se části formátovaly stejně jako celek,
+         *  viz {@link DataTextFormat#format(ByteBuffer, int)}) */
+        private static final int CHUNK_SIZE = 5 * 1024;
+
+        private final byte[] data;
+        private final Radix radix;
+
+        FillDataTextTask(byte[] data, Radix radix) {
+            this.data = data;
+            this.radix = radix;
+        }
+
+        @Override
+        protected Void runInBackground() {
+            for (int offset = 0; offset < data.length && ! isCancelled(); 
+                    offset += CHUNK_SIZE) {
+                int length = Math.min(CHUNK_SIZE, data.length - offset);
+                publishChunk(DataTextFormat.format(
+                        ByteBuffer.wrap(data, offset, length), radix.getRadix()));
+                setProgress((int) (100L * (offset + length) / data.length));
+            }
+            return null;
+        }
+
+        @Override
+        protected void processChunk(String text) {
+            fillingDataText = true;
+            try {
+                Document document = dataTextArea.getDocument();
+                document.insertString(document.getLength(), text, null);
+            } catch (BadLocationException ex) {
+                throw new IllegalStateException(ex);
+            } finally {
+                fillingDataText = false;
+            }
+        }
+
+        @Override
+        protected void finished() {
+            Throwable failure = isCancelled() ? null : getFailure();
+            if (isCancelled() || failure != null) {
+                log.info(failure == null ? "canceled" : failure.getMessage());
+                fillingDataText = true;
+                try {
+                    dataTextArea.setText("");
+                } finally {
+                    fillingDataText = false;
+                }
+                dataTextAreaUndoManager.discardAllEdits();
+                dataTabs.setSelectedComponent(dataGridScrollPane);
+                if (failure != null) {
+                    showFailure(failure);
+                }
+                return;
+            }
+            dataTextStale = false;
+            dataTextDirty = false;
+            dataTextAreaUndoManager.discardAllEdits();
+            dataTextArea.setCaretPosition(0);
+        }
+    }   // FillDataTextTask
+
+    /**
+     * Vytvoří TAP soubor. Zapisuje se do dočasného souboru ve stejném 
+     * adresáři, který po dokončení nahradí výstupní soubor; po zrušení 
+     * nebo chybě zůstane případný původní soubor beze změny.
+     * 
+     * @see #createTapFileWithDialogs() 
+     */
+    private class CreateTapTask extends BackgroundTask<Long, Void> {
+        /** (největší počet bytů zapsaných najednou, kvůli průběhu) */
+        private static final int WRITE_CHUNK_SIZE = 4096;
+        /** (hlavička 2+19 B, datový blok 2+1+n+1 B) */
+        private static final int TAP_OVERHEAD = 25;
+
+        private final ZxModel model;
+        private final TapBlockSpec block;
+        private final File outTapFile;
+
+        CreateTapTask(ZxModel model, TapBlockSpec block, File outTapFile) {
+            this.model = model;
+            this.block = block;
+            this.outTapFile = outTapFile;
+        }
+
+        @Override
+        protected Long runInBackground() throws IOException, InvalidDataException {
+            File dir = outTapFile.getAbsoluteFile().getParentFile();
+            File tempFile = File.createTempFile(outTapFile.getName(), ".tmp", dir);
+            boolean moved = false;
+            try {
+                try (FileChannel channel = FileChannel.open(tempFile.toPath(), 
+                        StandardOpenOption.WRITE, 
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ENCODER.writeTo(new TapJob(model, block, null),
+                            new ProgressChannel(channel, 
+                                    block.getDataLength() + TAP_OVERHEAD));
+                }
+                // (po potvrzení už zrušení nezabrání přesunu)
+                if (! commit()) {
+                    return null;
+                }
+                Files.move(tempFile.toPath(), outTapFile.toPath(), 
+                        StandardCopyOption.REPLACE_EXISTING);
+                moved = true;
+            } finally {
+                if (! moved) {
+                    Files.deleteIfExists(tempFile.toPath());
+                }
+            }
+            return outTapFile.length();
+        }
+
+        @Override
+        protected void finished() {
+            if (isCancelled()) {
+                log.info("canceled");
+                return;
+            }
+            Throwable failure = getFailure();
+            if (failure != null) {
+                showFailure(failure);
+                return;
+            }
+            if (outTapFile.exists() && outTapFile.isFile()) {
+                log.info(outTapFile.getName() + " successfully created");
+                log.info("Data size = " + block.getDataLength() + " B");
+                log.info("File size = " + outTapFile.length() + " B");
+                log.debug("-----------------------");                
+                JOptionPane.showMessageDialog(frame,
+                        getLocText("gui.mainframe.ok.outfile_created", 
+                                outTapFile.getName(), block.getDataLength(), 
+                                outTapFile.length()),
+                        getLocText("success"), JOptionPane.INFORMATION_MESSAGE);                
+            }
+            else {
+                log.warn(outTapFile.getName() + " doesn't exist");
+                JOptionPane.showMessageDialog(MainFrame.this.frame,
+                        getLocText("gui.mainframe.err.general.unexpected"), 
+                        getLocText("error"), JOptionPane.ERROR_MESSAGE); 
+            }
+        }
+
+        /**
+         * Zapisuje po menších částech a hlásí průběh úlohy. Zrušení úlohy
+         * (přerušení vlákna) ukončí zápis výjimkou 
+         * {@link java.nio.channels.ClosedByInterruptException}.
+         */
+        private class ProgressChannel implements WritableByteChannel {
+            private final WritableByteChannel channel;
+            private final long expectedSize;
+            private long written = 0;
+
+            ProgressChannel(WritableByteChannel channel, long expectedSize) {
+                this.channel = channel;
+                this.expectedSize = expectedSize;
+            }
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                ByteBuffer part = src.duplicate();
+                part.limit(Math.min(src.limit(), 
+                        src.position() + WRITE_CHUNK_SIZE));
+                int n = channel.write(part);
+                src.position(src.position() + n);
+                written += n;
+                setProgress((int) Math.min(100, 100 * written / expectedSize));
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        }   // ProgressChannel
+    }   // CreateTapTask
     
 }   // MainFrame.java
@@ -0,0 +1,522 @@
+/*
+ * ByteGrid.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.gui.component;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.event.FocusEvent;
+import java.awt.event.FocusListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import javax.swing.JComponent;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.UIManager;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+
+/**
+ * Mřížka bytů (hexadecimálně nebo dekadicky) s editací, 
+ * nad {@linkplain ByteGridModel}.
+ * <p>
+ * Vykreslují se jen viditelné řádky; text řádku se skládá z předem 
+ * připravených tabulek znaků do jednoho {@code char[]} a kreslí se 
+ * {@link Graphics#drawChars}, tj. bez objektů {@code String} pro každý 
+ * byte. Doba vykreslení tak nezávisí na velikosti dat.
+ * <p>
+ * Ovládání: číslice přepisují byte pod kurzorem (za posledním bytem 
+ * přidávají), šipky, Home/End, PageUp/PageDown posouvají kurzor, 
+ * Insert vloží 0, Delete a Backspace byte odstraní.
+ *
+ * @author Martin Pokorný
+ * @see ByteGridModel
+ */
+public class ByteGrid extends JComponent implements Scrollable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int BYTES_PER_ROW = 16;
+
+    /** "00" až "FF" */
+    private static final char[] HEX_CHARS = new char[256 * 2];
+    /** "  0" až "255" */
+    private static final char[] DEC_CHARS = new char[256 * 3];
+    static {
+        String digits = "0123456789ABCDEF";
+        for (int i = 0; i < 256; i++) {
+            HEX_CHARS[i * 2] = digits.charAt(i >> 4);
+            HEX_CHARS[i * 2 + 1] = digits.charAt(i & 0xF);
+            DEC_CHARS[i * 3] = i >= 100 ? digits.charAt(i / 100) : ' ';
+            DEC_CHARS[i * 3 + 1] = i >= 10 ? digits.charAt(i / 10 % 10) : ' ';
+            DEC_CHARS[i * 3 + 2] = digits.charAt(i % 10);
+        }
+    }
+
+    /** mezera mezi adresou a daty (ve znacích) */
+    private static final int ADDRESS_GAP = 2;
+
+    private ByteGridModel model;
+    private int radix = 16;
+
+    /** pozice kurzoru ({@code 0} až {@code model.getSize()}) */
+    private int cursor = 0;
+    /** rozepsaná hodnota pod kurzorem */
+    private int pendingValue = 0;
+    private int pendingDigits = 0;
+    /** (změny modelu z {@linkplain #typeDigit} nepřeruší rozepsanou hodnotu) */
+    private boolean typing = false;
+
+    /** znaky jednoho řádku (viz {@linkplain #formatRow}) */
+    private char[] lineBuffer = new char[0];
+
+    private final ChangeListener modelListener = new ChangeListener() {
+        @Override
+        public void stateChanged(ChangeEvent e) {
+            if (cursor > model.getSize()) {
+                cursor = model.getSize();
+            }
+            if (! typing) {
+                pendingDigits = 0;
+            }
+            revalidate();
+            repaint();
+        }
+    };
+
+    /**
+     *
+     * @param model
+     * @throws IllegalArgumentException
+     */
+    public ByteGrid(ByteGridModel model) {
+        setModel(model);
+        setFocusable(true);
+        setOpaque(true);
+        setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        setBackground(UIManager.getColor("TextArea.background"));
+        setForeground(UIManager.getColor("TextArea.foreground"));
+        addKeyListener(new GridKeyListener());
+        addFocusListener(new FocusListener() {
+            @Override
+            public void focusGained(FocusEvent e) {
+                repaint(getCellBounds(cursor));
+            }
+
+            @Override
+            public void focusLost(FocusEvent e) {
+                pendingDigits = 0;
+                repaint(getCellBounds(cursor));
+            }
+        });
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                int index = indexAt(e.getX(), e.getY());
+                if (index >= 0) {
+                    moveCursorTo(index);
+                }
+            }
+        });
+    }
+
+    /**
+     *
+     * @param model
+     * @throws IllegalArgumentException
+     */
+    public final void setModel(ByteGridModel model) {
+        if (model == null) {
+            throw new IllegalArgumentException("model = null");
+        }
+        if (this.model != null) {
+            this.model.removeChangeListener(modelListener);
+        }
+        this.model = model;
+        model.addChangeListener(modelListener);
+        cursor = 0;
+        pendingDigits = 0;
+        revalidate();
+        repaint();
+    }
+
+    public ByteGridModel getModel() {
+        return model;
+    }
+
+    /**
+     *
+     * @param radix  {@code 10} nebo {@code 16}
+     * @throws IllegalArgumentException
+     */
+    public void setRadix(int radix) {
+        if (radix != 10 && radix != 16) {
+            throw new IllegalArgumentException("unsupported radix");
+        }
+        this.radix = radix;
+        pendingDigits = 0;
+        revalidate();
+        repaint();
+    }
+
+    public int getRadix() {
+        return radix;
+    }
+
+    /**
+     *
+     * @return  pozice kurzoru ({@code 0} až velikost dat)
+     */
+    public int getCaretIndex() {
+        return cursor;
+    }
+
+    // ----- geometrie (ve znacích)
+
+    private int getCellChars() {
+        return radix == 16 ? 2 : 3;
+    }
+
+    private int getAddressChars() {
+        return radix == 16 ? 4 : 5;
+    }
+
+    /**
+     * 
+     * @return  počet znaků řádku
+     */
+    int getLineChars() {
+        return getAddressChars() + ADDRESS_GAP 
+                + BYTES_PER_ROW * (getCellChars() + 1);
+    }
+
+    /**
+     * 
+     * @param column
+     * @return  první znak buňky v řádku
+     */
+    private int getCellStart(int column) {
+        return getAddressChars() + ADDRESS_GAP + column * (getCellChars() + 1);
+    }
+
+    /**
+     * 
+     * @return  počet řádků (vždy aspoň jeden, kvůli pozici za koncem dat)
+     */
+    private int getRowCount() {
+        return model.getSize() / BYTES_PER_ROW + 1;
+    }
+
+    private int getRowHeight() {
+        return getFontMetrics(getFont()).getHeight();
+    }
+
+    private int getCharWidth() {
+        return getFontMetrics(getFont()).charWidth('0');
+    }
+
+    /**
+     * Zapíše znaky řádku do {@code buffer}.
+     *
+     * @param row
+     * @param buffer  aspoň {@linkplain #getLineChars()} znaků
+     * @return  počet zapsaných znaků
+     */
+    int formatRow(int row, char[] buffer) {
+        int size = model.getSize();
+        byte[] data = model.getArray();
+        int start = row * BYTES_PER_ROW;
+        int length = Math.max(0, Math.min(BYTES_PER_ROW, size - start));
+
+        // adresa (offset)
+        int address = start;
+        for (int i = getAddressChars() - 1; i >= 0; i--) {
+            buffer[i] = Character.forDigit(address % radix, radix);
+            address /= radix;
+        }
+        int pos = getAddressChars();
+        for (int i = 0; i < ADDRESS_GAP; i++) {
+            buffer[pos++] = ' ';
+        }
+
+        char[] table = radix == 16 ? HEX_CHARS : DEC_CHARS;
+        int cellChars = getCellChars();
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(table, (data[start + i] & 0xFF) * cellChars, 
+                    buffer, pos, cellChars);
+            pos += cellChars;
+            buffer[pos++] = ' ';
+        }
+        return pos;
+    }
+
+    /**
+     * 
+     * @param x
+     * @param y
+     * @return  index bytu (nebo pozice za koncem dat) na souřadnicích,
+     *      nebo {@code -1}
+     */
+    private int indexAt(int x, int y) {
+        Insets insets = getInsets();
+        int row = (y - insets.top) / getRowHeight();
+        int charIndex = (x - insets.left) / getCharWidth() 
+                - getAddressChars() - ADDRESS_GAP;
+        if (row < 0 || charIndex < 0) {
+            return -1;
+        }
+        int column = Math.min(BYTES_PER_ROW - 1, charIndex / (getCellChars() + 1));
+        return Math.min(model.getSize(), row * BYTES_PER_ROW + column);
+    }
+
+    /**
+     * 
+     * @param index
+     * @return  obdélník buňky
+     */
+    private Rectangle getCellBounds(int index) {
+        Insets insets = getInsets();
+        int charWidth = getCharWidth();
+        int rowHeight = getRowHeight();
+        int row = index / BYTES_PER_ROW;
+        int column = index % BYTES_PER_ROW;
+        return new Rectangle(
+                insets.left + getCellStart(column) * charWidth, 
+                insets.top + row * rowHeight, 
+                getCellChars() * charWidth, rowHeight);
+    }
+
+    // ----- vykreslení
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        }
+
+        g.setFont(getFont());
+        FontMetrics fm = g.getFontMetrics();
+        Insets insets = getInsets();
+        int rowHeight = fm.getHeight();
+        int firstRow = Math.max(0, (clip.y - insets.top) / rowHeight);
+        int lastRow = Math.min(getRowCount() - 1, 
+                (clip.y + clip.height - insets.top) / rowHeight);
+
+        if (hasFocus()) {
+            Rectangle cell = getCellBounds(cursor);
+            g.setColor(UIManager.getColor("TextArea.selectionBackground"));
+            g.fillRect(cell.x, cell.y, cell.width, cell.height);
+        }
+        else {
+            Rectangle cell = getCellBounds(cursor);
+            g.setColor(Color.GRAY);
+            g.drawRect(cell.x, cell.y, cell.width - 1, cell.height - 1);
+        }
+
+        int lineChars = getLineChars();
+        if (lineBuffer.length < lineChars) {
+            lineBuffer = new char[lineChars];
+        }
+        g.setColor(getForeground());
+        for (int row = firstRow; row <= lastRow; row++) {
+            int length = formatRow(row, lineBuffer);
+            g.drawChars(lineBuffer, 0, length, insets.left, 
+                    insets.top + row * rowHeight + fm.getAscent());
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        Insets insets = getInsets();
+        return new Dimension(
+                getLineChars() * getCharWidth() + insets.left + insets.right,
+                getRowCount() * getRowHeight() + insets.top + insets.bottom);
+    }
+
+    // ----- Scrollable
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, 
+            int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL 
+                ? getRowHeight() : getCharWidth();
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, 
+            int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL 
+                ? Math.max(getRowHeight(), visibleRect.height - getRowHeight()) 
+                : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return getParent() != null 
+                && getParent().getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() != null 
+                && getParent().getHeight() > getPreferredSize().height;
+    }
+
+    // ----- editace
+
+    /**
+     * 
+     * @param index  (omezí se na {@code 0} až velikost dat)
+     */
+    private void moveCursorTo(int index) {
+        int newCursor = Math.max(0, Math.min(model.getSize(), index));
+        pendingDigits = 0;
+        if (newCursor != cursor) {
+            repaint(getCellBounds(cursor));
+            cursor = newCursor;
+        }
+        Rectangle cell = getCellBounds(cursor);
+        repaint(cell);
+        scrollRectToVisible(cell);
+    }
+
+    /**
+     * Zpracuje napsanou číslici: doplní ji k rozepsané hodnotě pod 
+     * kurzorem; po dokončení bytu se kurzor posune.
+     * 
+     * @param digit
+     */
+    void typeDigit(int digit) {
+        typing = true;
+        try {
+            typeDigitImpl(digit);
+        } finally {
+            typing = false;
+        }
+    }
+
+    private void typeDigitImpl(int digit) {
+        int value = pendingValue * radix + digit;
+        if (pendingDigits == 0 || value > 0xFF) {
+            if (pendingDigits > 0) {        // (nevejde se, začne další byte)
+                cursor++;
+            }
+            value = digit;
+            pendingDigits = 0;
+            if (cursor == model.getSize()) {
+                model.insert(cursor, (byte) value);
+            }
+            else {
+                model.set(cursor, (byte) value);
+            }
+        }
+        else {
+            model.set(cursor, (byte) value);
+        }
+        pendingValue = value;
+        pendingDigits++;
+
+        if (pendingDigits == getCellChars() || value * radix > 0xFF) {
+            moveCursorTo(cursor + 1);
+        }
+        else {
+            scrollRectToVisible(getCellBounds(cursor));
+        }
+    }
+
+    /** */
+    private class GridKeyListener extends KeyAdapter {
+
+        @Override
+        public void keyTyped(KeyEvent e) {
+            if (e.isControlDown() || e.isAltDown()) {
+                return;
+            }
+            int digit = Character.digit(e.getKeyChar(), radix);
+            if (digit >= 0) {
+                typeDigit(digit);
+                e.consume();
+            }
+        }
+
+        @Override
+        public void keyPressed(KeyEvent e) {
+            int rowsPerPage = Math.max(1, 
+                    getVisibleRect().height / getRowHeight() - 1);
+            switch (e.getKeyCode()) {
+                case KeyEvent.VK_LEFT:
+                    moveCursorTo(cursor - 1);
+                    break;
+                case KeyEvent.VK_RIGHT:
+                    moveCursorTo(cursor + 1);
+                    break;
+                case KeyEvent.VK_UP:
+                    moveCursorTo(cursor - BYTES_PER_ROW);
+                    break;
+                case KeyEvent.VK_DOWN:
+                    moveCursorTo(cursor + BYTES_PER_ROW);
+                    break;
+                case KeyEvent.VK_PAGE_UP:
+                    moveCursorTo(cursor - rowsPerPage * BYTES_PER_ROW);
+                    break;
+                case KeyEvent.VK_PAGE_DOWN:
+                    moveCursorTo(cursor + rowsPerPage * BYTES_PER_ROW);
+                    break;
+                case KeyEvent.VK_HOME:
+                    moveCursorTo(e.isControlDown() 
+                            ? 0 : cursor - cursor % BYTES_PER_ROW);
+                    break;
+                case KeyEvent.VK_END:
+                    moveCursorTo(e.isControlDown() ? model.getSize() 
+                            : cursor - cursor % BYTES_PER_ROW + BYTES_PER_ROW - 1);
+                    break;
+                case KeyEvent.VK_INSERT:
+                    model.insert(cursor, (byte) 0);
+                    moveCursorTo(cursor);
+                    break;
+                case KeyEvent.VK_DELETE:
+                    if (cursor < model.getSize()) {
+                        model.remove(cursor);
+                        moveCursorTo(cursor);
+                    }
+                    break;
+                case KeyEvent.VK_BACK_SPACE:
+                    if (cursor > 0) {
+                        model.remove(cursor - 1);
+                        moveCursorTo(cursor - 1);
+                    }
+                    break;
+                default:
+                    return;
+            }
+            e.consume();
+        }
+    }   // GridKeyListener
+
+}   // ByteGrid.java
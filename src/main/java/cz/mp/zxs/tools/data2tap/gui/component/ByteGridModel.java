@@ -0,0 +1,305 @@
+/*
+ * ByteGridModel.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.gui.component;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.event.UndoableEditListener;
+import javax.swing.undo.AbstractUndoableEdit;
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import javax.swing.undo.UndoableEdit;
+
+
+/**
+ * Data pro {@linkplain ByteGrid}: rostoucí pole bytů.
+ * <p>
+ * Každá změna upozorní {@link ChangeListener}y; změny z editace 
+ * ({@linkplain #set}, {@linkplain #insert}, {@linkplain #remove}) se navíc
+ * posílají jako {@link UndoableEdit} (např. do 
+ * {@link javax.swing.undo.UndoManager}), {@linkplain #setData} ne.
+ *
+ * @author Martin Pokorný
+ * @see ByteGrid
+ */
+public class ByteGridModel {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private byte[] data = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private final EventListenerList listenerList = new EventListenerList();
+    private final ChangeEvent changeEvent = new ChangeEvent(this);
+
+    /** */
+    public ByteGridModel() {
+    }
+
+    /**
+     *
+     * @return  počet bytů
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     *
+     * @param index
+     * @return
+     * @throws IndexOutOfBoundsException
+     */
+    public byte get(int index) {
+        checkIndex(index, size);
+        return data[index];
+    }
+
+    /**
+     * Přímý přístup k datům pro vykreslování (nekopíruje se).
+     * Platné jsou jen byty {@code 0} až {@code getSize()-1}; pole se 
+     * při změně velikosti může vyměnit.
+     *
+     * @return
+     */
+    byte[] getArray() {
+        return data;
+    }
+
+    /**
+     * Nahradí všechna data (bez záznamu pro undo).
+     *
+     * @param newData  data od pozice do limitu; pozice se nemění
+     * @throws IllegalArgumentException
+     */
+    public void setData(ByteBuffer newData) {
+        if (newData == null) {
+            throw new IllegalArgumentException("newData = null");
+        }
+        int length = newData.remaining();
+        data = new byte[Math.max(INITIAL_CAPACITY, length)];
+        newData.duplicate().get(data, 0, length);
+        size = length;
+        fireStateChanged();
+    }
+
+    /**
+     * Přidá data na konec (bez záznamu pro undo).
+     *
+     * @param moreData  data od pozice do limitu; pozice se nemění
+     * @throws IllegalArgumentException
+     */
+    public void appendData(ByteBuffer moreData) {
+        if (moreData == null) {
+            throw new IllegalArgumentException("moreData = null");
+        }
+        int length = moreData.remaining();
+        if (size + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(size + length, data.length * 2));
+        }
+        moreData.duplicate().get(data, size, length);
+        size += length;
+        fireStateChanged();
+    }
+
+    /**
+     *
+     * @return  kopie dat
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    /**
+     *
+     * @param index
+     * @param value
+     * @throws IndexOutOfBoundsException
+     */
+    public void set(int index, byte value) {
+        checkIndex(index, size);
+        byte old = data[index];
+        if (old == value) {
+            return;
+        }
+        data[index] = value;
+        fireStateChanged();
+        fireUndoableEdit(new SetEdit(index, old, value));
+    }
+
+    /**
+     * Vloží byte na zadanou pozici (za poslední byte = přidá na konec).
+     *
+     * @param index
+     * @param value
+     * @throws IndexOutOfBoundsException
+     */
+    public void insert(int index, byte value) {
+        checkIndex(index, size + 1);
+        insertImpl(index, value);
+        fireStateChanged();
+        fireUndoableEdit(new InsertEdit(index, value));
+    }
+
+    /**
+     *
+     * @param index
+     * @throws IndexOutOfBoundsException
+     */
+    public void remove(int index) {
+        checkIndex(index, size);
+        byte old = removeImpl(index);
+        fireStateChanged();
+        fireUndoableEdit(new RemoveEdit(index, old));
+    }
+
+    private void insertImpl(int index, byte value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        System.arraycopy(data, index, data, index + 1, size - index);
+        data[index] = value;
+        size++;
+    }
+
+    private byte removeImpl(int index) {
+        byte old = data[index];
+        System.arraycopy(data, index + 1, data, index, size - index - 1);
+        size--;
+        return old;
+    }
+
+    private static void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+    }
+
+    // -----
+
+    public void addChangeListener(ChangeListener listener) {
+        listenerList.add(ChangeListener.class, listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listenerList.remove(ChangeListener.class, listener);
+    }
+
+    public void addUndoableEditListener(UndoableEditListener listener) {
+        listenerList.add(UndoableEditListener.class, listener);
+    }
+
+    public void removeUndoableEditListener(UndoableEditListener listener) {
+        listenerList.remove(UndoableEditListener.class, listener);
+    }
+
+    private void fireStateChanged() {
+        for (ChangeListener listener 
+                : listenerList.getListeners(ChangeListener.class)) {
+            listener.stateChanged(changeEvent);
+        }
+    }
+
+    private void fireUndoableEdit(UndoableEdit edit) {
+        UndoableEditEvent event = new UndoableEditEvent(this, edit);
+        for (UndoableEditListener listener 
+                : listenerList.getListeners(UndoableEditListener.class)) {
+            listener.undoableEditHappened(event);
+        }
+    }
+
+    // -----
+
+    /** Přepsání jednoho bytu. */
+    private class SetEdit extends AbstractUndoableEdit {
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+        private final byte oldValue;
+        private final byte newValue;
+
+        SetEdit(int index, byte oldValue, byte newValue) {
+            this.index = index;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            super.undo();
+            data[index] = oldValue;
+            fireStateChanged();
+        }
+
+        @Override
+        public void redo() throws CannotRedoException {
+            super.redo();
+            data[index] = newValue;
+            fireStateChanged();
+        }
+    }
+
+    /** Vložení jednoho bytu. */
+    private class InsertEdit extends AbstractUndoableEdit {
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+        private final byte value;
+
+        InsertEdit(int index, byte value) {
+            this.index = index;
+            this.value = value;
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            super.undo();
+            removeImpl(index);
+            fireStateChanged();
+        }
+
+        @Override
+        public void redo() throws CannotRedoException {
+            super.redo();
+            insertImpl(index, value);
+            fireStateChanged();
+        }
+    }
+
+    /** Odstranění jednoho bytu. */
+    private class RemoveEdit extends AbstractUndoableEdit {
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+        private final byte value;
+
+        RemoveEdit(int index, byte value) {
+            this.index = index;
+            this.value = value;
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            super.undo();
+            insertImpl(index, value);
+            fireStateChanged();
+        }
+
+        @Override
+        public void redo() throws CannotRedoException {
+            super.redo();
+            removeImpl(index);
+            fireStateChanged();
+        }
+    }
+
+}   // ByteGridModel.java
@@ -0,0 +1,50 @@
+/*
+ * ConversionPhaseEvent.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Událost JFR pro jednu fázi převodu.
+ * <p>
+ * Třída se smí načíst jen pokud je JFR k dispozici; používat jen přes
+ * {@linkplain PhaseEvents}.
+ *
+ * @author Martin Pokorný
+ * @see PhaseEvents
+ */
+@Name(ConversionPhaseEvent.NAME)
+@Label("Conversion Phase")
+@Category({"ZX Spectrum", "data2tap"})
+@Description("One phase of a data to TAP conversion")
+@StackTrace(false)
+final class ConversionPhaseEvent extends Event {
+
+    static final String NAME = "cz.mp.zxs.tools.data2tap.ConversionPhase";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Payload Size")
+    @DataAmount
+    long payloadSize;
+
+    @Label("Model")
+    String model;
+
+    @Label("Output Path")
+    String outputPath;
+
+}   // ConversionPhaseEvent.java
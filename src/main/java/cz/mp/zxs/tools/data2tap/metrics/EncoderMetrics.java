@@ -0,0 +1,158 @@
+/*
+ * EncoderMetrics.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Počítadla a histogramy dob převodu ({@code Data2tap}) za celý běh 
+ * programu.
+ * <p>
+ * Zaznamenává se vždy (jen atomické operace); jako platformní MBean 
+ * {@value #OBJECT_NAME} se publikuje až voláním {@linkplain #register()},
+ * tj. jen v režimech, které mohou běžet dlouho ({@code --batch},
+ * {@code --watch}, {@code --serve}), aby se krátkým převodem jednoho
+ * souboru nenačítalo JMX.
+ *
+ * @author Martin Pokorný
+ * @see LatencyHistogram
+ */
+public final class EncoderMetrics implements EncoderMetricsMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EncoderMetrics.class);
+
+    public static final String OBJECT_NAME = 
+            "cz.mp.zxs.tools.data2tap:type=EncoderMetrics";
+
+    private static final EncoderMetrics INSTANCE = new EncoderMetrics();
+
+    private final AtomicLong blocksEncoded = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final LatencyHistogram buildLatency = new LatencyHistogram();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+
+    /** */
+    private EncoderMetrics() {
+    }
+
+    /**
+     *
+     * @return  metriky celého programu
+     */
+    public static EncoderMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Zaregistruje metriky v platformním {@link MBeanServer}
+     * (opakované volání nevadí).
+     */
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            log.info("registered " + OBJECT_NAME);
+        } catch (InstanceAlreadyExistsException ex) {
+            log.debug("already registered");
+        } catch (JMException | RuntimeException | LinkageError ex) {
+            // (např. runtime bez modulu java.management)
+            log.warn("can't register MBean: " + ex);
+        }
+    }
+
+    /**
+     * Úspěšné sestavení bloků.
+     *
+     * @param blocks
+     * @param dataBytes
+     * @param nanos
+     */
+    public void recordBuild(int blocks, long dataBytes, long nanos) {
+        blocksEncoded.addAndGet(blocks);
+        bytesIn.addAndGet(dataBytes);
+        buildLatency.record(nanos);
+    }
+
+    /**
+     *
+     * @param tapBytes
+     * @param nanos
+     */
+    public void recordWrite(long tapBytes, long nanos) {
+        bytesOut.addAndGet(tapBytes);
+        writeLatency.record(nanos);
+    }
+
+    /** */
+    public void recordValidationFailure() {
+        validationFailures.incrementAndGet();
+    }
+
+    /** */
+    public void recordCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    @Override
+    public long getBlocksEncoded() {
+        return blocksEncoded.get();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    @Override
+    public long getValidationFailures() {
+        return validationFailures.get();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    @Override
+    public LatencySnapshot getBuildLatency() {
+        return buildLatency.getSnapshot();
+    }
+
+    @Override
+    public LatencySnapshot getWriteLatency() {
+        return writeLatency.getSnapshot();
+    }
+
+    @Override
+    public void reset() {
+        blocksEncoded.set(0);
+        bytesIn.set(0);
+        bytesOut.set(0);
+        validationFailures.set(0);
+        cacheHits.set(0);
+        buildLatency.reset();
+        writeLatency.reset();
+    }
+
+}   // EncoderMetrics.java
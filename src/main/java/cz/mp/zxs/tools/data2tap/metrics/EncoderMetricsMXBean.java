@@ -0,0 +1,42 @@
+/*
+ * EncoderMetricsMXBean.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+
+/**
+ * JMX rozhraní {@linkplain EncoderMetrics}.
+ *
+ * @author Martin Pokorný
+ */
+public interface EncoderMetricsMXBean {
+
+    /** @return  počet zapsaných bloků (hlavička + tělo) */
+    long getBlocksEncoded();
+
+    /** @return  počet bytů vstupních dat */
+    long getBytesIn();
+
+    /** @return  počet zapsaných bytů TAP */
+    long getBytesOut();
+
+    /** @return  počet převodů odmítnutých kvůli chybným datům */
+    long getValidationFailures();
+
+    /** @return  počet převodů, kdy se TAP jen zkopíroval z cache */
+    long getCacheHits();
+
+    /** @return  doby sestavení hlaviček a bloků */
+    LatencySnapshot getBuildLatency();
+
+    /** @return  doby zápisu výstupu */
+    LatencySnapshot getWriteLatency();
+
+    /** Vynuluje všechny hodnoty. */
+    void reset();
+
+}   // EncoderMetricsMXBean.java
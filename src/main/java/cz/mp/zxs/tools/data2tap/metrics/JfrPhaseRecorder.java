@@ -0,0 +1,55 @@
+/*
+ * JfrPhaseRecorder.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+import cz.mp.zxs.tools.data2tap.metrics.PhaseEvents.Phase;
+import java.io.File;
+import jdk.jfr.FlightRecorder;
+
+
+/**
+ * Jediné místo, které vytváří {@linkplain ConversionPhaseEvent}.
+ * <p>
+ * Vytváří se jen přes reflexi z {@linkplain PhaseEvents}, pokud je JFR
+ * k dispozici; překládá se zvlášť, bez {@code --release} (viz pom.xml).
+ *
+ * @author Martin Pokorný
+ * @see PhaseEvents
+ */
+final class JfrPhaseRecorder implements PhaseRecorder {
+
+    @Override
+    public Object begin() {
+        // (bez nahrávání se třída události vůbec nenačte)
+        if (! FlightRecorder.isInitialized()) {
+            return null;
+        }
+        ConversionPhaseEvent event = new ConversionPhaseEvent();
+        if (! event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void end(Object phaseEvent, Phase phase, 
+            long payloadSize, String model, File outputPath) {
+        ConversionPhaseEvent event = (ConversionPhaseEvent) phaseEvent;
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = phase.name();
+            event.payloadSize = payloadSize;
+            event.model = model;
+            event.outputPath = outputPath == null 
+                    ? null : outputPath.getPath();
+            event.commit();
+        }
+    }
+
+}   // JfrPhaseRecorder.java
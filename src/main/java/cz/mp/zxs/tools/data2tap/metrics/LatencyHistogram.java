@@ -0,0 +1,127 @@
+/*
+ * LatencyHistogram.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Histogram dob (v ns) bez zámků.
+ * <p>
+ * Přihrádka {@code i} obsahuje hodnoty z intervalu 
+ * {@code [2^(i-1), 2^i)} ns (přihrádka 0 jen hodnotu 0), tj. percentily 
+ * jsou přesné na dvojnásobek. Zápis je jen pár atomických přičtení,
+ * lze ho tedy volat z libovolného počtu vláken.
+ *
+ * @author Martin Pokorný
+ * @see EncoderMetrics
+ */
+public class LatencyHistogram {
+
+    static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     *
+     * @param nanos  doba v ns (záporná se bere jako 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long currentMax = max.get();
+        while (value > currentMax && ! max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     *
+     * @param value
+     * @return
+     */
+    static int bucketIndex(long value) {
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * Aktuální stav. Při souběžném zápisu nemusí být položky navzájem 
+     * zcela konzistentní.
+     *
+     * @return
+     */
+    public LatencySnapshot getSnapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long currentMax = max.get();
+        return new LatencySnapshot(
+                total,
+                total == 0 ? 0 : sum.get() / total,
+                percentile(counts, total, 0.50, currentMax),
+                percentile(counts, total, 0.90, currentMax),
+                percentile(counts, total, 0.99, currentMax),
+                currentMax);
+    }
+
+    /**
+     *
+     * @param counts
+     * @param total
+     * @param fraction
+     * @param currentMax
+     * @return  horní mez přihrádky, ve které leží zadaný percentil 
+     *      (nejvýš {@code max})
+     */
+    private static long percentile(long[] counts, long total, double fraction,
+            long currentMax) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long upper = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(upper, currentMax);
+            }
+        }
+        return currentMax;
+    }
+
+    /**
+     * Vynuluje histogram.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     *
+     * @return  počet záznamů
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+}   // LatencyHistogram.java
@@ -0,0 +1,67 @@
+/*
+ * LatencySnapshot.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+
+/**
+ * Stav {@linkplain LatencyHistogram} (všechny doby v ns).
+ * <p>
+ * V JMX se zobrazí jako {@code CompositeData}.
+ *
+ * @author Martin Pokorný
+ */
+public class LatencySnapshot {
+
+    private final long count;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    LatencySnapshot(long count, long meanNanos, long p50Nanos, long p90Nanos,
+            long p99Nanos, long maxNanos) {
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + " mean=" + meanNanos + " p50=" + p50Nanos
+                + " p90=" + p90Nanos + " p99=" + p99Nanos + " max=" + maxNanos;
+    }
+
+}   // LatencySnapshot.java
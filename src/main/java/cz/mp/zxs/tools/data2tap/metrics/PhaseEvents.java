@@ -0,0 +1,102 @@
+/*
+ * PhaseEvents.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+import java.io.File;
+
+
+/**
+ * Události JFR ({@code cz.mp.zxs.tools.data2tap.ConversionPhase}) 
+ * pro jednotlivé fáze převodu.
+ * <p>
+ * Program běží i na Javě 7, kde JFR API není; proto se dostupnost
+ * {@code jdk.jfr.Event} zjistí jen jednou a třídy JFR se jinak vůbec 
+ * nenačtou. Třídy, které JFR API používají ({@linkplain JfrPhaseRecorder},
+ * {@linkplain ConversionPhaseEvent}), se překládají zvlášť, bez 
+ * {@code --release} (viz pom.xml); zde se na ně nesmí odkazovat přímo.
+ * Pokud se nenahrává, {@linkplain #begin()} vrátí {@code null} 
+ * a {@linkplain #end} nic nedělá; třída události se pak ani nenačte 
+ * (její načtení spouští inicializaci JFR, což stojí stovky ms při startu).
+ * <pre>
+ * Object event = PhaseEvents.begin();
+ * ...
+ * PhaseEvents.end(event, Phase.WRITE, size, model, outFile);
+ * </pre>
+ *
+ * @author Martin Pokorný
+ */
+public final class PhaseEvents {
+
+    /** Fáze převodu. */
+    public enum Phase {
+        /** načtení vstupního souboru */
+        READ,
+        /** sestavení hlavičky ({@code TapHeader.createData()}) */
+        HEADER,
+        /** příprava těla bloku (délka, flag) */
+        BODY,
+        /** parita těla bloku */
+        PARITY,
+        /** zápis výstupu */
+        WRITE
+    }
+
+    /** {@code null} = JFR není k dispozici */
+    private static final PhaseRecorder RECORDER = createRecorder();
+
+    static final boolean AVAILABLE = RECORDER != null;
+
+    /** */
+    private PhaseEvents() {
+    }
+
+    /**
+     *
+     * @return
+     */
+    private static PhaseRecorder createRecorder() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (PhaseRecorder) Class.forName(
+                    PhaseEvents.class.getPackage().getName() 
+                    + ".JfrPhaseRecorder").newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Začátek fáze.
+     *
+     * @return  událost nebo {@code null}, pokud se nenahrává
+     */
+    public static Object begin() {
+        if (! AVAILABLE) {
+            return null;
+        }
+        return RECORDER.begin();
+    }
+
+    /**
+     * Konec fáze; událost se zapíše, pokud to nastavení nahrávání 
+     * (např. práh délky) dovolí.
+     *
+     * @param event  z {@linkplain #begin()}
+     * @param phase
+     * @param payloadSize  počet zpracovaných bytů
+     * @param model  jméno modelu nebo {@code null}
+     * @param outputPath  výstupní soubor nebo {@code null}
+     */
+    public static void end(Object event, Phase phase, long payloadSize, 
+            String model, File outputPath) {
+        if (event != null) {
+            RECORDER.end(event, phase, payloadSize, model, outputPath);
+        }
+    }
+
+}   // PhaseEvents.java
@@ -0,0 +1,42 @@
+/*
+ * PhaseRecorder.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+import cz.mp.zxs.tools.data2tap.metrics.PhaseEvents.Phase;
+import java.io.File;
+
+
+/**
+ * Zápis událostí fází převodu; implementace s JFR je 
+ * {@linkplain JfrPhaseRecorder}.
+ *
+ * @author Martin Pokorný
+ * @see PhaseEvents
+ */
+interface PhaseRecorder {
+
+    /**
+     *
+     * @return  událost nebo {@code null}, pokud se nenahrává
+     * @see PhaseEvents#begin()
+     */
+    Object begin();
+
+    /**
+     *
+     * @param event  z {@linkplain #begin()}, ne {@code null}
+     * @param phase
+     * @param payloadSize
+     * @param model
+     * @param outputPath
+     * @see PhaseEvents#end(Object, Phase, long, String, File)
+     */
+    void end(Object event, Phase phase, long payloadSize, 
+            String model, File outputPath);
+
+}   // PhaseRecorder.java
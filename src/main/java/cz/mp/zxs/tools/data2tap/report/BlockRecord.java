@@ -0,0 +1,238 @@
+/*
+ * BlockRecord.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.report;
+
+import java.io.File;
+
+
+/**
+ * Záznam o převodu jednoho bloku (hlavička + tělo) pro report 
+ * ({@code --report}).
+ * <p>
+ * Vyplňuje ho {@code Data2tap} (viz {@code Data2tap#setReportEnabled}), 
+ * čtení vstupu a umístění v dávce doplňuje volající.
+ *
+ * @author Martin Pokorný
+ * @see ReportWriter
+ */
+public class BlockRecord {
+
+    /** (nevyplněná parita) */
+    public static final int PARITY_UNKNOWN = -1;
+
+    private int lineNumber = -1;
+    private File inputFile;
+    private File outputFile;
+    private String model;
+    private int type;
+    private String name;
+    private int address;
+    private long inputSize;
+    private long tapSize;
+    private int headerParity = PARITY_UNKNOWN;
+    private int bodyParity = PARITY_UNKNOWN;
+    private boolean cached;
+    private long readNanos;
+    private long headerNanos;
+    private long bodyNanos;
+    private long parityNanos;
+    private long writeNanos;
+    private long loadTStates;
+    private String error;
+
+    /**
+     *
+     * @return  číslo řádku dávkového souboru nebo {@code -1}
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    public File getInputFile() {
+        return inputFile;
+    }
+
+    public void setInputFile(File inputFile) {
+        this.inputFile = inputFile;
+    }
+
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    public void setOutputFile(File outputFile) {
+        this.outputFile = outputFile;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public void setType(int type) {
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getAddress() {
+        return address;
+    }
+
+    public void setAddress(int address) {
+        this.address = address;
+    }
+
+    /**
+     *
+     * @return  velikost dat bloku
+     */
+    public long getInputSize() {
+        return inputSize;
+    }
+
+    public void setInputSize(long inputSize) {
+        this.inputSize = inputSize;
+    }
+
+    /**
+     *
+     * @return  počet bytů hlavičky a těla v TAP souboru
+     */
+    public long getTapSize() {
+        return tapSize;
+    }
+
+    public void setTapSize(long tapSize) {
+        this.tapSize = tapSize;
+    }
+
+    /**
+     *
+     * @return  {@code 0-255} nebo {@linkplain #PARITY_UNKNOWN}
+     */
+    public int getHeaderParity() {
+        return headerParity;
+    }
+
+    public void setHeaderParity(int headerParity) {
+        this.headerParity = headerParity;
+    }
+
+    /**
+     *
+     * @return  {@code 0-255} nebo {@linkplain #PARITY_UNKNOWN}
+     */
+    public int getBodyParity() {
+        return bodyParity;
+    }
+
+    public void setBodyParity(int bodyParity) {
+        this.bodyParity = bodyParity;
+    }
+
+    /**
+     *
+     * @return  {@code true}, pokud se výsledek jen zkopíroval z cache
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    public void setReadNanos(long readNanos) {
+        this.readNanos = readNanos;
+    }
+
+    public long getHeaderNanos() {
+        return headerNanos;
+    }
+
+    public void setHeaderNanos(long headerNanos) {
+        this.headerNanos = headerNanos;
+    }
+
+    public long getBodyNanos() {
+        return bodyNanos;
+    }
+
+    public void setBodyNanos(long bodyNanos) {
+        this.bodyNanos = bodyNanos;
+    }
+
+    public long getParityNanos() {
+        return parityNanos;
+    }
+
+    public void setParityNanos(long parityNanos) {
+        this.parityNanos = parityNanos;
+    }
+
+    /**
+     *
+     * @return  doba zápisu (při zápisu více bloků najednou poměrná část
+     *      podle velikosti)
+     */
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    public void setWriteNanos(long writeNanos) {
+        this.writeNanos = writeNanos;
+    }
+
+    /**
+     *
+     * @return  odhad doby nahrávání hlavičky a těla z pásky 
+     *      (viz {@linkplain TapLoadTime})
+     */
+    public long getLoadTStates() {
+        return loadTStates;
+    }
+
+    public void setLoadTStates(long loadTStates) {
+        this.loadTStates = loadTStates;
+    }
+
+    /**
+     *
+     * @return  popis chyby nebo {@code null}
+     */
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+}   // BlockRecord.java
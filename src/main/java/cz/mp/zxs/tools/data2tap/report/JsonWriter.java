@@ -0,0 +1,220 @@
+/*
+ * JsonWriter.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.report;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+
+/**
+ * Jednoduchý proudový zápis JSON (bez stromu v paměti).
+ * <p>
+ * Podporuje jen objekty, řetězce, celá čísla, {@code boolean} a 
+ * {@code null}; to stačí pro {@linkplain ReportWriter}.
+ *
+ * @author Martin Pokorný
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final Writer out;
+    
+    /** {@code true} na úrovni {@code depth}, pokud už objekt obsahuje člen */
+    private final boolean[] hasMember = new boolean[MAX_DEPTH];
+    private int depth = 0;
+    /** po {@linkplain #name(java.lang.String)} se čeká hodnota */
+    private boolean afterName = false;
+
+    /**
+     *
+     * @param out
+     * @throws IllegalArgumentException
+     */
+    public JsonWriter(Writer out) {
+        if (out == null) {
+            throw new IllegalArgumentException("out = null");
+        }
+        this.out = out;
+    }
+
+    /**
+     *
+     * @return
+     * @throws IOException
+     * @throws IllegalStateException
+     */
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        if (depth + 1 >= MAX_DEPTH) {
+            throw new IllegalStateException("too deep");
+        }
+        out.write('{');
+        hasMember[++depth] = false;
+        return this;
+    }
+
+    /**
+     *
+     * @return
+     * @throws IOException
+     * @throws IllegalStateException
+     */
+    public JsonWriter endObject() throws IOException {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("endObject");
+        }
+        depth--;
+        out.write('}');
+        return this;
+    }
+
+    /**
+     *
+     * @param name
+     * @return
+     * @throws IOException
+     * @throws IllegalStateException
+     */
+    public JsonWriter name(String name) throws IOException {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("name");
+        }
+        if (hasMember[depth]) {
+            out.write(',');
+        }
+        hasMember[depth] = true;
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     *
+     * @param value  {@code null} se zapíše jako {@code null}
+     * @return
+     * @throws IOException
+     */
+    public JsonWriter value(String value) throws IOException {
+        beforeValue();
+        if (value == null) {
+            out.write("null");
+        }
+        else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    /**
+     *
+     * @param value
+     * @return
+     * @throws IOException
+     */
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     *
+     * @param value
+     * @return
+     * @throws IOException
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Zapíše konec řádku (mezi hodnotami nejvyšší úrovně, tj. JSON Lines).
+     *
+     * @throws IOException
+     * @throws IllegalStateException
+     */
+    public void newLine() throws IOException {
+        if (depth != 0) {
+            throw new IllegalStateException("newLine");
+        }
+        out.write('\n');
+    }
+
+    /**
+     *
+     * @throws IllegalStateException
+     */
+    private void beforeValue() {
+        if (depth > 0 && ! afterName) {
+            throw new IllegalStateException("name expected");
+        }
+        afterName = false;
+    }
+
+    /**
+     *
+     * @param s
+     * @throws IOException
+     */
+    private void writeString(String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String escaped;
+            if (c == '"') {
+                escaped = "\\\"";
+            }
+            else if (c == '\\') {
+                escaped = "\\\\";
+            }
+            else if (c == '\n') {
+                escaped = "\\n";
+            }
+            else if (c == '\r') {
+                escaped = "\\r";
+            }
+            else if (c == '\t') {
+                escaped = "\\t";
+            }
+            else if (c < 0x20) {
+                escaped = String.format("\\u%04x", (int) c);
+            }
+            else {
+                continue;
+            }
+            out.write(s, start, i - start);
+            out.write(escaped);
+            start = i + 1;
+        }
+        out.write(s, start, s.length() - start);
+        out.write('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Zavře i výstup, do kterého se zapisuje.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+}   // JsonWriter.java
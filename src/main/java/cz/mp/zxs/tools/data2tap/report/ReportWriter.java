@@ -0,0 +1,122 @@
+/*
+ * ReportWriter.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.report;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+
+/**
+ * Zapisuje report převodu ve formátu JSON Lines: každý 
+ * {@linkplain BlockRecord} je jeden objekt na samostatném řádku.
+ * <p>
+ * Každý záznam se zapíše (a vyprázdní) hned, report se tedy v paměti 
+ * nehromadí. Příklad řádku:
+ * <pre>
+ * {"input":"img.scr","output":"img.tap","model":"ZX Spectrum 48K | ZX Spectrum+",
+ *  "type":3,"name":"screen","address":16384,"inputSize":6912,"tapSize":6937,
+ *  "headerParity":212,"bodyParity":19,"cached":false,
+ *  "phaseNanos":{"read":...,"header":...,"body":...,"parity":...,"write":...},
+ *  "loadTimeMs":39018}
+ * </pre>
+ * Neúspěšný převod má místo velikostí a dob jen {@code "error"}.
+ *
+ * @author Martin Pokorný
+ * @see BlockRecord
+ */
+public class ReportWriter implements Closeable {
+
+    /** podporované formáty (hodnoty {@code --report}) */
+    public static final String FORMAT_JSON = "json";
+
+    private final JsonWriter json;
+
+    /**
+     *
+     * @param out
+     * @throws IllegalArgumentException
+     */
+    public ReportWriter(Writer out) {
+        json = new JsonWriter(out);
+    }
+
+    /**
+     * Zapíše jeden záznam.
+     *
+     * @param record
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public void write(BlockRecord record) throws IOException {
+        if (record == null) {
+            throw new IllegalArgumentException("record = null");
+        }
+        json.beginObject();
+        if (record.getLineNumber() >= 0) {
+            json.name("line").value(record.getLineNumber());
+        }
+        json.name("input").value(path(record.getInputFile()));
+        json.name("output").value(path(record.getOutputFile()));
+        if (record.getError() != null) {
+            json.name("error").value(record.getError());
+        }
+        else {
+            json.name("model").value(record.getModel());
+            json.name("type").value(record.getType());
+            json.name("name").value(record.getName());
+            json.name("address").value(record.getAddress());
+            json.name("inputSize").value(record.getInputSize());
+            json.name("tapSize").value(record.getTapSize());
+            json.name("headerParity").value(record.getHeaderParity());
+            json.name("bodyParity").value(record.getBodyParity());
+            json.name("cached").value(record.isCached());
+            json.name("phaseNanos").beginObject()
+                    .name("read").value(record.getReadNanos())
+                    .name("header").value(record.getHeaderNanos())
+                    .name("body").value(record.getBodyNanos())
+                    .name("parity").value(record.getParityNanos())
+                    .name("write").value(record.getWriteNanos())
+                    .endObject();
+            json.name("loadTimeMs").value(
+                    TapLoadTime.toMillis(record.getLoadTStates()));
+        }
+        json.endObject();
+        json.newLine();
+        json.flush();
+    }
+
+    /**
+     *
+     * @param file
+     * @return
+     */
+    private static String path(File file) {
+        return file == null ? null : file.getPath();
+    }
+
+    /**
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        json.flush();
+    }
+
+    /**
+     * Zavře i výstup, do kterého se zapisuje.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        json.close();
+    }
+
+}   // ReportWriter.java
@@ -0,0 +1,113 @@
+/*
+ * TapLoadTime.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.report;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Odhad doby nahrávání bloku z pásky rutinou ROM (v T-stavech procesoru).
+ * <p>
+ * Blok na pásce = pilotní tón, 2 synchronizační pulzy, potom flag, data 
+ * a parita; každý bit jsou 2 pulzy (0 = 2×855 T, 1 = 2×1710 T). 
+ * Pauzy mezi bloky se nepočítají.
+ *
+ * @author Martin Pokorný
+ * @see <a href="http://faqwiki.zxnet.co.uk/wiki/Spectrum_tape_interface">tape format na ZXS FAQ Wiki</a>
+ */
+public final class TapLoadTime {
+
+    /** frekvence procesoru ZX Spectrum 48K [Hz] */
+    public static final long CPU_CLOCK_HZ = 3500000;
+
+    static final int PILOT_PULSE = 2168;
+    static final int PILOT_PULSES_HEADER = 8063;
+    static final int PILOT_PULSES_DATA = 3223;
+    static final int SYNC_1_PULSE = 667;
+    static final int SYNC_2_PULSE = 735;
+    static final int BIT_0_PULSE = 855;
+    static final int BIT_1_PULSE = 1710;
+
+    /** */
+    private TapLoadTime() {
+    }
+
+    /**
+     * 
+     * @param headerBytes  hlavička tak jak je v TAP souboru 
+     *      (2B délka, flag, data, parita)
+     * @return  T-stavy
+     */
+    public static long headerBlockTStates(byte[] headerBytes) {
+        return headerBlockTStates(headerBytes, 0, headerBytes.length);
+    }
+
+    /**
+     * 
+     * @param bytes  pole s hlavičkou tak jak je v TAP souboru 
+     *      (2B délka, flag, data, parita)
+     * @param offset  začátek hlavičky v poli
+     * @param length  délka hlavičky i s 2B délkou
+     * @return  T-stavy
+     */
+    public static long headerBlockTStates(byte[] bytes, int offset, 
+            int length) {
+        return blockTStates(PILOT_PULSES_HEADER, 
+                ByteBuffer.wrap(bytes, offset + 2, length - 2));
+    }
+
+    /**
+     * 
+     * @param flag
+     * @param data  data od pozice do limitu; pozice se nemění
+     * @param parity
+     * @return  T-stavy
+     */
+    public static long dataBlockTStates(byte flag, ByteBuffer data, 
+            byte parity) {
+        return blockTStates(PILOT_PULSES_DATA, data)
+                + bitsTStates(2, Integer.bitCount(flag & 0xFF) 
+                        + Integer.bitCount(parity & 0xFF));
+    }
+
+    /**
+     * 
+     * @param tStates
+     * @return  ms (zaokrouhleno)
+     */
+    public static long toMillis(long tStates) {
+        return (tStates * 1000 + CPU_CLOCK_HZ / 2) / CPU_CLOCK_HZ;
+    }
+
+    /**
+     * 
+     * @param pilotPulses
+     * @param bytes  všechny byty bloku na pásce
+     * @return 
+     */
+    private static long blockTStates(int pilotPulses, ByteBuffer bytes) {
+        int ones = 0;
+        for (int i = bytes.position(); i < bytes.limit(); i++) {
+            ones += Integer.bitCount(bytes.get(i) & 0xFF);
+        }
+        return (long) PILOT_PULSE * pilotPulses + SYNC_1_PULSE + SYNC_2_PULSE
+                + bitsTStates(bytes.remaining(), ones);
+    }
+
+    /**
+     * 
+     * @param byteCount
+     * @param ones  počet jedničkových bitů
+     * @return 
+     */
+    private static long bitsTStates(int byteCount, int ones) {
+        long zeros = (long) byteCount * 8 - ones;
+        return 2L * (zeros * BIT_0_PULSE + (long) ones * BIT_1_PULSE);
+    }
+
+}   // TapLoadTime.java
@@ -0,0 +1,262 @@
+/*
+ * TapHandler.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import cz.mp.zxs.tools.data2tap.InputData;
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import cz.mp.zxs.tools.data2tap.MemoryAddress;
+import cz.mp.zxs.tools.data2tap.TapBlockSpec;
+import cz.mp.zxs.tools.data2tap.TapBlockType;
+import cz.mp.zxs.tools.data2tap.TapEncoder;
+import cz.mp.zxs.tools.data2tap.TapJob;
+import cz.mp.zxs.tools.data2tap.ZxModel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Obsluha {@code POST /tap}: převede tělo požadavku na TAP.
+ * <p>
+ * Parametry (query string):
+ * <ul>
+ * <li>{@code address} – povinný; desítkově nebo šestnáctkově ({@code 0x})</li>
+ * <li>{@code name} – jméno bloku, max. 10 znaků (defaultně prázdné)</li>
+ * <li>{@code model} – {@code 16k} nebo {@code 48k} (default)</li>
+ * <li>{@code type} – číslo typu bloku 0-3 (defaultně 3, binární data)</li>
+ * </ul>
+ * Odpovědi: {@code 200} (obsah TAP), {@code 400} (chybné parametry nebo 
+ * data), {@code 404}, {@code 405}, {@code 413} (moc dat), 
+ * {@code 503} (služba je přetížená).
+ *
+ * @author Martin Pokorný
+ * @see TapServer
+ */
+class TapHandler implements HttpHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(TapHandler.class);
+
+    static final int HTTP_OK = 200;
+    static final int HTTP_BAD_REQUEST = 400;
+    static final int HTTP_NOT_FOUND = 404;
+    static final int HTTP_BAD_METHOD = 405;
+    static final int HTTP_TOO_LARGE = 413;
+    static final int HTTP_INTERNAL_ERROR = 500;
+    static final int HTTP_UNAVAILABLE = 503;
+
+    /** hlavička (21 B) + délka, flag a parita těla */
+    private static final int TAP_OVERHEAD = 21 + 4;
+
+    /** (sdílený všemi vlákny serveru) */
+    private static final TapEncoder ENCODER = new TapEncoder();
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (TapServer.OVERLOADED.get() != null) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendText(exchange, HTTP_UNAVAILABLE, "Server is busy");
+                return;
+            }
+            if (! TapServer.CONTEXT_PATH.equals(exchange.getRequestURI().getPath())) {
+                sendText(exchange, HTTP_NOT_FOUND, "Not found");
+                return;
+            }
+            if (! "POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendText(exchange, HTTP_BAD_METHOD, "Only POST is supported");
+                return;
+            }
+
+            byte[] data = readBody(exchange);
+            if (data == null) {
+                sendText(exchange, HTTP_TOO_LARGE, 
+                        "Data is too long (max " + InputData.MAX_SIZE + " B)");
+                return;
+            }
+
+            try {
+                byte[] tap = convert(exchange.getRequestURI().getRawQuery(), data);
+                exchange.getResponseHeaders().set("Content-Type", 
+                        "application/octet-stream");
+                exchange.sendResponseHeaders(HTTP_OK, tap.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(tap);
+                }
+            } catch (InvalidDataException | IllegalArgumentException ex) {
+                log.debug(ex.getMessage());
+                sendText(exchange, HTTP_BAD_REQUEST, ex.getMessage());
+            }
+        } catch (IOException ex) {
+            log.warn(ex.getMessage());
+            throw ex;
+        } catch (RuntimeException ex) {
+            log.error(ex.getMessage(), ex);
+            // (po odeslání hlaviček už stav změnit nelze, jen se zavře)
+            if (exchange.getResponseCode() == -1) {
+                sendText(exchange, HTTP_INTERNAL_ERROR, "Unexpected failure");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Převede data na obsah TAP souboru.
+     *
+     * @param rawQuery
+     * @param data
+     * @return
+     * @throws InvalidDataException
+     * @throws IOException
+     */
+    static byte[] convert(String rawQuery, byte[] data) 
+            throws InvalidDataException, IOException {
+        Map<String, String> params = parseQuery(rawQuery);
+
+        String addressParam = params.get("address");
+        if (addressParam == null) {
+            throw new InvalidDataException("Missing parameter: address");
+        }
+        int address;
+        try {
+            address = MemoryAddress.addressToInt(addressParam);
+        } catch (NumberFormatException ex) {
+            throw new InvalidDataException("Address is not a valid number: " 
+                    + addressParam);
+        }
+
+        String name = params.containsKey("name") ? params.get("name") : "";
+
+        ZxModel model = ZxModel.getByKey(params.containsKey("model") 
+                ? params.get("model") : "48k");
+        if (model == null) {
+            throw new InvalidDataException("Unknown model: " + params.get("model"));
+        }
+
+        TapBlockType type = TapBlockType.BINARY_DATA;
+        if (params.containsKey("type")) {
+            try {
+                type = TapBlockType.getByNum(Integer.parseInt(params.get("type")));
+            } catch (NumberFormatException ex) {
+                type = null;
+            }
+            if (type == null) {
+                throw new InvalidDataException("Unknown type: " + params.get("type"));
+            }
+        }
+
+        if (data.length == 0) {
+            throw new InvalidDataException("no data");
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                data.length + TAP_OVERHEAD);
+        ENCODER.writeTo(new TapJob(model, 
+                new TapBlockSpec(type, name, address, ByteBuffer.wrap(data)), null),
+                Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    /**
+     *
+     * @param exchange
+     * @return  tělo požadavku, nebo {@code null}, pokud je delší než
+     *      {@linkplain InputData#MAX_SIZE}
+     * @throws IOException
+     */
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        int expected = 0;
+        if (contentLength != null) {
+            try {
+                long length = Long.parseLong(contentLength.trim());
+                if (length > InputData.MAX_SIZE) {
+                    return null;
+                }
+                expected = (int) length;
+            } catch (NumberFormatException ex) {
+                // (délka se zjistí čtením)
+            }
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(
+                expected > 0 ? expected : 4096);
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                body.write(buffer, 0, n);
+                if (body.size() > InputData.MAX_SIZE) {
+                    return null;
+                }
+            }
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     *
+     * @param rawQuery  (může být {@code null})
+     * @return
+     * @throws InvalidDataException
+     */
+    static Map<String, String> parseQuery(String rawQuery) 
+            throws InvalidDataException {
+        Map<String, String> params = new HashMap<String, String>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        try {
+            for (String pair : rawQuery.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int eq = pair.indexOf('=');
+                String key = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? "" : pair.substring(eq + 1);
+                params.put(URLDecoder.decode(key, "UTF-8"), 
+                        URLDecoder.decode(value, "UTF-8"));
+            }
+        } catch (UnsupportedEncodingException | IllegalArgumentException ex) {
+            throw new InvalidDataException("Invalid query: " + rawQuery);
+        }
+        return params;
+    }
+
+    /**
+     *
+     * @param exchange
+     * @param status
+     * @param text
+     * @throws IOException
+     */
+    private static void sendText(HttpExchange exchange, int status, String text)
+            throws IOException {
+        byte[] bytes = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", 
+                "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+}   // TapHandler.java
@@ -0,0 +1,165 @@
+/*
+ * TapServer.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.server;
+
+import com.sun.net.httpserver.HttpServer;
+import cz.mp.zxs.tools.data2tap.JobExecutors;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Lokální HTTP služba pro převod dat na TAP (JDK {@link HttpServer}).
+ * <p>
+ * {@code POST /tap?address=..&name=..&model=..&type=..} s binárními daty
+ * v těle požadavku vrátí obsah TAP souboru; viz {@linkplain TapHandler}.
+ * <p>
+ * Požadavky zpracovává pevný počet vláken s omezenou frontou. Když je 
+ * fronta plná, požadavek se vyřídí rovnou ve vlákně, které přijímá spojení,
+ * a to jen odpovědí {@code 503 Service Unavailable}. Přijímání dalších 
+ * spojení se tím zároveň přibrzdí. Vlákna jsou z 
+ * {@linkplain JobExecutors#newThreadFactory(String)} (na Java 21+ 
+ * virtuální, počet vláken lze pak bez obav zvýšit).
+ * <p>
+ * Služba poslouchá jen na lokální adrese ({@code 127.0.0.1}).
+ *
+ * @author Martin Pokorný
+ * @see TapHandler
+ */
+public class TapServer {
+
+    private static final Logger log = LoggerFactory.getLogger(TapServer.class);
+
+    public static final String CONTEXT_PATH = "/tap";
+
+    /** Příznak, že požadavek byl odmítnut (fronta je plná). */
+    static final ThreadLocal<Boolean> OVERLOADED = new ThreadLocal<Boolean>();
+
+    private final int port;
+    private final int threads;
+    private final int queueCapacity;
+
+    private HttpServer httpServer;
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Počet vláken odpovídá počtu procesorů, fronta má 
+     * 16 míst na vlákno.
+     *
+     * @param port  {@code 0} = libovolný volný port
+     */
+    public TapServer(int port) {
+        this(port, Runtime.getRuntime().availableProcessors(),
+                16 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     *
+     * @param port  {@code 0} = libovolný volný port
+     * @param threads  počet pracovních vláken
+     * @param queueCapacity  max. počet požadavků čekajících na vlákno
+     * @throws IllegalArgumentException
+     */
+    public TapServer(int port, int threads, int queueCapacity) {
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("port");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads < 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity < 1");
+        }
+        this.port = port;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Spustí službu (na pozadí).
+     *
+     * @throws IOException  např. port je obsazený
+     * @throws IllegalStateException  služba již běží
+     */
+    public synchronized void start() throws IOException {
+        if (httpServer != null) {
+            throw new IllegalStateException("already started");
+        }
+        log.info("port = " + port + ", threads = " + threads
+                + ", queueCapacity = " + queueCapacity);
+
+        executor = new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity),
+                JobExecutors.newThreadFactory("tap-server"),
+                new OverloadedPolicy());
+
+        httpServer = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                queueCapacity);
+        httpServer.createContext(CONTEXT_PATH, new TapHandler());
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        log.info("listening on " + httpServer.getAddress());
+    }
+
+    /**
+     * Zastaví službu; rozpracované požadavky se dokončí.
+     *
+     * @param delaySeconds  max. doba čekání na dokončení požadavků
+     */
+    public synchronized void stop(int delaySeconds) {
+        if (httpServer == null) {
+            return;
+        }
+        log.info("stop");
+        httpServer.stop(delaySeconds);
+        executor.shutdown();
+        httpServer = null;
+        executor = null;
+    }
+
+    /**
+     *
+     * @return  skutečný port (i když byl zadán {@code 0})
+     * @throws IllegalStateException  služba neběží
+     */
+    public synchronized int getPort() {
+        if (httpServer == null) {
+            throw new IllegalStateException("not started");
+        }
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Plná fronta: požadavek se vyřídí ve volajícím vlákně (přijímání 
+     * spojení), ale jen odpovědí 503, viz {@linkplain TapHandler}.
+     */
+    private static class OverloadedPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                return;
+            }
+            OVERLOADED.set(Boolean.TRUE);
+            try {
+                r.run();
+            } finally {
+                OVERLOADED.remove();
+            }
+        }
+    }
+
+}   // TapServer.java
@@ -0,0 +1,150 @@
+/*
+ * JobExecutors.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Vlákna pro převody (dávka, služba, proudový převod) -- varianta 
+ * pro Java 21+ s virtuálními vlákny.
+ * <p>
+ * Převody většinou čekají na souborové I/O (i na síťovém úložišti); 
+ * virtuální vlákno při tom neblokuje platformové vlákno, takže 
+ * souběžných převodů může být mnohem víc než procesorů. Počet
+ * současně běžících převodů (otevřených / namapovaných souborů) ale 
+ * omezuje samostatný limit {@code maxConcurrentIo}, nezávislý na počtu
+ * procesorů: každé vlákno nejdřív čeká na povolení ze {@link Semaphore},
+ * teprve potom převádí.
+ * <p>
+ * Přeloží se jen v profilu {@code java21} do 
+ * {@code META-INF/versions/21}; API musí odpovídat variantě 
+ * v {@code src/main/java}.
+ *
+ * @author Martin Pokorný
+ */
+public final class JobExecutors {
+
+    /** Výchozí limit současně převáděných úloh (čekajících na I/O). */
+    public static final int DEFAULT_MAX_CONCURRENT_IO = 64;
+
+    /** */
+    private JobExecutors() {
+    }
+
+    /**
+     *
+     * @return  {@code true} = převody běží ve virtuálních vláknech
+     */
+    public static boolean isVirtual() {
+        return true;
+    }
+
+    /**
+     * Executor pro převody, každá úloha = jeden převod ve vlastním 
+     * virtuálním vlákně. Převádí se nejvýš {@code maxConcurrentIo} úloh 
+     * najednou; ostatní vlákna čekají (levně, jsou virtuální).
+     *
+     * @param parallelism  (nepoužije se; výpočet rozděluje plánovač 
+     *      virtuálních vláken mezi všechny procesory)
+     * @param maxConcurrentIo  max. počet současně běžících úloh
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static ExecutorService newJobExecutor(int parallelism, 
+            int maxConcurrentIo) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+        if (maxConcurrentIo < 1) {
+            throw new IllegalArgumentException("maxConcurrentIo < 1");
+        }
+        return new BoundedExecutor(Executors.newThreadPerTaskExecutor(
+                newThreadFactory("tap-job")), maxConcurrentIo);
+    }
+
+    /**
+     *
+     * @param namePrefix  jména vláken budou {@code namePrefix-1}, 
+     *      {@code namePrefix-2}, ...
+     * @return  továrna na virtuální vlákna
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        return Thread.ofVirtual().name(namePrefix + "-", 1).factory();
+    }
+
+    // -----
+    /**
+     * Vlákno na úlohu, ale úloha běží až po získání povolení.
+     */
+    private static final class BoundedExecutor extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        BoundedExecutor(ExecutorService delegate, int maxConcurrent) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrent);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException ex) {
+                    // (shutdownNow před spuštěním: úloha se nespustí, 
+                    //  ale její Future se musí dokončit)
+                    if (task instanceof Future) {
+                        ((Future<?>) task).cancel(false);
+                    }
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }   // BoundedExecutor
+
+}   // JobExecutors.java
@@ -0,0 +1 @@
+@"%~dp0runtime\bin\java" -XX:SharedArchiveFile="%~dp0app.jsa" -Xshare:auto -Xlog:cds=off -Xlog:cds+dynamic=off -XX:+UseSerialGC -Djava.util.logging.config.file="%~dp0logging.properties" -jar "%~dp0zxs_data2tap.jar" %*
@@ -0,0 +1,7 @@
+#!/bin/sh
+
+cd "$(dirname $0)"
+script_dir="$(pwd)"
+cd - > /dev/null
+
+"$script_dir/runtime/bin/java" -XX:SharedArchiveFile="$script_dir/app.jsa" -Xshare:auto -Xlog:cds=off -Xlog:cds+dynamic=off -XX:+UseSerialGC -Djava.util.logging.config.file="$script_dir/logging.properties" -jar "$script_dir/zxs_data2tap.jar" "$@"
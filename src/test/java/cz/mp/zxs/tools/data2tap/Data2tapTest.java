@@ -7,9 +7,15 @@
 
 package cz.mp.zxs.tools.data2tap;
 
+import cz.mp.zxs.tools.data2tap.report.BlockRecord;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -52,6 +58,117 @@ public class Data2tapTest {
     }
     
     
+    @Test
+    public void testExecuteAsync_testFileData1() throws Exception {  
+        File data1InBin = new File("src/test/resources/files/data_1.bin");
+        File data1ExpectedOutTap = new File("src/test/resources/files/data_1.tap");
+        
+        Data2tap data2tap = new Data2tap();
+        data2tap.setName("data_1");
+        data2tap.setAddress(50000);
+        data2tap.setRawData(Files.readAllBytes(data1InBin.toPath()));
+        File tempOutFile = File.createTempFile("data_1_", ".tap");
+        tempOutFile.deleteOnExit();
+        data2tap.setOutTapFile(tempOutFile);            
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            TapWriteResult result = data2tap.executeAsync(executor).get();
+            byte[] expectedOutData = Files.readAllBytes(data1ExpectedOutTap.toPath());
+            Assert.assertEquals(tempOutFile, result.getOutTapFile());
+            Assert.assertEquals(1, result.getBlocks());
+            Assert.assertEquals(data1InBin.length(), result.getDataBytes());
+            Assert.assertEquals(expectedOutData.length, result.getTapBytes());
+            Assert.assertArrayEquals(expectedOutData, 
+                    Files.readAllBytes(tempOutFile.toPath()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testExecuteAsync_noData() throws Exception {  
+        Data2tap data2tap = new Data2tap();
+        data2tap.setAddress(50000);
+        File tempOutFile = File.createTempFile("data_1_", ".tap");
+        tempOutFile.deleteOnExit();
+        data2tap.setOutTapFile(tempOutFile);            
+        try {
+            data2tap.executeAsync(null).get();
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof InvalidDataException);
+        }
+    }
+    
+    @Test
+    public void testExecuteBlocks_testFileData1Twice() 
+            throws IOException, InvalidDataException {  
+        File data1InBin = new File("src/test/resources/files/data_1.bin");
+        File data1ExpectedOutTap = new File("src/test/resources/files/data_1.tap");
+        byte[] inFileContent = Files.readAllBytes(data1InBin.toPath());
+        
+        TapBlockSpec block = new TapBlockSpec(
+                TapBlockType.BINARY_DATA, "data_1", 50000, inFileContent);
+        
+        File tempOutFile = File.createTempFile("data_1_", ".tap");
+        tempOutFile.deleteOnExit();
+        Data2tap data2tap = new Data2tap();
+        data2tap.setOutTapFile(tempOutFile);
+        data2tap.execute(Arrays.asList(block, block));
+        
+        byte[] expectedOneBlock = Files.readAllBytes(data1ExpectedOutTap.toPath());
+        byte[] expectedOutData = new byte[expectedOneBlock.length * 2];
+        System.arraycopy(expectedOneBlock, 0, expectedOutData, 0, expectedOneBlock.length);
+        System.arraycopy(expectedOneBlock, 0, expectedOutData, expectedOneBlock.length, expectedOneBlock.length);
+        
+        Assert.assertArrayEquals(expectedOutData, 
+                Files.readAllBytes(tempOutFile.toPath()));
+    }
+    
+    @Test
+    public void testExecuteBlocks_report() 
+            throws IOException, InvalidDataException {  
+        File data1InBin = new File("src/test/resources/files/data_1.bin");
+        byte[] expected = Files.readAllBytes(
+                new File("src/test/resources/files/data_1.tap").toPath());
+        byte[] inFileContent = Files.readAllBytes(data1InBin.toPath());
+        TapBlockSpec block = new TapBlockSpec(
+                TapBlockType.BINARY_DATA, "data_1", 50000, inFileContent);
+        
+        File tempOutFile = File.createTempFile("data_1_", ".tap");
+        tempOutFile.deleteOnExit();
+        Data2tap data2tap = new Data2tap();
+        data2tap.setOutTapFile(tempOutFile);
+        Assert.assertTrue(data2tap.getBlockRecords().isEmpty());
+        data2tap.setReportEnabled(true);
+        data2tap.execute(Arrays.asList(block, block));
+        
+        List<BlockRecord> records = data2tap.getBlockRecords();
+        Assert.assertEquals(2, records.size());
+        for (BlockRecord record : records) {
+            Assert.assertEquals(tempOutFile, record.getOutputFile());
+            Assert.assertEquals(inFileContent.length, record.getInputSize());
+            Assert.assertEquals(expected.length, record.getTapSize());
+            Assert.assertEquals(expected[20] & 0xFF, record.getHeaderParity());
+            Assert.assertEquals(expected[expected.length - 1] & 0xFF, 
+                    record.getBodyParity());
+            Assert.assertEquals(50000, record.getAddress());
+            Assert.assertFalse(record.isCached());
+            Assert.assertTrue(record.getLoadTStates() > 0);
+        }
+    }
+    
+    @Test(expected = InvalidDataException.class)
+    public void testExecuteBlocks_invalidSecondBlock() 
+            throws IOException, InvalidDataException {  
+        Data2tap data2tap = new Data2tap();
+        data2tap.setOutTapFile(new File("never_created.tap"));
+        data2tap.execute(Arrays.asList(
+                new TapBlockSpec(TapBlockType.BINARY_DATA, "ok", 50000, new byte[]{1}),
+                new TapBlockSpec(TapBlockType.BINARY_DATA, "bad", 150000, new byte[]{1})));
+    }
+    
     @Test
     public void testExecute_testMaxRam() {
         // data_1.bin --- obsahuje 5 bytů
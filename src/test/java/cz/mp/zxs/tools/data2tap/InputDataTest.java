@@ -0,0 +1,84 @@
+/*
+ * InputDataTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class InputDataTest {
+    
+    @Test
+    public void testLoad_smallFile() throws IOException {
+        File data1InBin = new File("src/test/resources/files/data_1.bin");
+        ByteBuffer data = InputData.load(data1InBin);
+        assertFalse(data instanceof MappedByteBuffer);
+        assertEquals(0, data.position());
+        assertEquals(5, data.remaining());
+        assertEquals((byte) 0x30, data.get(0));
+    }
+
+    @Test
+    public void testLoad_mappedFileAndRegion() throws IOException {
+        byte[] content = new byte[InputData.MAP_THRESHOLD * 2];
+        new Random(1).nextBytes(content);
+        File tempFile = File.createTempFile("input_", ".bin");
+        tempFile.deleteOnExit();
+        Files.write(tempFile.toPath(), content);
+        
+        ByteBuffer data = InputData.load(tempFile);
+        assertTrue(data instanceof MappedByteBuffer);
+        assertTrue(data.isReadOnly());
+        assertEquals(ByteBuffer.wrap(content), data);
+        
+        ByteBuffer region = InputData.load(tempFile, 100, 10);
+        assertEquals(ByteBuffer.wrap(content, 100, 10), region);
+    }
+    
+    @Test
+    public void testExecute_mappedInputSameAsArray() 
+            throws IOException, InvalidDataException {
+        byte[] content = new byte[InputData.MAP_THRESHOLD + 3];
+        new Random(2).nextBytes(content);
+        File tempFile = File.createTempFile("input_", ".bin");
+        tempFile.deleteOnExit();
+        Files.write(tempFile.toPath(), content);
+        
+        File outFromArray = File.createTempFile("array_", ".tap");
+        outFromArray.deleteOnExit();
+        Data2tap data2tap = new Data2tap();
+        data2tap.setAddress(0x8000);
+        data2tap.setRawData(content);
+        data2tap.setOutTapFile(outFromArray);
+        data2tap.execute();
+        
+        File outFromMapped = File.createTempFile("mapped_", ".tap");
+        outFromMapped.deleteOnExit();
+        data2tap.setRawData(InputData.load(tempFile));
+        data2tap.setOutTapFile(outFromMapped);
+        data2tap.execute();
+        
+        assertArrayEquals(Files.readAllBytes(outFromArray.toPath()), 
+                Files.readAllBytes(outFromMapped.toPath()));
+    }
+    
+    @Test(expected = IOException.class)
+    public void testLoad_regionOutOfFile() throws IOException {
+        InputData.load(new File("src/test/resources/files/data_1.bin"), 3, 10);
+    }
+
+}   // InputDataTest.java
@@ -0,0 +1,63 @@
+/*
+ * JobExecutorsTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class JobExecutorsTest {
+
+    @Test(timeout = 30000)
+    public void testNewJobExecutor_maxConcurrentIo() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService executor = JobExecutors.newJobExecutor(8, 2);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws InterruptedException {
+                        int now = running.incrementAndGet();
+                        int max;
+                        while ((max = maxRunning.get()) < now 
+                                && ! maxRunning.compareAndSet(max, now)) {
+                        }
+                        Thread.sleep(10);   // (jako čekání na I/O)
+                        running.decrementAndGet();
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertTrue("max = " + maxRunning.get(), maxRunning.get() <= 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNewJobExecutor_invalidMaxConcurrentIo() {
+        JobExecutors.newJobExecutor(1, 0);
+    }
+
+}   // JobExecutorsTest.java
@@ -0,0 +1,246 @@
+/*
+ * TapEncoderTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class TapEncoderTest {
+
+    private static final File DATA_1_BIN = new File("src/test/resources/files/data_1.bin");
+    private static final File DATA_1_TAP = new File("src/test/resources/files/data_1.tap");
+
+    @Test
+    public void testWriteTo_sharedByThreads() throws Exception {
+        byte[] data = Files.readAllBytes(DATA_1_BIN.toPath());
+        byte[] expected = Files.readAllBytes(DATA_1_TAP.toPath());
+        final TapEncoder encoder = new TapEncoder();
+        final TapJob job = new TapJob(ZxModelSpectrum48k.get(), 
+                new TapBlockSpec(TapBlockType.BINARY_DATA, "data_1", 50000, data),
+                null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws Exception {
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        encoder.writeTo(job, Channels.newChannel(out));
+                        return out.toByteArray();
+                    }
+                }));
+            }
+            for (Future<byte[]> future : futures) {
+                Assert.assertArrayEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testJobIsImmutable() {
+        List<TapBlockSpec> blocks = new ArrayList<TapBlockSpec>(Arrays.asList(
+                new TapBlockSpec(TapBlockType.BINARY_DATA, "a", 50000, new byte[]{1})));
+        TapJob job = new TapJob(ZxModelSpectrum16k.get(), blocks, null);
+        blocks.clear();
+        Assert.assertEquals(1, job.getBlocks().size());
+        try {
+            job.getBlocks().clear();
+            Assert.fail();
+        } catch (UnsupportedOperationException ex) {
+            // ok
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncode_noOutFile() throws Exception {
+        new TapEncoder().encode(new TapJob(ZxModelSpectrum48k.get(), 
+                new TapBlockSpec(TapBlockType.BINARY_DATA, "a", 50000, new byte[]{1}),
+                null));
+    }
+
+    @Test
+    public void testEncodeAsync_concurrent() throws Exception {
+        byte[] data = Files.readAllBytes(DATA_1_BIN.toPath());
+        byte[] expected = Files.readAllBytes(DATA_1_TAP.toPath());
+        TapEncoder encoder = new TapEncoder();
+        TapBlockSpec block = new TapBlockSpec(
+                TapBlockType.BINARY_DATA, "data_1", 50000, data);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<File> files = new ArrayList<File>();
+            List<Future<TapWriteResult>> futures = 
+                    new ArrayList<Future<TapWriteResult>>();
+            for (int i = 0; i < 100; i++) {
+                File file = File.createTempFile("async", ".tap");
+                file.deleteOnExit();
+                files.add(file);
+                futures.add(encoder.encodeAsync(new TapJob(
+                        ZxModelSpectrum48k.get(), block, file), executor));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                TapWriteResult result = futures.get(i).get();
+                Assert.assertEquals(files.get(i), result.getOutTapFile());
+                Assert.assertEquals(expected.length, result.getTapBytes());
+                Assert.assertArrayEquals(expected, 
+                        Files.readAllBytes(files.get(i).toPath()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEncodeAsync_handlerFailed() throws Exception {
+        File file = File.createTempFile("async", ".tap");
+        file.deleteOnExit();
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Object> outcome = new AtomicReference<Object>();
+        // (16K model: adresa mimo RAM)
+        new TapEncoder().encodeAsync(new TapJob(ZxModelSpectrum16k.get(),
+                new TapBlockSpec(TapBlockType.BINARY_DATA, "a", 50000, new byte[]{1}),
+                file), null, "job-1", 
+                new CompletionHandler<TapWriteResult, String>() {
+                    @Override
+                    public void completed(TapWriteResult result, String job) {
+                        outcome.set(result);
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void failed(Throwable ex, String job) {
+                        Assert.assertEquals("job-1", job);
+                        outcome.set(ex);
+                        done.countDown();
+                    }
+                });
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(outcome.get() instanceof InvalidDataException);
+    }
+
+    @Test
+    public void testEncodeAsync_cancelKeepsOriginal() throws Exception {
+        byte[] data = Files.readAllBytes(DATA_1_BIN.toPath());
+        File dir = Files.createTempDirectory("async").toFile();
+        File file = new File(dir, "out.tap");
+        byte[] original = new byte[]{1, 2, 3};
+        Files.write(file.toPath(), original);
+
+        // (jediné vlákno je blokované, zápis se spustí až po zrušení)
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        try {
+            executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    blocked.await();
+                    return null;
+                }
+            });
+            Future<TapWriteResult> future = new TapEncoder().encodeAsync(
+                    new TapJob(ZxModelSpectrum48k.get(), new TapBlockSpec(
+                            TapBlockType.BINARY_DATA, "data_1", 50000, data),
+                            file), executor);
+            Assert.assertTrue(future.cancel(true));
+            blocked.countDown();
+            try {
+                future.get();
+                Assert.fail();
+            } catch (CancellationException ex) {
+                // ok
+            }
+            // (dočasný soubor se smaže po dokončení rozepsaného zápisu)
+            long deadline = System.currentTimeMillis() + 10000;
+            while (dir.list().length > 1 
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertArrayEquals(new String[]{"out.tap"}, dir.list());
+            Assert.assertArrayEquals(original, 
+                    Files.readAllBytes(file.toPath()));
+        } finally {
+            executor.shutdown();
+            file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEncodeAsync_reportRejected() throws Exception {
+        File file = File.createTempFile("async", ".tap");
+        file.deleteOnExit();
+        new TapEncoder(null, true).encodeAsync(new TapJob(
+                ZxModelSpectrum48k.get(),
+                new TapBlockSpec(TapBlockType.BINARY_DATA, "a", 50000, new byte[]{1}),
+                file), null);
+    }
+
+    @Test
+    public void testResultFuture_firstSettleWins() throws Exception {
+        AsyncTapWrite.ResultFuture future = new AsyncTapWrite.ResultFuture();
+        Assert.assertFalse(future.isDone());
+        try {
+            future.get(10, TimeUnit.MILLISECONDS);
+            Assert.fail();
+        } catch (TimeoutException ex) {
+            // ok
+        }
+        Assert.assertTrue(future.cancel(false));
+        Assert.assertFalse(future.complete(
+                new TapWriteResult(new File("a.tap"), 1, 1, 21)));
+        Assert.assertFalse(future.fail(new IOException()));
+        Assert.assertTrue(future.isDone());
+        Assert.assertTrue(future.isCancelled());
+        try {
+            future.get();
+            Assert.fail();
+        } catch (CancellationException ex) {
+            // ok
+        }
+
+        future = new AsyncTapWrite.ResultFuture();
+        Assert.assertTrue(future.fail(new IOException("x")));
+        Assert.assertFalse(future.cancel(true));
+        Assert.assertFalse(future.isCancelled());
+        try {
+            future.get();
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IOException);
+        }
+    }
+
+}   // TapEncoderTest.java
@@ -7,6 +7,11 @@
 
 package cz.mp.zxs.tools.data2tap;
 
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -65,5 +70,96 @@ public class TapHeaderTest {
         tapHeader.getBytes();   // bez createData() -> IllegalStateException
     }
 
+
+    @Test
+    public void testEncode() {
+        Random random = new Random(22);
+        String chars = "Abc 9-.,;\"'/";
+        byte[] array = new byte[3 + 2 * TapHeader.SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(array);
+        ByteBuffer direct = ByteBuffer.allocateDirect(TapHeader.SIZE);
+        for (int i = 0; i < 500; i++) {
+            TapBlockType type = TapBlockType.values()[
+                    random.nextInt(TapBlockType.values().length)];
+            StringBuilder name = new StringBuilder();
+            for (int j = random.nextInt(TapHeader.NAME_LEN + 1); j > 0; j--) {
+                name.append(chars.charAt(random.nextInt(chars.length())));
+            }
+            int dataLength = random.nextInt(0x8000);
+            int param1 = 0x4000 + random.nextInt(0xC000);
+
+            TapHeader tapHeader = new TapHeader(type);
+            tapHeader.setName(name.toString());
+            tapHeader.setDataLength(dataLength);
+            tapHeader.setParam1(param1);
+            tapHeader.createData();
+            byte[] expected = expectedBytes(type, name.toString(), 
+                    dataLength, param1);
+            assertArrayEquals(expected, tapHeader.getBytes());
+
+            ((Buffer) buffer).clear();
+            ((Buffer) buffer).position(3 + TapHeader.SIZE);    // (za jinou hlavičkou)
+            byte parity = TapHeader.encode(type, name.toString(), 
+                    dataLength, param1, buffer);
+            assertEquals(3 + 2 * TapHeader.SIZE, buffer.position());
+            assertEquals(expected[TapHeader.SIZE - 1], parity);
+            assertArrayEquals(expected, Arrays.copyOfRange(array, 
+                    3 + TapHeader.SIZE, array.length));
+
+            ((Buffer) direct).clear();
+            TapHeader.encode(type, name.toString(), dataLength, param1, direct);
+            ((Buffer) direct).flip();
+            byte[] directBytes = new byte[TapHeader.SIZE];
+            direct.get(directBytes);
+            assertArrayEquals(expected, directBytes);
+        }
+    }
+
+    /**
+     * Sestaví hlavičku po bytech, nezávisle na {@linkplain TapHeader}.
+     * 
+     * @param type
+     * @param name
+     * @param dataLength
+     * @param param1
+     * @return  21 bytů hlavičky i s délkou a paritou
+     */
+    private static byte[] expectedBytes(TapBlockType type, String name,
+            int dataLength, int param1) {
+        int param2 = type == TapBlockType.BINARY_DATA ? 0x8000 : 0;
+        byte[] bytes = new byte[21];
+        int i = 0;
+        bytes[i++] = 0x13;      // délka hlavičky (19) - lsb,Msb
+        bytes[i++] = 0x00;
+        bytes[i++] = 0x00;      // flag pro header
+        bytes[i++] = (byte) type.getNum();
+        for (int j = 0; j < 10; j++) {
+            bytes[i++] = (byte) (j < name.length() ? name.charAt(j) : ' ');
+        }
+        bytes[i++] = (byte) (dataLength & 0xFF);
+        bytes[i++] = (byte) (dataLength >> 8);
+        bytes[i++] = (byte) (param1 & 0xFF);
+        bytes[i++] = (byte) (param1 >> 8);
+        bytes[i++] = (byte) (param2 & 0xFF);
+        bytes[i++] = (byte) (param2 >> 8);
+        byte parity = 0;        // XOR od flagu po parametr 2
+        for (int j = 2; j < i; j++) {
+            parity ^= bytes[j];
+        }
+        bytes[i] = parity;
+        return bytes;
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testEncodeOverflow() {
+        TapHeader.encode(TapBlockType.BINARY_DATA, "test", 128, 0x4000, 
+                ByteBuffer.allocate(TapHeader.SIZE - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncodeInvalidParam1() {
+        TapHeader.encode(TapBlockType.BINARY_DATA, "test", 128, 0x3FFF, 
+                ByteBuffer.allocate(TapHeader.SIZE));
+    }
     
 }   // TapHeaderTest.java
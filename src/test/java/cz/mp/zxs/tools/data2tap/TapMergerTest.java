@@ -0,0 +1,99 @@
+/*
+ * TapMergerTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class TapMergerTest {
+    
+    private static final TapBlockSpec BLOCK_1 = new TapBlockSpec(
+            TapBlockType.BINARY_DATA, "data_1", 50000, 
+            new byte[]{0x30, 0x31, 0x32, 0x33, 0x34});
+    private static final TapBlockSpec BLOCK_2 = new TapBlockSpec(
+            TapBlockType.BINARY_DATA, "screen", 0x4000, new byte[6912]);
+    private static final TapBlockSpec BLOCK_3 = new TapBlockSpec(
+            TapBlockType.BINARY_DATA, "code", 32768, new byte[]{1, 2, 3});
+    
+    private static File createTapFile(TapBlockSpec... blocks) 
+            throws IOException, InvalidDataException {
+        File outTapFile = File.createTempFile("merge_", ".tap");
+        outTapFile.deleteOnExit();
+        Data2tap data2tap = new Data2tap();
+        data2tap.setOutTapFile(outTapFile);
+        data2tap.execute(Arrays.asList(blocks));
+        return outTapFile;
+    }
+    
+    @Test
+    public void testMerge_filesAndBlock() throws IOException, InvalidDataException {
+        File tap1 = createTapFile(BLOCK_1);
+        File tap3 = createTapFile(BLOCK_3);
+        File expected = createTapFile(BLOCK_1, BLOCK_2, BLOCK_3);
+        File outTapFile = File.createTempFile("merged_", ".tap");
+        outTapFile.deleteOnExit();
+        
+        TapMerger tapMerger = new TapMerger();
+        tapMerger.setVerifyParity(true);
+        tapMerger.addTapFile(tap1);
+        tapMerger.addBlock(BLOCK_2);
+        tapMerger.addTapFile(tap3);
+        long size = tapMerger.merge(outTapFile);
+        
+        assertEquals(expected.length(), size);
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), 
+                Files.readAllBytes(outTapFile.toPath()));
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testMerge_invalidInput() throws IOException, InvalidDataException {
+        File tap1 = createTapFile(BLOCK_1);
+        File broken = File.createTempFile("broken_", ".tap");
+        broken.deleteOnExit();
+        Files.write(broken.toPath(), new byte[]{19, 0, 0, 3});
+        File outTapFile = File.createTempFile("merged_", ".tap");
+        outTapFile.deleteOnExit();
+        
+        TapMerger tapMerger = new TapMerger();
+        tapMerger.addTapFile(tap1);
+        tapMerger.addTapFile(broken);
+        tapMerger.merge(outTapFile);
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testMerge_outputIsInput() throws IOException, InvalidDataException {
+        File tap1 = createTapFile(BLOCK_1);
+        
+        TapMerger tapMerger = new TapMerger();
+        tapMerger.addTapFile(tap1);
+        tapMerger.merge(tap1);
+    }
+    
+    @Test
+    public void testWriteTo_sameAsExecute() throws IOException, InvalidDataException {
+        File expected = createTapFile(BLOCK_2);
+        File outTapFile = File.createTempFile("merged_", ".tap");
+        outTapFile.deleteOnExit();
+        
+        TapMerger tapMerger = new TapMerger();
+        tapMerger.addBlock(BLOCK_2);
+        tapMerger.merge(outTapFile);
+        
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), 
+                Files.readAllBytes(outTapFile.toPath()));
+    }
+    
+}   // TapMergerTest.java
@@ -0,0 +1,84 @@
+/*
+ * TapParityTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class TapParityTest {
+    
+    /** Původní výpočet po jednotlivých bytech. */
+    private static byte xorBytewise(byte[] data, int offset, int length) {
+        byte parity = 0;
+        for (int i = offset; i < offset + length; i++) {
+            parity ^= data[i];
+        }
+        return parity;
+    }
+    
+    @Test
+    public void testXor_sameAsBytewise() {
+        Random random = new Random(48);
+        byte[] data = new byte[300];
+        random.nextBytes(data);
+        for (int offset = 0; offset < 9; offset++) {
+            for (int length = 0; length <= data.length - offset; length++) {
+                assertEquals(xorBytewise(data, offset, length), 
+                        TapParity.xor(data, offset, length));
+            }
+        }
+    }
+
+    @Test
+    public void testXor_directBufferSameAsBytewise() {
+        Random random = new Random(16);
+        byte[] data = new byte[49152];
+        random.nextBytes(data);
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data);
+        // (Buffer: testy se nepřekládají s volbou release, viz pom.xml)
+        ((Buffer) direct).position(7);
+        ((Buffer) direct).limit(data.length - 3);
+        
+        assertEquals(xorBytewise(data, 7, data.length - 10), 
+                TapParity.xor(direct));
+        assertEquals(7, direct.position());
+    }
+    
+    @Test
+    public void testCopyAndXor() {
+        byte[] src = new byte[]{ 1, 2, 4, 8, 16, 32, 64, (byte) 128, 3, 5 };
+        byte[] dst = new byte[src.length + 2];
+        byte parity = TapParity.copyAndXor(src, 0, dst, 2, src.length);
+        assertEquals(xorBytewise(src, 0, src.length), parity);
+        assertEquals(src[9], dst[11]);
+    }
+    
+    @Test
+    public void testTapBody_sameAsBytewise() {
+        Random random = new Random(6912);
+        byte[] data = new byte[6912];
+        random.nextBytes(data);
+        
+        TapBody tapBody = new TapBody(data.length);
+        tapBody.append(data);
+        tapBody.appendParityToLastByte();
+        byte[] result = tapBody.getBytes();
+        
+        assertEquals((byte) (TapBody.FLAG_DATA ^ xorBytewise(data, 0, data.length)), 
+                result[result.length - 1]);
+    }
+
+}   // TapParityTest.java
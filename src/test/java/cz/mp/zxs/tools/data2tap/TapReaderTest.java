@@ -0,0 +1,116 @@
+/*
+ * TapReaderTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class TapReaderTest {
+    
+    private static final byte[] DATA_1 = new byte[]{0x30, 0x31, 0x32, 0x33, 0x34};
+    
+    private static File createTapFile(byte[] data2) 
+            throws IOException, InvalidDataException {
+        File outTapFile = File.createTempFile("reader_", ".tap");
+        outTapFile.deleteOnExit();
+        Data2tap data2tap = new Data2tap();
+        data2tap.setOutTapFile(outTapFile);
+        data2tap.execute(Arrays.asList(
+                new TapBlockSpec(TapBlockType.BINARY_DATA, "data_1", 50000, DATA_1),
+                new TapBlockSpec(TapBlockType.BINARY_DATA, "screen", 0x4000, data2)));
+        return outTapFile;
+    }
+    
+    @Test
+    public void testReadIndex() throws IOException, InvalidDataException {
+        byte[] screen = new byte[6912];
+        new Random(3).nextBytes(screen);
+        File tapFile = createTapFile(screen);
+        
+        try (TapReader tapReader = new TapReader(tapFile)) {
+            List<TapBlock> blocks = tapReader.readIndex();
+            assertEquals(4, blocks.size());
+            
+            TapBlock header = blocks.get(0);
+            assertTrue(header.isHeader());
+            assertTrue(header.isHeaderParityOk());
+            assertEquals(TapBlockType.BINARY_DATA, header.getType());
+            assertEquals("data_1    ", header.getName());
+            assertEquals(5, header.getDataLength());
+            assertEquals(50000, header.getParam1());
+            assertEquals(TapHeader.PARAM_2_CODE_FLAG, header.getParam2());
+            
+            TapBlock body = blocks.get(1);
+            assertFalse(body.isHeader());
+            assertEquals((byte) 0xFF, body.getFlag());
+            assertEquals(21, body.getOffset());
+            assertEquals(5, body.getBlockDataLength());
+            assertTrue(tapReader.verifyParity(body));
+            assertEquals(ByteBuffer.wrap(DATA_1), tapReader.readData(body));
+            
+            assertEquals("screen    ", blocks.get(2).getName());
+            assertEquals(6912, blocks.get(2).getDataLength());
+            assertTrue(tapReader.verifyParity(blocks.get(3)));
+            assertEquals(ByteBuffer.wrap(screen), tapReader.readData(blocks.get(3)));
+            assertEquals(tapFile.length(), blocks.get(3).getNextOffset());
+        }
+    }
+    
+    @Test
+    public void testReadNextBlock_lazy() throws IOException, InvalidDataException {
+        File tapFile = createTapFile(new byte[100]);
+        try (TapReader tapReader = new TapReader(tapFile)) {
+            assertEquals(0, tapReader.readNextBlock().getIndex());
+            assertEquals(1, tapReader.getIndex().size());
+            assertEquals(1, tapReader.readNextBlock().getIndex());
+            assertEquals(4, tapReader.readIndex().size());
+            assertNull(tapReader.readNextBlock());
+        }
+    }
+    
+    @Test
+    public void testVerifyParity_corrupted() throws IOException, InvalidDataException {
+        File tapFile = createTapFile(new byte[20000]);
+        try (RandomAccessFile raf = new RandomAccessFile(tapFile, "rw")) {
+            raf.seek(21 + 9 + 21 + 3 + 12345);
+            raf.write(1);
+            raf.seek(5);
+            raf.write('X');     // jméno první hlavičky
+        }
+        try (TapReader tapReader = new TapReader(tapFile)) {
+            List<TapBlock> blocks = tapReader.readIndex();
+            assertFalse(blocks.get(0).isHeaderParityOk());
+            assertTrue(tapReader.verifyParity(blocks.get(1)));
+            assertTrue(blocks.get(2).isHeaderParityOk());
+            assertFalse(tapReader.verifyParity(blocks.get(3)));
+        }
+    }
+    
+    @Test(expected = InvalidDataException.class)
+    public void testReadIndex_truncated() throws IOException, InvalidDataException {
+        File tapFile = createTapFile(new byte[100]);
+        byte[] content = Files.readAllBytes(tapFile.toPath());
+        Files.write(tapFile.toPath(), Arrays.copyOf(content, content.length - 1));
+        try (TapReader tapReader = new TapReader(tapFile)) {
+            tapReader.readIndex();
+        }
+    }
+    
+}   // TapReaderTest.java
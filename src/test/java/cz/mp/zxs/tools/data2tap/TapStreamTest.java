@@ -0,0 +1,185 @@
+/*
+ * TapStreamTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class TapStreamTest {
+
+    /**
+     * Zdroj "procedurálně generovaných" bloků.
+     */
+    private static class GeneratedSource implements TapBlockSource {
+        private final Random random = new Random(23);
+        private final int count;
+        private final int dataLength;
+        final List<TapBlockSpec> blocks = new ArrayList<TapBlockSpec>();
+        final AtomicInteger produced = new AtomicInteger();
+
+        GeneratedSource(int count, int dataLength) {
+            this.count = count;
+            this.dataLength = dataLength;
+        }
+
+        @Override
+        public TapBlockSpec next() throws IOException, InvalidDataException {
+            if (produced.get() == count) {
+                return null;
+            }
+            byte[] data = new byte[dataLength > 0 
+                    ? dataLength : 1 + random.nextInt(2000)];
+            random.nextBytes(data);
+            TapBlockSpec block = new TapBlockSpec(TapBlockType.BINARY_DATA,
+                    "level" + produced.get(), 0x8000, data);
+            blocks.add(block);
+            produced.incrementAndGet();
+            return block;
+        }
+    }
+
+    @Test
+    public void testWriteTo() throws Exception {
+        GeneratedSource source = new GeneratedSource(300, 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = new TapStream(ZxModelSpectrum48k.get(), 4)
+                .writeTo(source, Channels.newChannel(out));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new TapEncoder().writeTo(new TapJob(ZxModelSpectrum48k.get(), 
+                source.blocks, null), Channels.newChannel(expected));
+        Assert.assertEquals(expected.size(), written);
+        Assert.assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    public void testWriteTo_file() throws Exception {
+        File tapFile = File.createTempFile("stream", ".tap");
+        tapFile.deleteOnExit();
+        GeneratedSource source = new GeneratedSource(50, 0);
+        try (FileChannel channel = FileChannel.open(tapFile.toPath(),
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            new TapStream(ZxModelSpectrum48k.get()).writeTo(source, channel);
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new TapEncoder().writeTo(new TapJob(ZxModelSpectrum48k.get(), 
+                source.blocks, null), Channels.newChannel(expected));
+        Assert.assertArrayEquals(expected.toByteArray(), 
+                Files.readAllBytes(tapFile.toPath()));
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        final int capacity = 2;
+        final int blockSize = TapHeader.SIZE + 100 + 4;
+        final GeneratedSource source = new GeneratedSource(100, 100);
+        final long[] bytes = new long[1];
+        WritableByteChannel slowSink = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                long completed = bytes[0] / blockSize;
+                Assert.assertTrue(source.produced.get() - completed 
+                        <= 2 * capacity + 3);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ex) {
+                    throw new IOException(ex);
+                }
+                int n = src.remaining();
+                ((Buffer) src).position(src.limit());
+                bytes[0] += n;
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        long written = new TapStream(ZxModelSpectrum48k.get(), capacity)
+                .writeTo(source, slowSink);
+        Assert.assertEquals(100L * blockSize, written);
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriteTo_sourceFailure() throws Exception {
+        final GeneratedSource generated = new GeneratedSource(100, 0);
+        TapBlockSource source = new TapBlockSource() {
+            @Override
+            public TapBlockSpec next() throws IOException, InvalidDataException {
+                if (generated.produced.get() == 3) {
+                    throw new IOException("generator failed");
+                }
+                return generated.next();
+            }
+        };
+        new TapStream(ZxModelSpectrum48k.get(), 1).writeTo(source,
+                Channels.newChannel(new ByteArrayOutputStream()));
+    }
+
+    @Test(timeout = 10000, expected = AssertionError.class)
+    public void testWriteTo_sourceError() throws Exception {
+        final GeneratedSource generated = new GeneratedSource(100, 0);
+        TapBlockSource source = new TapBlockSource() {
+            @Override
+            public TapBlockSpec next() throws IOException, InvalidDataException {
+                if (generated.produced.get() == 3) {
+                    throw new AssertionError("generator bug");
+                }
+                return generated.next();
+            }
+        };
+        new TapStream(ZxModelSpectrum48k.get(), 1).writeTo(source,
+                Channels.newChannel(new ByteArrayOutputStream()));
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testWriteTo_invalidBlock() throws Exception {
+        TapBlockSource source = new TapBlockSource() {
+            private boolean done = false;
+
+            @Override
+            public TapBlockSpec next() {
+                if (done) {
+                    return null;
+                }
+                done = true;
+                // (16K model: adresa mimo RAM)
+                return new TapBlockSpec(TapBlockType.BINARY_DATA, "x", 
+                        0xC000, new byte[] {1, 2, 3});
+            }
+        };
+        new TapStream(ZxModelSpectrum16k.get()).writeTo(source,
+                Channels.newChannel(new ByteArrayOutputStream()));
+    }
+
+}   // TapStreamTest.java
@@ -0,0 +1,128 @@
+/*
+ * TapWriterTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap;
+
+import cz.mp.zxs.tools.data2tap.report.BlockRecord;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class TapWriterTest {
+    
+    @Test
+    public void testWriteBody_sameAsTapBody() throws IOException {
+        byte[] data = new byte[6912];
+        new Random(42).nextBytes(data);
+        
+        TapBody tapBody = new TapBody(data.length);
+        tapBody.append(data);
+        tapBody.appendParityToLastByte();
+        
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        TapWriter tapWriter = new TapWriter(baos);
+        tapWriter.writeBody(data);
+        
+        assertArrayEquals(tapBody.getBytes(), baos.toByteArray());
+        assertEquals(data.length + 4, tapWriter.getBytesWritten());
+    }
+
+    @Test
+    public void testWriteHeaderAndBody_channel() throws IOException {
+        TapHeader tapHeader = new TapHeader();
+        tapHeader.setType(TapBlockType.BINARY_DATA);
+        tapHeader.setName("data_1");
+        tapHeader.setParam1(50000);
+        tapHeader.setDataLength(5);
+        tapHeader.createData();
+        
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        TapWriter tapWriter = new TapWriter(Channels.newChannel(baos));
+        tapWriter.writeHeader(tapHeader);
+        tapWriter.writeBody(new byte[]{0x30, 0x31, 0x32, 0x33, 0x34});
+        
+        byte[] result = baos.toByteArray();
+        assertEquals(21 + 9, result.length);
+        assertEquals((byte) 0xCB, result[result.length - 1]);   // viz data_1.tap
+    }
+    
+    @Test
+    public void testWriteBlocks_gatheringSameAsStream() throws IOException {
+        TapHeader tapHeader = new TapHeader();
+        tapHeader.setType(TapBlockType.BINARY_DATA);
+        tapHeader.setName("screen");
+        tapHeader.setParam1(0x4000);
+        tapHeader.setDataLength(6912);
+        tapHeader.createData();
+        byte[] data = new byte[6912];
+        new Random(7).nextBytes(data);
+        
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        TapWriter streamWriter = new TapWriter(expected);
+        streamWriter.writeHeader(tapHeader);
+        streamWriter.writeBody(data);
+        streamWriter.writeHeader(tapHeader);
+        streamWriter.writeBody(data);
+        
+        File tempOutFile = File.createTempFile("gather_", ".tap");
+        tempOutFile.deleteOnExit();
+        try (
+            TapWriter channelWriter = new TapWriter(FileChannel.open(
+                    tempOutFile.toPath(), StandardOpenOption.WRITE));
+            ) {
+            channelWriter.writeBlocks(Arrays.asList(tapHeader, tapHeader), 
+                    Arrays.asList(ByteBuffer.wrap(data), ByteBuffer.wrap(data)));
+            assertEquals(expected.size(), channelWriter.getBytesWritten());
+        }
+        
+        assertArrayEquals(expected.toByteArray(), 
+                Files.readAllBytes(tempOutFile.toPath()));
+    }
+    
+    @Test
+    public void testWriteBlocks_recordsFilledByBothBranches() throws IOException {
+        TapHeader tapHeader = new TapHeader();
+        tapHeader.setType(TapBlockType.BINARY_DATA);
+        tapHeader.setName("data_1");
+        tapHeader.setParam1(50000);
+        tapHeader.setDataLength(5);
+        tapHeader.createData();
+        ByteBuffer data = ByteBuffer.wrap(new byte[]{0x30, 0x31, 0x32, 0x33, 0x34});
+
+        File tempOutFile = File.createTempFile("gather_", ".tap");
+        tempOutFile.deleteOnExit();
+        TapWriter streamWriter = new TapWriter(new ByteArrayOutputStream());
+        TapWriter channelWriter = new TapWriter(FileChannel.open(
+                tempOutFile.toPath(), StandardOpenOption.WRITE));
+        for (TapWriter tapWriter : Arrays.asList(streamWriter, channelWriter)) {
+            BlockRecord record = new BlockRecord();
+            tapWriter.setBlockRecords(Arrays.asList(record));
+            tapWriter.writeBlocks(Arrays.asList(tapHeader), Arrays.asList(data));
+            tapWriter.close();
+            assertEquals(0xCB, record.getBodyParity());    // viz data_1.tap
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteBlock_emptyData() throws IOException {
+        new TapWriter(new ByteArrayOutputStream()).writeBody(new byte[]{});
+    }
+
+}   // TapWriterTest.java
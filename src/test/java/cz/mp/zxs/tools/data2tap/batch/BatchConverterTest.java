@@ -0,0 +1,91 @@
+/*
+ * BatchConverterTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.batch;
+
+import cz.mp.zxs.tools.data2tap.ZxModelSpectrum48k;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class BatchConverterTest {
+
+    @Test
+    public void testExecute() throws IOException {
+        File data1InBin = new File("src/test/resources/files/data_1.bin");
+        File data1ExpectedOutTap = new File("src/test/resources/files/data_1.tap");
+        
+        List<BatchJob> jobs = new ArrayList<BatchJob>();
+        List<File> outFiles = new ArrayList<File>();
+        for (int i = 0; i < 8; i++) {
+            File tempOutFile = File.createTempFile("data_1_", ".tap");
+            tempOutFile.deleteOnExit();
+            outFiles.add(tempOutFile);
+            jobs.add(new BatchJob(i + 1, data1InBin, 50000, "data_1", 
+                    ZxModelSpectrum48k.get(), tempOutFile));
+        }
+        // chybná úloha nesmí ovlivnit ostatní
+        jobs.add(new BatchJob(9, new File("src/test/resources/files/none.bin"), 
+                50000, "none", ZxModelSpectrum48k.get(), 
+                File.createTempFile("none_", ".tap")));
+        
+        List<BatchResult> results = new BatchConverter(4).execute(jobs);
+        
+        assertEquals(jobs.size(), results.size());
+        byte[] expectedOutData = Files.readAllBytes(data1ExpectedOutTap.toPath());
+        for (int i = 0; i < outFiles.size(); i++) {
+            assertTrue(results.get(i).isOk());
+            assertSame(jobs.get(i), results.get(i).getJob());
+            assertEquals(5, results.get(i).getDataSize());
+            assertArrayEquals(expectedOutData, 
+                    Files.readAllBytes(outFiles.get(i).toPath()));
+        }
+        assertFalse(results.get(8).isOk());
+        assertNotNull(results.get(8).getError());
+    }
+
+    @Test
+    public void testExecute_handler() throws IOException {
+        File data1InBin = new File("src/test/resources/files/data_1.bin");
+        List<BatchJob> jobs = new ArrayList<BatchJob>();
+        for (int i = 0; i < 20; i++) {
+            File tempOutFile = File.createTempFile("data_1_", ".tap");
+            tempOutFile.deleteOnExit();
+            jobs.add(new BatchJob(i + 1, 
+                    i == 7 ? new File("src/test/resources/files/none.bin") : data1InBin, 
+                    50000, "data_1", ZxModelSpectrum48k.get(), tempOutFile));
+        }
+        
+        final Thread caller = Thread.currentThread();
+        final Map<BatchJob, BatchResult> results = 
+                new IdentityHashMap<BatchJob, BatchResult>();
+        new BatchConverter(4).execute(jobs, new BatchConverter.ResultHandler() {
+            @Override
+            public void completed(BatchResult result) {
+                assertSame(caller, Thread.currentThread());
+                assertNull(results.put(result.getJob(), result));
+            }
+        });
+        
+        assertEquals(jobs.size(), results.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            assertEquals(i != 7, results.get(jobs.get(i)).isOk());
+        }
+    }
+
+}   // BatchConverterTest.java
@@ -0,0 +1,74 @@
+/*
+ * BatchManifestTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.batch;
+
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import cz.mp.zxs.tools.data2tap.ZxModelSpectrum16k;
+import cz.mp.zxs.tools.data2tap.ZxModelSpectrum48k;
+import java.io.File;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class BatchManifestTest {
+
+    private static final File BASE_DIR = new File("/tmp/assets");
+
+    @Test
+    public void testParseLine() throws InvalidDataException {
+        BatchJob job = BatchManifest.parseLine(
+                " loader.scr ; 0x4000 ; screen ; 16k ; out/loader.tap ", 
+                3, BASE_DIR);
+        assertEquals(3, job.getLineNumber());
+        assertEquals(new File(BASE_DIR, "loader.scr"), job.getInputFile());
+        assertEquals(16384, job.getAddress());
+        assertEquals("screen", job.getName());
+        assertSame(ZxModelSpectrum16k.get(), job.getModel());
+        assertEquals(new File(BASE_DIR, "out/loader.tap"), job.getOutTapFile());
+    }
+
+    @Test
+    public void testParseLine_defaults() throws InvalidDataException {
+        BatchJob job = BatchManifest.parseLine(
+                "/data/code.bin;50000;;;/data/code.tap", 1, BASE_DIR);
+        assertEquals(new File("/data/code.bin"), job.getInputFile());
+        assertEquals("", job.getName());
+        assertSame(ZxModelSpectrum48k.get(), job.getModel());
+    }
+
+    @Test
+    public void testParseLine_commentAndBlank() throws InvalidDataException {
+        assertNull(BatchManifest.parseLine("# input;address;name;model;output", 1, BASE_DIR));
+        assertNull(BatchManifest.parseLine("   ", 2, BASE_DIR));
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testParseLine_wrongFieldCount() throws InvalidDataException {
+        BatchManifest.parseLine("a.bin;0x4000;name;a.tap", 1, BASE_DIR);
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testParseLine_wrongAddress() throws InvalidDataException {
+        BatchManifest.parseLine("a.bin;0xZZ;name;48k;a.tap", 1, BASE_DIR);
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testParseLine_unknownModel() throws InvalidDataException {
+        BatchManifest.parseLine("a.bin;0x4000;name;128k;a.tap", 1, BASE_DIR);
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testParseLine_nameTooLong() throws InvalidDataException {
+        BatchManifest.parseLine("a.bin;0x4000;name_too_long;48k;a.tap", 1, BASE_DIR);
+    }
+
+}   // BatchManifestTest.java
@@ -0,0 +1,209 @@
+/*
+ * BatchWatcherTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class BatchWatcherTest {
+
+    @Test(timeout = 30000)
+    public void testRun_convertsOnlyChangedInputs() throws Exception {
+        Path dir = Files.createTempDirectory("watch_");
+        final Path a = dir.resolve("a.bin");
+        final Path b = dir.resolve("b.bin");
+        Files.write(a, new byte[]{1, 2, 3});
+        Files.write(b, new byte[]{4, 5, 6});
+        File manifestFile = dir.resolve("assets.txt").toFile();
+        Files.write(manifestFile.toPath(), 
+                ("a.bin ; 32768 ; a ; ; a.tap\n"
+                + "b.bin ; 32768 ; b ; ; b.tap\n").getBytes(StandardCharsets.UTF_8));
+        
+        final BlockingQueue<List<BatchResult>> queue = 
+                new LinkedBlockingQueue<List<BatchResult>>();
+        final BatchWatcher batchWatcher = new BatchWatcher(manifestFile, 50, 
+                new BatchWatcher.Listener() {
+                    @Override
+                    public void converted(List<BatchResult> results) {
+                        queue.add(results);
+                    }
+                    @Override
+                    public void manifestFailed(Exception ex) {
+                    }
+                });
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    batchWatcher.run();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        });
+        thread.start();
+        try {
+            List<BatchResult> initial = queue.poll(10, TimeUnit.SECONDS);
+            assertEquals(2, initial.size());
+            assertTrue(initial.get(0).isOk());
+            assertTrue(initial.get(1).isOk());
+            assertEquals(3 + 25, dir.resolve("a.tap").toFile().length());
+
+            // stejný obsah -> nic se nepřevádí
+            Files.write(b, new byte[]{4, 5, 6});
+            // změna -> převede se jen a.tap
+            Files.write(a, new byte[]{1, 2, 3, 4});
+            
+            List<BatchResult> changed = queue.poll(10, TimeUnit.SECONDS);
+            assertEquals(1, changed.size());
+            assertEquals("a", changed.get(0).getJob().getName());
+            assertEquals(4 + 25, dir.resolve("a.tap").toFile().length());
+            assertNull(queue.poll(500, TimeUnit.MILLISECONDS));
+        } finally {
+            batchWatcher.close();
+            thread.join(5000);
+        }
+        assertFalse(thread.isAlive());
+    }
+
+    @Test(timeout = 30000)
+    public void testRun_inputDirRecreated() throws Exception {
+        Path dir = Files.createTempDirectory("watch_");
+        Path inDir = dir.resolve("in");
+        final Path a = inDir.resolve("a.bin");
+        Files.createDirectory(inDir);
+        Files.write(a, new byte[]{1, 2, 3});
+        File manifestFile = dir.resolve("assets.txt").toFile();
+        byte[] manifest = "in/a.bin ; 32768 ; a ; ; a.tap\n"
+                .getBytes(StandardCharsets.UTF_8);
+        Files.write(manifestFile.toPath(), manifest);
+        Path aTap = dir.resolve("a.tap");
+
+        final BlockingQueue<List<BatchResult>> queue = 
+                new LinkedBlockingQueue<List<BatchResult>>();
+        final BatchWatcher batchWatcher = new BatchWatcher(manifestFile, 50, 
+                new BatchWatcher.Listener() {
+                    @Override
+                    public void converted(List<BatchResult> results) {
+                        queue.add(results);
+                    }
+                    @Override
+                    public void manifestFailed(Exception ex) {
+                    }
+                });
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    batchWatcher.run();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        });
+        thread.start();
+        try {
+            assertTrue(queue.poll(10, TimeUnit.SECONDS).get(0).isOk());
+
+            // smazání adresáře zneplatní jeho klíč
+            Files.delete(a);
+            Files.delete(inDir);
+            assertFalse(queue.poll(10, TimeUnit.SECONDS).get(0).isOk());
+
+            Files.createDirectory(inDir);
+            Files.write(a, new byte[]{1, 2});
+            Files.write(manifestFile.toPath(), manifest);
+            awaitTapLength(queue, aTap, 2 + 25);
+
+            // adresář se sleduje znovu
+            Files.write(a, new byte[]{1, 2, 3, 4, 5});
+            awaitTapLength(queue, aTap, 5 + 25);
+        } finally {
+            batchWatcher.close();
+            thread.join(5000);
+        }
+        assertFalse(thread.isAlive());
+    }
+
+    @Test(timeout = 30000)
+    public void testRun_failedInputConvertedAgain() throws Exception {
+        Path dir = Files.createTempDirectory("watch_");
+        final Path a = dir.resolve("a.bin");
+        Files.write(a, new byte[]{1, 2, 3});
+        Path aTap = dir.resolve("a.tap");
+        Files.createDirectory(aTap);    // (výstup nelze zapsat)
+        File manifestFile = dir.resolve("assets.txt").toFile();
+        Files.write(manifestFile.toPath(), "a.bin ; 32768 ; a ; ; a.tap\n"
+                .getBytes(StandardCharsets.UTF_8));
+
+        final BlockingQueue<List<BatchResult>> queue = 
+                new LinkedBlockingQueue<List<BatchResult>>();
+        final BatchWatcher batchWatcher = new BatchWatcher(manifestFile, 50, 
+                new BatchWatcher.Listener() {
+                    @Override
+                    public void converted(List<BatchResult> results) {
+                        queue.add(results);
+                    }
+                    @Override
+                    public void manifestFailed(Exception ex) {
+                    }
+                });
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    batchWatcher.run();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        });
+        thread.start();
+        try {
+            assertFalse(queue.poll(10, TimeUnit.SECONDS).get(0).isOk());
+
+            // stejný obsah -> po chybě se převede znovu
+            Files.delete(aTap);
+            Files.write(a, new byte[]{1, 2, 3});
+            awaitTapLength(queue, aTap, 3 + 25);
+        } finally {
+            batchWatcher.close();
+            thread.join(5000);
+        }
+        assertFalse(thread.isAlive());
+    }
+
+    /**
+     * Čeká na převod, po kterém má TAP soubor zadanou délku.
+     */
+    private static void awaitTapLength(BlockingQueue<List<BatchResult>> queue,
+            Path tap, long length) throws InterruptedException {
+        while (true) {
+            List<BatchResult> results = queue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(results);
+            if (results.get(0).isOk() && tap.toFile().length() == length) {
+                return;
+            }
+        }
+    }
+
+}   // BatchWatcherTest.java
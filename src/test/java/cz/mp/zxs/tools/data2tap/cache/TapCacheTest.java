@@ -0,0 +1,125 @@
+/*
+ * TapCacheTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.cache;
+
+import cz.mp.zxs.tools.data2tap.Data2tap;
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import cz.mp.zxs.tools.data2tap.TapBlockSpec;
+import cz.mp.zxs.tools.data2tap.TapBlockType;
+import cz.mp.zxs.tools.data2tap.ZxModelSpectrum16k;
+import cz.mp.zxs.tools.data2tap.ZxModelSpectrum48k;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class TapCacheTest {
+
+    private static final byte[] DATA_1 = new byte[]{0x30, 0x31, 0x32, 0x33, 0x34};
+    
+    private static List<TapBlockSpec> block(String name, int address, byte[] data) {
+        return Collections.singletonList(new TapBlockSpec(
+                TapBlockType.BINARY_DATA, name, address, data));
+    }
+    
+    @Test
+    public void testKey() {
+        String key = TapCache.key(ZxModelSpectrum48k.get(), block("data_1", 30000, DATA_1));
+        assertEquals(64, key.length());
+        assertEquals(key, TapCache.key(ZxModelSpectrum48k.get(), 
+                block("data_1", 30000, DATA_1.clone())));
+        assertNotEquals(key, TapCache.key(ZxModelSpectrum16k.get(), 
+                block("data_1", 30000, DATA_1)));
+        assertNotEquals(key, TapCache.key(ZxModelSpectrum48k.get(), 
+                block("data_2", 30000, DATA_1)));
+        assertNotEquals(key, TapCache.key(ZxModelSpectrum48k.get(), 
+                block("data_1", 30001, DATA_1)));
+        assertNotEquals(key, TapCache.key(ZxModelSpectrum48k.get(), 
+                block("data_1", 30000, new byte[]{0x30, 0x31, 0x32, 0x33, 0x35})));
+    }
+    
+    @Test
+    public void testExecuteWithCache() throws IOException, InvalidDataException {
+        Path dir = Files.createTempDirectory("cache_");
+        TapCache cache = new TapCache(dir.toFile());
+        File expected = new File("src/test/resources/files/data_1.tap");
+        
+        File out1 = dir.resolve("out1.tap.out").toFile();
+        Data2tap data2tap = new Data2tap();
+        data2tap.setName("data_1");
+        data2tap.setAddress(50000);
+        data2tap.setRawData(DATA_1);
+        data2tap.setOutTapFile(out1);
+        data2tap.setCache(cache);
+        data2tap.execute();
+        String key = TapCache.key(ZxModelSpectrum48k.get(), block("data_1", 50000, DATA_1));
+        assertTrue(dir.resolve(key + TapCache.ENTRY_SUFFIX).toFile().isFile());
+        
+        File out2 = dir.resolve("out2.tap.out").toFile();
+        assertTrue(cache.copyTo(key, out2));
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), 
+                Files.readAllBytes(out1.toPath()));
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), 
+                Files.readAllBytes(out2.toPath()));
+        assertFalse(cache.copyTo(TapCache.key(ZxModelSpectrum16k.get(), 
+                block("data_1", 50000, DATA_1)), out2));
+    }
+    
+    @Test
+    public void testEviction() throws IOException {
+        Path dir = Files.createTempDirectory("cache_");
+        File tapFile = dir.resolve("x.bin").toFile();
+        Files.write(tapFile.toPath(), new byte[1000]);
+        TapCache cache = new TapCache(dir.toFile(), 3500);
+        
+        cache.store("a", tapFile);
+        dir.resolve("a.tap").toFile().setLastModified(1000000L);
+        cache.store("b", tapFile);
+        dir.resolve("b.tap").toFile().setLastModified(3000000L);
+        cache.store("c", tapFile);
+        dir.resolve("c.tap").toFile().setLastModified(2000000L);
+        assertTrue(dir.resolve("a.tap").toFile().exists());
+        
+        cache.store("d", tapFile);      // 4000 B > 3500 B -> smaže nejstarší (a)
+        assertFalse(dir.resolve("a.tap").toFile().exists());
+        assertTrue(dir.resolve("b.tap").toFile().exists());
+        assertTrue(dir.resolve("c.tap").toFile().exists());
+        assertTrue(dir.resolve("d.tap").toFile().exists());
+    }
+
+    @Test
+    public void testEviction_staleSizeHint() throws IOException {
+        Path dir = Files.createTempDirectory("cache_");
+        File tapFile = dir.resolve("x.bin").toFile();
+        Files.write(tapFile.toPath(), new byte[1000]);
+        TapCache cache = new TapCache(dir.toFile(), 3500);
+        
+        cache.store("a", tapFile);
+        cache.store("a", tapFile);      // nahrazení se nepočítá dvakrát
+        cache.store("b", tapFile);
+        cache.store("c", tapFile);
+        assertTrue(dir.resolve("a.tap").toFile().exists());
+        
+        // odhad je teď vyšší než skutečnost -> projde se adresář, nic se nesmaže
+        assertTrue(dir.resolve("c.tap").toFile().delete());
+        cache.store("d", tapFile);
+        assertTrue(dir.resolve("a.tap").toFile().exists());
+        assertTrue(dir.resolve("b.tap").toFile().exists());
+        assertTrue(dir.resolve("d.tap").toFile().exists());
+    }
+
+}   // TapCacheTest.java
@@ -0,0 +1,42 @@
+/*
+ * DataTextFormatTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.gui;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import javax.swing.text.PlainDocument;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class DataTextFormatTest {
+    
+    @Test
+    public void testFormat() {
+        ByteBuffer data = ByteBuffer.wrap(new byte[]{ 0, 10, (byte) 255 });
+        assertEquals("00 0A FF ", DataTextFormat.format(data, 16));
+        assertEquals("0, 10, 255, ", DataTextFormat.format(data, 10));
+    }
+    
+    @Test
+    public void testFormatAndTokenize() throws Exception {
+        byte[] data = new byte[1000];
+        new Random(3).nextBytes(data);
+        for (int radix : new int[]{ 10, 16 }) {
+            PlainDocument doc = new PlainDocument();
+            doc.insertString(0, 
+                    DataTextFormat.format(ByteBuffer.wrap(data), radix), null);
+            assertArrayEquals(data, 
+                    new DataTextTokenizer(doc, radix).toByteArray());
+        }
+    }
+
+}   // DataTextFormatTest.java
@@ -0,0 +1,157 @@
+/*
+ * DataTextTokenizerTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.gui;
+
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class DataTextTokenizerTest {
+
+    private static DataTextTokenizer createTokenizer(PlainDocument doc, 
+            int radix) {
+        DataTextTokenizer tokenizer = new DataTextTokenizer(doc, radix);
+        doc.addDocumentListener(tokenizer);
+        return tokenizer;
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        PlainDocument doc = new PlainDocument();
+        doc.insertString(0, " 24 60,\n144 ", null);
+        DataTextTokenizer tokenizer = createTokenizer(doc, 10);
+        assertArrayEquals(new byte[]{ 24, 60, (byte) 0x90 }, 
+                tokenizer.toByteArray());
+        
+        tokenizer.setRadix(16);
+        assertEquals(1, tokenizer.getErrorCount());     // 144 > FF
+        assertEquals(8, tokenizer.getErrorStart());
+        assertEquals(11, tokenizer.getErrorEnd());
+    }
+
+    @Test
+    public void testParse_separators() throws Exception {
+        PlainDocument doc = new PlainDocument();
+        doc.insertString(0, "24;60.90", null);
+        assertArrayEquals(new byte[]{ 0x24, 0x60, (byte) 0x90 }, 
+                createTokenizer(doc, 16).toByteArray());
+        
+        doc = new PlainDocument();
+        doc.insertString(0, "  \n ", null);
+        assertArrayEquals(new byte[]{}, createTokenizer(doc, 16).toByteArray());
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testParse_valueTooBig() throws Exception {
+        PlainDocument doc = new PlainDocument();
+        doc.insertString(0, "1 256", null);
+        createTokenizer(doc, 10).toByteArray();
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testParse_wrongNumber() throws Exception {
+        PlainDocument doc = new PlainDocument();
+        doc.insertString(0, "1F", null);
+        createTokenizer(doc, 10).toByteArray();
+    }
+
+    @Test
+    public void testIncrementalEdits() throws Exception {
+        PlainDocument doc = new PlainDocument();
+        DataTextTokenizer tokenizer = createTokenizer(doc, 16);
+        doc.insertString(0, "01 02 03", null);
+        assertArrayEquals(new byte[]{ 1, 2, 3 }, tokenizer.toByteArray());
+        
+        doc.remove(2, 1);           // "0102 03"
+        assertEquals(1, tokenizer.getErrorCount());     // 0102 > FF
+        doc.insertString(2, ",", null);                 // "01,02 03"
+        assertArrayEquals(new byte[]{ 1, 2, 3 }, tokenizer.toByteArray());
+        
+        doc.insertString(5, "X", null);                 // "01,02X 03"
+        assertEquals(3, tokenizer.getErrorStart());
+        try {
+            tokenizer.toByteArray();
+            fail();
+        } catch (InvalidDataException ex) {
+            assertTrue(ex.getMessage().contains("02X"));
+        }
+        doc.remove(5, 1);
+        doc.insertString(8, " FF", null);
+        ByteBuffer data = tokenizer.getData();
+        assertEquals(4, data.remaining());
+        assertEquals((byte) 0xFF, data.get(3));
+    }
+
+    @Test
+    public void testRandomEdits() throws BadLocationException,
+            InvalidDataException {
+        Random random = new Random(7);
+        String chars = "0123456789AF ,;\n";
+        PlainDocument doc = new PlainDocument();
+        DataTextTokenizer tokenizer = createTokenizer(doc, 16);
+        for (int i = 0; i < 2000; i++) {
+            int length = doc.getLength();
+            if (length > 0 && random.nextInt(3) == 0) {
+                int offset = random.nextInt(length);
+                doc.remove(offset, 1 + random.nextInt(
+                        Math.min(5, length - offset)));
+            }
+            else {
+                StringBuilder sb = new StringBuilder();
+                for (int j = random.nextInt(6); j >= 0; j--) {
+                    sb.append(chars.charAt(random.nextInt(chars.length())));
+                }
+                doc.insertString(random.nextInt(length + 1), sb.toString(), null);
+            }
+            
+            String text = doc.getText(0, doc.getLength());
+            byte[] expected = parseAll(text, 16);
+            if (expected == null) {
+                assertTrue(text, tokenizer.getErrorCount() > 0);
+            }
+            else {
+                assertArrayEquals(text, expected, tokenizer.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Jednoduchý (neprůběžný) převod celého textu, pro porovnání.
+     * 
+     * @return  {@code null} při chybě
+     */
+    private static byte[] parseAll(String text, int radix) {
+        String trimmed = text.replaceFirst("^[,.;\\s]+", "");
+        if (trimmed.isEmpty()) {
+            return new byte[]{};
+        }
+        String[] numbers = trimmed.split("[,.;\\s]+");
+        byte[] result = new byte[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            try {
+                int value = Integer.parseInt(numbers[i], radix);
+                if (value < 0 || value > 0xFF) {
+                    return null;
+                }
+                result[i] = (byte) value;
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+}   // DataTextTokenizerTest.java
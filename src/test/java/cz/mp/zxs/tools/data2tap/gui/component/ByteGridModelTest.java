@@ -0,0 +1,79 @@
+/*
+ * ByteGridModelTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.gui.component;
+
+import java.nio.ByteBuffer;
+import javax.swing.undo.UndoManager;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class ByteGridModelTest {
+
+    public ByteGridModelTest() {
+    }
+
+    @Test
+    public void testEditAndUndo() {
+        ByteGridModel model = new ByteGridModel();
+        UndoManager undoManager = new UndoManager();
+        model.addUndoableEditListener(undoManager);
+
+        model.setData(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+        assertFalse(undoManager.canUndo());     // (setData se nevrací)
+
+        model.set(0, (byte) 9);
+        model.insert(3, (byte) 4);
+        model.remove(1);
+        assertArrayEquals(new byte[] {9, 3, 4}, model.toByteArray());
+
+        undoManager.undo();
+        assertArrayEquals(new byte[] {9, 2, 3, 4}, model.toByteArray());
+        undoManager.undo();
+        undoManager.undo();
+        assertArrayEquals(new byte[] {1, 2, 3}, model.toByteArray());
+        undoManager.redo();
+        assertArrayEquals(new byte[] {9, 2, 3}, model.toByteArray());
+    }
+
+    @Test
+    public void testGrow() {
+        ByteGridModel model = new ByteGridModel();
+        for (int i = 0; i < 1000; i++) {
+            model.insert(model.getSize(), (byte) i);
+        }
+        assertEquals(1000, model.getSize());
+        assertEquals((byte) 999, model.get(999));
+    }
+
+    @Test
+    public void testAppendData() {
+        ByteGridModel model = new ByteGridModel();
+        UndoManager undoManager = new UndoManager();
+        model.addUndoableEditListener(undoManager);
+        byte[] chunk = new byte[300];
+        chunk[299] = 7;
+        model.appendData(ByteBuffer.wrap(new byte[] {1, 2}));
+        model.appendData(ByteBuffer.wrap(chunk));
+        assertEquals(302, model.getSize());
+        assertEquals((byte) 2, model.get(1));
+        assertEquals((byte) 7, model.get(301));
+        assertFalse(undoManager.canUndo());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        ByteGridModel model = new ByteGridModel();
+        model.setData(ByteBuffer.wrap(new byte[] {1}));
+        model.get(1);
+    }
+
+}   // ByteGridModelTest.java
@@ -0,0 +1,72 @@
+/*
+ * ByteGridTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.gui.component;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class ByteGridTest {
+
+    public ByteGridTest() {
+    }
+
+    private static String row(ByteGrid grid, int row) {
+        char[] buffer = new char[grid.getLineChars()];
+        return new String(buffer, 0, grid.formatRow(row, buffer));
+    }
+
+    @Test
+    public void testFormatRow() {
+        byte[] data = new byte[18];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 15);
+        }
+        ByteGridModel model = new ByteGridModel();
+        model.setData(ByteBuffer.wrap(data));
+        ByteGrid grid = new ByteGrid(model);
+
+        assertEquals("0010  F0 FF ", row(grid, 1));
+        grid.setRadix(10);
+        assertEquals("00016  240 255 ", row(grid, 1));
+        assertEquals("00000    0  15  30  45  60  75  90 105 120 135 150 165 180 195 210 225 ",
+                row(grid, 0));
+        assertEquals("00032  ", row(grid, 2));
+    }
+
+    @Test
+    public void testTypeDigits() {
+        ByteGridModel model = new ByteGridModel();
+        ByteGrid grid = new ByteGrid(model);
+
+        // hex: 2 číslice na byte, za koncem se přidává
+        grid.typeDigit(0xA);
+        grid.typeDigit(0x5);
+        grid.typeDigit(0xF);
+        assertArrayEquals(new byte[] {(byte) 0xA5, 0x0F}, model.toByteArray());
+        assertEquals(1, grid.getCaretIndex());
+
+        // dec: "2","5","6" -> 25, 6 (256 > 0xFF)
+        model.setData(ByteBuffer.allocate(0));
+        grid.setRadix(10);
+        grid.typeDigit(2);
+        grid.typeDigit(5);
+        grid.typeDigit(6);
+        assertArrayEquals(new byte[] {25, 6}, model.toByteArray());
+        // "0" -> 60, "0" -> další byte (600 > 0xFF)
+        grid.typeDigit(0);
+        grid.typeDigit(0);
+        assertArrayEquals(new byte[] {25, 60, 0}, model.toByteArray());
+        assertEquals(2, grid.getCaretIndex());
+    }
+
+}   // ByteGridTest.java
@@ -0,0 +1,90 @@
+/*
+ * EncoderMetricsTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+import cz.mp.zxs.tools.data2tap.Data2tap;
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import cz.mp.zxs.tools.data2tap.TapBlockType;
+import cz.mp.zxs.tools.data2tap.ZxModel;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class EncoderMetricsTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    public EncoderMetricsTest() {
+    }
+
+    private static Data2tap createData2tap(int address, File outTapFile) {
+        Data2tap data2tap = new Data2tap();
+        data2tap.setModel(ZxModel.getByKey("48k"));
+        data2tap.setTapBlockType(TapBlockType.BINARY_DATA);
+        data2tap.setName("test");
+        data2tap.setAddress(address);
+        data2tap.setRawData(ByteBuffer.wrap(new byte[100]));
+        data2tap.setOutTapFile(outTapFile);
+        return data2tap;
+    }
+
+    @Test
+    public void testExecuteIsCounted() throws Exception {
+        EncoderMetrics metrics = EncoderMetrics.get();
+        long blocks = metrics.getBlocksEncoded();
+        long bytesIn = metrics.getBytesIn();
+        long bytesOut = metrics.getBytesOut();
+        long builds = metrics.getBuildLatency().getCount();
+        long writes = metrics.getWriteLatency().getCount();
+        long failures = metrics.getValidationFailures();
+
+        File out = tmp.newFile("out.tap");
+        createData2tap(0x8000, out).execute();
+
+        // (jiné testy mohou běžet souběžně, proto >=)
+        assertTrue(metrics.getBlocksEncoded() >= blocks + 2);
+        assertTrue(metrics.getBytesIn() >= bytesIn + 100);
+        assertTrue(metrics.getBytesOut() >= bytesOut + out.length());
+        assertTrue(metrics.getBuildLatency().getCount() >= builds + 1);
+        assertTrue(metrics.getWriteLatency().getCount() >= writes + 1);
+
+        try {
+            createData2tap(0xFFF0, tmp.newFile("bad.tap")).execute();
+            fail();
+        } catch (InvalidDataException ex) {
+            // ok
+        }
+        assertTrue(metrics.getValidationFailures() >= failures + 1);
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        EncoderMetrics.register();
+        EncoderMetrics.register();      // (podruhé nevadí)
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(EncoderMetrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        assertTrue(server.getAttribute(name, "BlocksEncoded") instanceof Long);
+        CompositeData build = (CompositeData) server.getAttribute(name, "BuildLatency");
+        assertTrue(build.containsKey("p99Nanos"));
+    }
+
+}   // EncoderMetricsTest.java
@@ -0,0 +1,80 @@
+/*
+ * LatencyHistogramTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class LatencyHistogramTest {
+
+    public LatencyHistogramTest() {
+    }
+
+    @Test
+    public void testBucketIndex() {
+        assertEquals(0, LatencyHistogram.bucketIndex(0));
+        assertEquals(1, LatencyHistogram.bucketIndex(1));
+        assertEquals(2, LatencyHistogram.bucketIndex(2));
+        assertEquals(2, LatencyHistogram.bucketIndex(3));
+        assertEquals(11, LatencyHistogram.bucketIndex(1024));
+        assertEquals(63, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testSnapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getSnapshot().getP99Nanos());
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+        LatencySnapshot snapshot = histogram.getSnapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(50500, snapshot.getMeanNanos());
+        assertEquals(100000, snapshot.getMaxNanos());
+        // (přesnost na dvojnásobek)
+        assertTrue(snapshot.getP50Nanos() >= 50000);
+        assertTrue(snapshot.getP50Nanos() < 100000);
+        assertTrue(snapshot.getP99Nanos() >= 99000);
+        assertTrue(snapshot.getP99Nanos() <= 100000);
+
+        histogram.reset();
+        assertEquals(0, histogram.getSnapshot().getCount());
+        assertEquals(0, histogram.getSnapshot().getMaxNanos());
+    }
+
+    @Test
+    public void testConcurrentRecord() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        histogram.record(i + offset);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencySnapshot snapshot = histogram.getSnapshot();
+        assertEquals(40000, snapshot.getCount());
+        assertEquals(40000, histogram.getCount());
+        assertEquals(9999 + 3, snapshot.getMaxNanos());
+    }
+
+}   // LatencyHistogramTest.java
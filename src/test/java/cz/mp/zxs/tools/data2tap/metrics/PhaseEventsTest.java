@@ -0,0 +1,87 @@
+/*
+ * PhaseEventsTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.metrics;
+
+import cz.mp.zxs.tools.data2tap.Data2tap;
+import cz.mp.zxs.tools.data2tap.TapBlockType;
+import cz.mp.zxs.tools.data2tap.ZxModel;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class PhaseEventsTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    public PhaseEventsTest() {
+    }
+
+    @Test
+    public void testNotRecording() {
+        assertNull(PhaseEvents.begin());
+        PhaseEvents.end(null, PhaseEvents.Phase.WRITE, 1, null, null);
+    }
+
+    @Test
+    public void testExecuteEmitsEvents() throws Exception {
+        assumeTrue(PhaseEvents.AVAILABLE);
+
+        ZxModel model = ZxModel.getByKey("48k");
+        File out = tmp.newFile("out.tap");
+        Path jfrFile = tmp.newFile("test.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable(ConversionPhaseEvent.NAME);
+            recording.start();
+
+            Data2tap data2tap = new Data2tap();
+            data2tap.setModel(model);
+            data2tap.setTapBlockType(TapBlockType.BINARY_DATA);
+            data2tap.setName("test");
+            data2tap.setAddress(0x8000);
+            data2tap.setRawData(ByteBuffer.wrap(new byte[100]));
+            data2tap.setOutTapFile(out);
+            data2tap.execute();
+
+            recording.stop();
+            recording.dump(jfrFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(jfrFile);
+        Set<String> phases = new HashSet<String>();
+        for (RecordedEvent event : events) {
+            if (! event.getEventType().getName().equals(ConversionPhaseEvent.NAME)
+                    || ! out.getPath().equals(event.getString("outputPath"))) {
+                continue;   // (jiné testy mohou běžet souběžně)
+            }
+            phases.add(event.getString("phase"));
+            assertEquals(model.getName(), event.getString("model"));
+            assertTrue(event.getLong("payloadSize") > 0);
+        }
+        assertTrue(phases.toString(), phases.contains("HEADER"));
+        assertTrue(phases.toString(), phases.contains("BODY"));
+        assertTrue(phases.toString(), phases.contains("PARITY"));
+        assertTrue(phases.toString(), phases.contains("WRITE"));
+    }
+
+}   // PhaseEventsTest.java
@@ -0,0 +1,69 @@
+/*
+ * ReportWriterTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class ReportWriterTest {
+
+    public ReportWriterTest() {
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        BlockRecord record = new BlockRecord();
+        record.setLineNumber(3);
+        record.setInputFile(new File("in.bin"));
+        record.setOutputFile(new File("out.tap"));
+        record.setModel("48k");
+        record.setType(3);
+        record.setName("a\"b\\c");
+        record.setAddress(16384);
+        record.setInputSize(10);
+        record.setTapSize(35);
+        record.setHeaderParity(1);
+        record.setBodyParity(255);
+        record.setReadNanos(5);
+        record.setWriteNanos(7);
+        record.setLoadTStates(3500000);
+
+        BlockRecord failed = new BlockRecord();
+        failed.setInputFile(new File("bad.bin"));
+        failed.setError("line1\nline2\u0001");
+
+        StringWriter out = new StringWriter();
+        ReportWriter reportWriter = new ReportWriter(out);
+        reportWriter.write(record);
+        reportWriter.write(failed);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"line\":3,\"input\":\"in.bin\",\"output\":\"out.tap\","
+                + "\"model\":\"48k\",\"type\":3,\"name\":\"a\\\"b\\\\c\","
+                + "\"address\":16384,\"inputSize\":10,\"tapSize\":35,"
+                + "\"headerParity\":1,\"bodyParity\":255,\"cached\":false,"
+                + "\"phaseNanos\":{\"read\":5,\"header\":0,\"body\":0,"
+                + "\"parity\":0,\"write\":7},\"loadTimeMs\":1000}", lines[0]);
+        assertEquals("{\"input\":\"bad.bin\",\"output\":null,"
+                + "\"error\":\"line1\\nline2\\u0001\"}", lines[1]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testJsonWriterValueWithoutName() throws IOException {
+        new JsonWriter(new StringWriter()).beginObject().value(1);
+    }
+
+}   // ReportWriterTest.java
@@ -0,0 +1,62 @@
+/*
+ * TapLoadTimeTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.report;
+
+import cz.mp.zxs.tools.data2tap.TapBlockType;
+import cz.mp.zxs.tools.data2tap.TapHeader;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class TapLoadTimeTest {
+
+    public TapLoadTimeTest() {
+    }
+
+    @Test
+    public void testDataBlockTStates() {
+        // flag 0xFF + 100 nul + parita 0xFF: 16 jedniček, 800 nul
+        long expected = 2168L * 3223 + 667 + 735 
+                + 2L * (800 * 855 + 16 * 1710);
+        assertEquals(expected, TapLoadTime.dataBlockTStates(
+                (byte) 0xFF, ByteBuffer.allocate(100), (byte) 0xFF));
+    }
+
+    @Test
+    public void testHeaderBlockTStates() {
+        TapHeader header = new TapHeader(TapBlockType.BINARY_DATA);
+        header.setName("");
+        header.setDataLength(6912);
+        header.setParam1(16384);
+        header.createData();
+        byte[] bytes = header.getBytes();
+        
+        int ones = 0;
+        for (int i = 2; i < bytes.length; i++) {
+            ones += Integer.bitCount(bytes[i] & 0xFF);
+        }
+        long expected = 2168L * 8063 + 667 + 735 
+                + 2L * ((19 * 8 - ones) * 855 + ones * 1710);
+        assertEquals(expected, TapLoadTime.headerBlockTStates(bytes));
+        // (pilotní tón hlavičky trvá asi 5 s)
+        long ms = TapLoadTime.toMillis(expected);
+        assertTrue(ms > 5000 && ms < 6000);
+    }
+
+    @Test
+    public void testToMillis() {
+        assertEquals(0, TapLoadTime.toMillis(0));
+        assertEquals(1000, TapLoadTime.toMillis(3500000));
+        assertEquals(1, TapLoadTime.toMillis(1750));
+    }
+
+}   // TapLoadTimeTest.java
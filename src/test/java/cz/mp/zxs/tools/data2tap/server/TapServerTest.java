@@ -0,0 +1,175 @@
+/*
+ * TapServerTest.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.server;
+
+import cz.mp.zxs.tools.data2tap.Data2tap;
+import cz.mp.zxs.tools.data2tap.InvalidDataException;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Martin Pokorný
+ */
+public class TapServerTest {
+    
+    private static final byte[] DATA_1 = new byte[]{0x30, 0x31, 0x32, 0x33, 0x34};
+    
+    private static TapServer tapServer;
+    
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        tapServer = new TapServer(0, 2, 4);
+        tapServer.start();
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+        tapServer.stop(0);
+    }
+    
+    private static HttpURLConnection post(String query, byte[] data) 
+            throws IOException {
+        URL url = new URL("http://127.0.0.1:" + tapServer.getPort() 
+                + TapServer.CONTEXT_PATH + query);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("POST");
+        conn.setDoOutput(true);
+        try (OutputStream out = conn.getOutputStream()) {
+            out.write(data);
+        }
+        return conn;
+    }
+    
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            baos.write(buffer, 0, n);
+        }
+        in.close();
+        return baos.toByteArray();
+    }
+    
+    @Test
+    public void testPost_sameAsData2tap() throws IOException, InvalidDataException {
+        File expected = File.createTempFile("data_1_", ".tap");
+        expected.deleteOnExit();
+        Data2tap data2tap = new Data2tap();
+        data2tap.setName("data_1");
+        data2tap.setAddress(50000);
+        data2tap.setRawData(DATA_1);
+        data2tap.setOutTapFile(expected);
+        data2tap.execute();
+        
+        HttpURLConnection conn = post("?address=50000&name=data_1&model=48k&type=3", 
+                DATA_1);
+        assertEquals(200, conn.getResponseCode());
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), 
+                readAll(conn.getInputStream()));
+    }
+
+    @Test
+    public void testPost_hexAddressAndEncodedName() throws IOException {
+        HttpURLConnection conn = post("?address=0x4000&name=a%20b", new byte[6912]);
+        assertEquals(200, conn.getResponseCode());
+        byte[] tap = readAll(conn.getInputStream());
+        assertEquals(21 + 6912 + 4, tap.length);
+        assertEquals('a', tap[4]);
+        assertEquals(' ', tap[5]);
+        assertEquals('b', tap[6]);
+    }
+    
+    @Test
+    public void testPost_invalidParams() throws IOException {
+        assertEquals(400, post("?name=x", DATA_1).getResponseCode());
+        assertEquals(400, post("?address=abc", DATA_1).getResponseCode());
+        assertEquals(400, post("?address=50000&model=128k", DATA_1).getResponseCode());
+        assertEquals(400, post("?address=50000&type=9", DATA_1).getResponseCode());
+        assertEquals(400, post("?address=100", DATA_1).getResponseCode());
+        assertEquals(400, post("?address=32768&model=16k", DATA_1).getResponseCode());
+        assertEquals(400, post("?address=50000", new byte[0]).getResponseCode());
+    }
+    
+    @Test
+    public void testPost_tooLarge() throws IOException {
+        assertEquals(413, post("?address=0x4000", new byte[0x10000]).getResponseCode());
+    }
+    
+    @Test(timeout = 30000)
+    public void testPost_overloaded() throws Exception {
+        TapServer server = new TapServer(0, 1, 1);
+        server.start();
+        Socket blocking = null;
+        Socket queued = null;
+        try {
+            // 1. požadavek blokuje jediné vlákno (čeká na zbytek těla)
+            blocking = sendIncomplete(server.getPort());
+            Thread.sleep(300);
+            // 2. požadavek čeká ve frontě
+            queued = sendIncomplete(server.getPort());
+            Thread.sleep(300);
+
+            URL url = new URL("http://127.0.0.1:" + server.getPort() 
+                    + TapServer.CONTEXT_PATH + "?address=50000");
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setRequestMethod("POST");
+            conn.setDoOutput(true);
+            conn.setReadTimeout(10000);
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(DATA_1);
+            }
+            assertEquals(503, conn.getResponseCode());
+            assertEquals("1", conn.getHeaderField("Retry-After"));
+        } finally {
+            if (blocking != null) {
+                blocking.close();
+            }
+            if (queued != null) {
+                queued.close();
+            }
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Pošle hlavičky požadavku, ale jen část těla.
+     */
+    private static Socket sendIncomplete(int port) throws IOException {
+        Socket socket = new Socket("127.0.0.1", port);
+        OutputStream out = socket.getOutputStream();
+        out.write(("POST " + TapServer.CONTEXT_PATH + "?address=50000 HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "Content-Length: 100\r\n\r\n01234")
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    @Test
+    public void testGet_notAllowed() throws IOException {
+        URL url = new URL("http://127.0.0.1:" + tapServer.getPort() 
+                + TapServer.CONTEXT_PATH + "?address=50000");
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        assertEquals(405, conn.getResponseCode());
+    }
+    
+}   // TapServerTest.java
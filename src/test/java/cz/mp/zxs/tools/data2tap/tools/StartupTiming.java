@@ -0,0 +1,184 @@
+/*
+ * StartupTiming.java
+ *
+ *  created: 17.10.2026
+ *  charset: UTF-8
+ */
+
+package cz.mp.zxs.tools.data2tap.tools;
+
+import cz.mp.zxs.tools.data2tap.Main;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Měří dobu běhu (od spuštění JVM po její ukončení) typických spuštění
+ * CLI a počet načtených tříd. Každý scénář běží v novém procesu.
+ * <p>
+ * Scénáře:
+ * <ul>
+ * <li>prázdná JVM (jen pro srovnání),</li>
+ * <li>{@code --version},</li>
+ * <li>převod jednoho souboru ({@code -i ... -o ...}),</li>
+ * <li>převod jednoho souboru s log souborem otevřeným hned 
+ *      ({@code FileHandler} místo {@code DeferredFileHandler}, 
+ *      tj. jako předchozí verze),</li>
+ * <li>{@code --help}.</li>
+ * </ul>
+ * Spuštění: {@code mvn verify -Pstartup-timing}
+ * (počet opakování: {@code -Dstartup.timing.runs=20}).
+ *
+ * @author Martin Pokorný
+ */
+public class StartupTiming {
+
+    /** Prázdný program (jen start a konec JVM). */
+    public static class Noop {
+        public static void main(String[] args) {
+        }
+    }
+
+    private final String javaBin;
+    private final String classPath;
+    private final File workDir;
+    private final int runs;
+
+    private StartupTiming(File workDir, int runs) {
+        this.javaBin = System.getProperty("java.home") + File.separator
+                + "bin" + File.separator + "java";
+        this.classPath = System.getProperty("java.class.path");
+        this.workDir = workDir;
+        this.runs = runs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+        Path workDir = Files.createTempDirectory("startup_timing_");
+        byte[] data = new byte[6912];
+        new Random(1).nextBytes(data);
+        Files.write(workDir.resolve("img.scr"), data);
+
+        Path deferredLog = workDir.resolve("deferred.properties");
+        Files.write(deferredLog, loggingProperties(workDir,
+                "cz.mp.utils.DeferredFileHandler"));
+        Path eagerLog = workDir.resolve("eager.properties");
+        Files.write(eagerLog, loggingProperties(workDir,
+                "java.util.logging.FileHandler"));
+
+        StartupTiming timing = new StartupTiming(workDir.toFile(), runs);
+        String mainClass = Main.class.getName();
+        String[] convert = {"-i", "img.scr", "-a", "0x4000", "-s", "screen",
+                "-o", "img.tap"};
+
+        System.out.println();
+        System.out.println("Startup timing (" + runs + " runs, median)");
+        System.out.println(String.format("%-36s %10s %10s %8s",
+                "scenario", "time [ms]", "classes", "swing"));
+        timing.measure("JVM only (no application)", null,
+                Noop.class.getName());
+        timing.measure("--version", deferredLog,
+                mainClass, "--version");
+        timing.measure("convert (deferred file log)", deferredLog,
+                mainClass, convert);
+        timing.measure("convert (file log opened eagerly)", eagerLog,
+                mainClass, convert);
+        timing.measure("--help", deferredLog,
+                mainClass, "--help");
+        System.out.println();
+    }
+
+    /**
+     *
+     * @param workDir
+     * @param fileHandler
+     * @return  obsah logging.properties (jako v distribuci)
+     */
+    private static byte[] loggingProperties(Path workDir, String fileHandler) {
+        String logPattern = workDir.resolve("zxs_data2tap_%g.log").toString()
+                .replace('\\', '/');
+        String text = "java.util.logging.SimpleFormatter.format = "
+                + "%1$tT %4$7s: %2$s  > %5$s %6$s%n\n"
+                + "java.util.logging.ConsoleHandler.level = OFF\n"
+                + "java.util.logging.FileHandler.level = FINE\n"
+                + "java.util.logging.FileHandler.pattern = " + logPattern + "\n"
+                + "java.util.logging.FileHandler.formatter = "
+                + "java.util.logging.SimpleFormatter\n"
+                + "cz.mp.zxs.tools.data2tap.level = FINE\n"
+                + "handlers = java.util.logging.ConsoleHandler, " + fileHandler + "\n";
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Spustí scénář {@code runs}krát (+ 1 zahřívací běh) a vypíše medián.
+     *
+     * @param label
+     * @param loggingConfig  {@code null} = bez nastavení logování
+     * @param mainClass
+     * @param args
+     */
+    private void measure(String label, Path loggingConfig, String mainClass,
+            String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<String>();
+        command.add(javaBin);
+        command.add("-verbose:class");
+        if (loggingConfig != null) {
+            command.add("-Djava.util.logging.config.file=" + loggingConfig);
+        }
+        command.add("-cp");
+        command.add(classPath);
+        command.add(mainClass);
+        command.addAll(Arrays.asList(args));
+
+        List<Long> times = new ArrayList<Long>();
+        int classes = 0;
+        int swingClasses = 0;
+        for (int i = 0; i <= runs; i++) {
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.directory(workDir);
+            pb.redirectErrorStream(true);
+
+            long start = System.nanoTime();
+            Process process = pb.start();
+            classes = 0;
+            swingClasses = 0;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // Java 8: "[Loaded ...", Java 9+: "[...][class,load] ..."
+                    if (line.startsWith("[Loaded ") || line.contains("[class,load]")) {
+                        classes++;
+                        if (line.contains("javax.swing.") || line.contains("java.awt.")) {
+                            swingClasses++;
+                        }
+                    }
+                }
+            }
+            int exitCode = process.waitFor();
+            long time = System.nanoTime() - start;
+            if (exitCode != 0) {
+                throw new IllegalStateException(label + ": exit code " + exitCode);
+            }
+            if (i > 0) {    // (první běh je zahřívací)
+                times.add(time);
+            }
+        }
+        Collections.sort(times);
+        long medianMs = times.get(times.size() / 2) / 1000000;
+        System.out.println(String.format("%-36s %10d %10d %8d",
+                label, medianMs, classes, swingClasses));
+    }
+
+}   // StartupTiming.java